@@ -0,0 +1,39 @@
+package com.yao.blog.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Broadcasts cache evictions over Redis pub/sub so every replica drops its local (L1) copy.
+ * Payload: {@code nodeId \n cacheName [\n key]}; a missing key means the whole cache was cleared.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CacheInvalidationBus {
+
+    public static final String CHANNEL = "blog:cache:invalidate";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public void publish(String cacheName, String key) {
+        String payload = nodeId + "\n" + cacheName + (key != null ? "\n" + key : "");
+        try {
+            redisTemplate.convertAndSend(CHANNEL, payload);
+        } catch (RuntimeException e) {
+            log.warn("Could not publish cache invalidation for {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    public void receive(byte[] body, TwoLevelCacheManager cacheManager) {
+        String[] parts = new String(body, StandardCharsets.UTF_8).split("\n", 3);
+        if (parts.length < 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+        cacheManager.evictLocal(parts[1], parts.length == 3 ? parts[2] : null);
+    }
+}
@@ -0,0 +1,134 @@
+package com.yao.blog.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+
+/**
+ * Evicts cached reads affected by a write. Inside a transaction evictions are deferred until commit,
+ * so a concurrent reader cannot re-cache the old state between eviction and commit. Content changes also
+ * advance the {@link ChangeSequence} that list ETags are built from.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidator {
+
+    private final CacheManager cacheManager;
+    private final ChangeSequence changeSequence;
+
+    public void blogChanged(Long blogId, Collection<Long> tagIdsWithNewCounts) {
+        afterCommit(() -> {
+            evict(CacheNames.BLOG_DETAIL, blogId);
+            evict(CacheNames.BLOG_VERSIONS, blogId);
+            clear(CacheNames.BLOG_PAGES);
+            clear(CacheNames.BLOG_TAG_PAGES);
+            clear(CacheNames.RECOMMENDED_BLOGS);
+            if (!tagIdsWithNewCounts.isEmpty()) {
+                // Other posts embed these tags' counts, in their bodies and their validators
+                clear(CacheNames.BLOG_DETAIL);
+                clear(CacheNames.BLOG_VERSIONS);
+                tagIdsWithNewCounts.forEach(tagId -> evict(CacheNames.TAG, tagId));
+                clear(CacheNames.TAGS);
+                clear(CacheNames.TOP_TAGS);
+            }
+            clear(CacheNames.RESPONSE_BYTES);
+            changeSequence.advance();
+        });
+    }
+
+    // Lazy re-rendering saves the row, which bumps its version
+    public void blogRendered(Long blogId) {
+        afterCommit(() -> evict(CacheNames.BLOG_VERSIONS, blogId));
+    }
+
+    // Bulk re-rendering writes the rows directly; descriptions and reading times in lists may change too
+    public void blogsRendered(Collection<Long> blogIds) {
+        afterCommit(() -> {
+            blogIds.forEach(blogId -> {
+                evict(CacheNames.BLOG_DETAIL, blogId);
+                evict(CacheNames.BLOG_VERSIONS, blogId);
+            });
+            clear(CacheNames.BLOG_PAGES);
+            clear(CacheNames.BLOG_TAG_PAGES);
+            clear(CacheNames.RECOMMENDED_BLOGS);
+            clear(CacheNames.RESPONSE_BYTES);
+            changeSequence.advance();
+        });
+    }
+
+    public void tagCreated() {
+        afterCommit(() -> {
+            clear(CacheNames.TAGS);
+            clear(CacheNames.TOP_TAGS);
+            clear(CacheNames.RESPONSE_BYTES);
+            changeSequence.advance();
+        });
+    }
+
+    // Renames and deletes show up in every blog response that embeds the tag
+    public void tagChanged(Long tagId) {
+        afterCommit(() -> {
+            evict(CacheNames.TAG, tagId);
+            clearTagsAndBlogs();
+        });
+    }
+
+    public void allTagsChanged() {
+        afterCommit(() -> {
+            clear(CacheNames.TAG);
+            clearTagsAndBlogs();
+        });
+    }
+
+    public void commentsChanged(Long blogId) {
+        afterCommit(() -> evict(CacheNames.COMMENTS, blogId));
+    }
+
+    public void tokenVersionChanged(Long userId) {
+        afterCommit(() -> evict(CacheNames.TOKEN_VERSIONS, userId));
+    }
+
+    private void clearTagsAndBlogs() {
+        clear(CacheNames.TAGS);
+        clear(CacheNames.TOP_TAGS);
+        clear(CacheNames.BLOG_DETAIL);
+        clear(CacheNames.BLOG_VERSIONS);
+        clear(CacheNames.BLOG_PAGES);
+        clear(CacheNames.BLOG_TAG_PAGES);
+        clear(CacheNames.RECOMMENDED_BLOGS);
+        clear(CacheNames.RESPONSE_BYTES);
+        changeSequence.advance();
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.yao.blog.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Short Redis lease that lets one node at a time load a missing cache entry; the others wait for it to show up in L2.
+ * The lease expires on its own, so a node that dies mid-load only delays the others by {@link #getTtl()}.
+ */
+@Slf4j
+public class CacheLoadLease {
+
+    static final String KEY_PREFIX = "blog:cache:lease:";
+
+    // Only the holder may release; an expired lease may already belong to another node
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+
+    public CacheLoadLease(StringRedisTemplate redisTemplate, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Returns a token to pass to {@link #release}, or null if another node holds the lease.
+     * Redis errors count as acquired, so an outage falls back to per-node coalescing.
+     */
+    public String tryAcquire(String cacheName, String key) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(leaseKey(cacheName, key), token, ttl);
+            return Boolean.FALSE.equals(acquired) ? null : token;
+        } catch (RuntimeException e) {
+            log.debug("Load lease unavailable for {}::{}: {}", cacheName, key, e.getMessage());
+            return token;
+        }
+    }
+
+    /**
+     * Whether some node still holds the lease. Redis errors count as not held, so waiters stop and load themselves.
+     */
+    public boolean isHeld(String cacheName, String key) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(leaseKey(cacheName, key)));
+        } catch (RuntimeException e) {
+            log.debug("Load lease unavailable for {}::{}: {}", cacheName, key, e.getMessage());
+            return false;
+        }
+    }
+
+    public void release(String cacheName, String key, String token) {
+        try {
+            redisTemplate.execute(RELEASE, List.of(leaseKey(cacheName, key)), token);
+        } catch (RuntimeException e) {
+            log.debug("Could not release load lease for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    private static String leaseKey(String cacheName, String key) {
+        return KEY_PREFIX + cacheName + "::" + key;
+    }
+}
@@ -0,0 +1,24 @@
+package com.yao.blog.cache;
+
+import java.util.List;
+
+public final class CacheNames {
+
+    public static final String BLOG_DETAIL = "blog";
+    public static final String BLOG_VERSIONS = "blogVersions";
+    public static final String BLOG_PAGES = "blogPages";
+    public static final String BLOG_TAG_PAGES = "blogTagPages";
+    public static final String RECOMMENDED_BLOGS = "recommendedBlogs";
+    public static final String TAG = "tag";
+    public static final String TAGS = "tags";
+    public static final String TOP_TAGS = "topTags";
+    public static final String COMMENTS = "comments";
+    public static final String TOKEN_VERSIONS = "tokenVersions";
+    public static final String RESPONSE_BYTES = "responseBytes";
+
+    public static final List<String> ALL = List.of(
+            BLOG_DETAIL, BLOG_VERSIONS, BLOG_PAGES, BLOG_TAG_PAGES, RECOMMENDED_BLOGS, TAG, TAGS, TOP_TAGS, COMMENTS,
+            TOKEN_VERSIONS, RESPONSE_BYTES);
+
+    private CacheNames() {}
+}
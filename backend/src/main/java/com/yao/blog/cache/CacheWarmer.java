@@ -0,0 +1,178 @@
+package com.yao.blog.cache;
+
+import com.yao.blog.repository.BlogRepository;
+import com.yao.blog.service.BlogService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fills the caches and warms the JIT before the node takes traffic. Runs on {@link ApplicationReadyEvent},
+ * which Spring Boot publishes before switching readiness to ACCEPTING_TRAFFIC, so
+ * {@code /actuator/health/readiness} stays down until warm-up is over. Failures are logged, never fatal.
+ * <p>
+ * The most-viewed posts are fetched from L2 in one pipelined round trip, the rest loaded from the database,
+ * then loopback requests run through the hot endpoints so serialization and compression get compiled.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheWarmer {
+
+    static final String WARMUP_HEADER = "X-Blog-Warmup";
+
+    private static final List<String> HOT_PATHS = List.of(
+            "/api/blogs", "/api/blogs/recommend", "/api/blogs/archive", "/api/tags", "/api/tags/top");
+
+    private final ApplicationContext applicationContext;
+    private final CacheManager cacheManager;
+    private final RedisConnectionFactory connectionFactory;
+    private final BlogRepository blogRepository;
+    private final BlogService blogService;
+    private final MeterRegistry meterRegistry;
+    // Marks our own loopback requests so they are not counted as views
+    private final String token = UUID.randomUUID().toString();
+
+    @Value("${blog.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${blog.warmup.hot-blogs:20}")
+    private int hotBlogs;
+
+    @Value("${blog.warmup.requests:2000}")
+    private int requests;
+
+    @Value("${blog.warmup.timeout:60s}")
+    private Duration timeout;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        int prefetched = 0;
+        int exercised = 0;
+        try {
+            List<Long> blogIds = blogRepository.findMostViewedIds(PageRequest.of(0, hotBlogs));
+            prefetched = prefetchFromRedis(blogIds);
+            for (Long id : blogIds) {
+                if (System.nanoTime() > deadline) {
+                    break;
+                }
+                blogService.getBlogAndConvert(id);
+            }
+            exercised = exercise(blogIds, deadline);
+        } catch (RuntimeException e) {
+            log.warn("Cache warm-up stopped early: {}", e.getMessage());
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        recordMetrics(elapsed, prefetched, exercised);
+        log.info("Cache warm-up finished in {} ms: {} posts from Redis, {} requests", elapsed.toMillis(), prefetched, exercised);
+    }
+
+    public boolean isWarmupRequest(HttpServletRequest request) {
+        return token.equals(request.getHeader(WARMUP_HEADER));
+    }
+
+    private int prefetchFromRedis(List<Long> blogIds) {
+        if (blogIds.isEmpty() || !(cacheManager.getCache(CacheNames.BLOG_DETAIL) instanceof TwoLevelCache cache)
+                || !(cache.getRemote() instanceof RedisCache remote)) {
+            return 0;
+        }
+        RedisCacheConfiguration config = remote.getCacheConfiguration();
+        String prefix = config.getKeyPrefixFor(remote.getName());
+        List<Object> values;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            for (Long id : blogIds) {
+                connection.stringCommands().get(ByteUtils.getBytes(config.getKeySerializationPair().write(prefix + id)));
+            }
+            values = connection.closePipeline();
+        } catch (RuntimeException e) {
+            log.debug("Skipping Redis prefetch: {}", e.getMessage());
+            return 0;
+        }
+        int hits = 0;
+        for (int i = 0; i < values.size() && i < blogIds.size(); i++) {
+            if (values.get(i) instanceof byte[] bytes) {
+                cache.putLocal(blogIds.get(i).toString(), config.getValueSerializationPair().read(ByteBuffer.wrap(bytes)));
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    private int exercise(List<Long> blogIds, long deadline) {
+        if (!(applicationContext instanceof WebServerApplicationContext web) || web.getWebServer() == null) {
+            return 0;
+        }
+        String base = "http://localhost:" + web.getWebServer().getPort();
+        List<URI> targets = new ArrayList<>();
+        HOT_PATHS.forEach(path -> targets.add(URI.create(base + path)));
+        blogIds.forEach(id -> targets.add(URI.create(base + "/api/blogs/" + id)));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        int sent = 0;
+        while (sent < requests && System.nanoTime() < deadline) {
+            HttpRequest request = HttpRequest.newBuilder(targets.get(sent % targets.size()))
+                    .header("Accept-Encoding", "gzip, br")
+                    .header(WARMUP_HEADER, token)
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
+            try {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+            } catch (IOException e) {
+                log.debug("Warm-up request to {} failed: {}", request.uri(), e.getMessage());
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            sent++;
+        }
+        return sent;
+    }
+
+    private void recordMetrics(Duration elapsed, int prefetched, int exercised) {
+        Timer.builder("blog.cache.warmup.duration").register(meterRegistry).record(elapsed);
+        Gauge.builder("blog.cache.warmup.prefetched", () -> prefetched).register(meterRegistry);
+        Gauge.builder("blog.cache.warmup.requests", () -> exercised).register(meterRegistry);
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> local) {
+                long entries = local.estimatedSize();
+                Gauge.builder("blog.cache.warmup.entries", () -> entries).tag("cache", name).register(meterRegistry);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.yao.blog.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collection-level change counter behind the weak ETags of list endpoints, advanced by content writes and by
+ * view count flushes, since list items carry view counts. Shared through Redis so every replica hands out the
+ * same validator; falls back to a per-node counter when Redis is off or unreachable.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChangeSequence {
+
+    static final String REDIS_KEY = "blog:content:seq";
+
+    private final StringRedisTemplate redisTemplate;
+    // Seeded from the clock so a restart never reissues a validator handed out before it
+    private final AtomicLong local = new AtomicLong(System.currentTimeMillis());
+
+    @Value("${blog.cache.redis-enabled:true}")
+    private boolean redisEnabled;
+
+    public long current() {
+        if (redisEnabled) {
+            try {
+                String value = redisTemplate.opsForValue().get(REDIS_KEY);
+                if (value != null) {
+                    return Long.parseLong(value);
+                }
+                redisTemplate.opsForValue().setIfAbsent(REDIS_KEY, Long.toString(local.get()));
+                return Long.parseLong(redisTemplate.opsForValue().get(REDIS_KEY));
+            } catch (RuntimeException e) {
+                log.debug("Change sequence unavailable in Redis: {}", e.getMessage());
+            }
+        }
+        return local.get();
+    }
+
+    public void advance() {
+        local.incrementAndGet();
+        if (redisEnabled) {
+            try {
+                redisTemplate.opsForValue().increment(REDIS_KEY);
+            } catch (RuntimeException e) {
+                log.warn("Could not advance change sequence in Redis: {}", e.getMessage());
+            }
+        }
+    }
+}
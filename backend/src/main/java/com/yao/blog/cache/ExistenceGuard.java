@@ -0,0 +1,256 @@
+package com.yao.blog.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yao.blog.exception.ResourceNotFoundException;
+import com.yao.blog.repository.BlogRepository;
+import com.yao.blog.repository.CommentRepository;
+import com.yao.blog.repository.TagRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Answers "does this id exist?" without a query when the answer is no. A Bloom filter of live ids per kind
+ * rejects ids that were never created; ids that pass the filter but are missing in the database (deleted,
+ * or a false positive) are remembered in a short negative cache. Filters are rebuilt on startup and
+ * periodically, which also drops deleted ids. Ids created on any node are broadcast over Redis, so other
+ * replicas stop rejecting them right after commit. Until the first build every id passes.
+ * <p>
+ * The broadcast is pub/sub and can be lost, e.g. while a subscriber reconnects, so the filter only rejects
+ * ids up to the highest one its last rebuild saw; anything newer goes to the database. That leaves one
+ * window: an id at or below that mark which was not live at the rebuild, because its transaction committed
+ * later, is answered 404 on nodes that missed its broadcast until their next rebuild.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExistenceGuard {
+
+    public static final String CHANNEL = "blog:guard:created";
+
+    public enum Kind {
+        BLOG("Blog"), TAG("Tag"), COMMENT("Comment");
+
+        private final String resource;
+
+        Kind(String resource) {
+            this.resource = resource;
+        }
+    }
+
+    private final BlogRepository blogRepository;
+    private final TagRepository tagRepository;
+    private final CommentRepository commentRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${blog.guard.enabled:true}")
+    private boolean enabled;
+
+    @Value("${blog.guard.false-positive-probability:0.01}")
+    private double falsePositiveProbability;
+
+    @Value("${blog.guard.negative-ttl:30s}")
+    private Duration negativeTtl;
+
+    @Value("${blog.cache.redis-enabled:true}")
+    private boolean redisEnabled;
+
+    private final Map<Kind, Filter> filters = new EnumMap<>(Kind.class);
+    private Cache<String, Boolean> negative;
+
+    @PostConstruct
+    void init() {
+        negative = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(negativeTtl)
+                .build();
+        for (Kind kind : Kind.values()) {
+            filters.put(kind, new Filter(meterRegistry, kind));
+        }
+    }
+
+    /**
+     * False only if the id is known not to exist: never created, or missing on a recent lookup.
+     */
+    public boolean mightExist(Kind kind, Long id) {
+        if (!enabled || id == null) {
+            return true;
+        }
+        Filter filter = filters.get(kind);
+        if (negative.getIfPresent(negativeKey(kind, id)) != null) {
+            filter.negativeHits.increment();
+            return false;
+        }
+        IdBloomFilter bloom = filter.bloom;
+        if (bloom != null && id <= filter.highestAtRebuild && !bloom.mightContain(id)) {
+            filter.rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public void require(Kind kind, Long id) {
+        if (!mightExist(kind, id)) {
+            throw new ResourceNotFoundException(kind.resource, id);
+        }
+    }
+
+    /**
+     * Records that an id which passed the guard was not found, and returns the exception to throw.
+     */
+    public ResourceNotFoundException missing(Kind kind, Long id) {
+        recordMissing(kind, id);
+        return new ResourceNotFoundException(kind.resource, id);
+    }
+
+    public void recordMissing(Kind kind, Long id) {
+        if (!enabled) {
+            return;
+        }
+        filters.get(kind).falsePositives.increment();
+        negative.put(negativeKey(kind, id), Boolean.TRUE);
+    }
+
+    public void created(Kind kind, Long id) {
+        add(kind, id);
+        afterCommit(() -> {
+            // A read racing the commit may have cached the id as missing
+            negative.invalidate(negativeKey(kind, id));
+            if (redisEnabled) {
+                try {
+                    redisTemplate.convertAndSend(CHANNEL, kind.name() + ":" + id);
+                } catch (RuntimeException e) {
+                    log.warn("Could not broadcast new {} id {}: {}", kind, id, e.getMessage());
+                }
+            }
+        });
+    }
+
+    public void receive(byte[] body) {
+        String[] parts = new String(body, StandardCharsets.UTF_8).split(":", 2);
+        try {
+            add(Kind.valueOf(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            log.debug("Ignoring malformed guard message: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${blog.guard.rebuild-interval:3600000}",
+            initialDelayString = "${blog.guard.rebuild-interval:3600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        filters.get(Kind.BLOG).rebuild(blogRepository::findLiveIds, falsePositiveProbability);
+        filters.get(Kind.TAG).rebuild(tagRepository::findLiveIds, falsePositiveProbability);
+        filters.get(Kind.COMMENT).rebuild(commentRepository::findLiveIds, falsePositiveProbability);
+    }
+
+    private void add(Kind kind, Long id) {
+        negative.invalidate(negativeKey(kind, id));
+        filters.get(kind).add(id);
+    }
+
+    private static String negativeKey(Kind kind, Long id) {
+        return kind.name() + ":" + id;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class Filter {
+
+        private final Kind kind;
+        private final Counter rejected;
+        private final Counter falsePositives;
+        private final Counter negativeHits;
+        private volatile IdBloomFilter bloom;
+        // Written before bloom, so a reader that sees a new filter also sees its mark
+        private volatile long highestAtRebuild;
+        // Ids created while a rebuild is loading, replayed onto the new filter; guarded by this
+        private List<Long> journal;
+
+        Filter(MeterRegistry registry, Kind kind) {
+            this.kind = kind;
+            String entity = kind.name().toLowerCase();
+            this.rejected = Counter.builder("blog.guard.rejected").tag("entity", entity).register(registry);
+            this.falsePositives = Counter.builder("blog.guard.false-positives").tag("entity", entity).register(registry);
+            this.negativeHits = Counter.builder("blog.guard.negative-hits").tag("entity", entity).register(registry);
+            // Share of absent ids the filter let through to the database; ids deleted since the last rebuild, and
+            // missing ids above its highest, count too
+            Gauge.builder("blog.guard.false-positive-rate", this, Filter::falsePositiveRate)
+                    .tag("entity", entity)
+                    .register(registry);
+        }
+
+        synchronized void add(Long id) {
+            if (journal != null) {
+                journal.add(id);
+            }
+            if (bloom != null) {
+                bloom.put(id);
+            }
+        }
+
+        void rebuild(Supplier<List<Long>> liveIds, double falsePositiveProbability) {
+            synchronized (this) {
+                journal = new ArrayList<>();
+            }
+            try {
+                List<Long> ids = liveIds.get();
+                // Headroom for ids created before the next rebuild
+                IdBloomFilter fresh = new IdBloomFilter(Math.max(1024, ids.size() * 2L), falsePositiveProbability);
+                ids.forEach(fresh::put);
+                synchronized (this) {
+                    journal.forEach(fresh::put);
+                    highestAtRebuild = ids.stream().mapToLong(Long::longValue).max().orElse(0);
+                    bloom = fresh;
+                }
+                log.debug("Existence filter for {} rebuilt with {} ids", kind, ids.size());
+            } catch (RuntimeException e) {
+                log.warn("Could not rebuild existence filter for {}: {}", kind, e.getMessage());
+            } finally {
+                synchronized (this) {
+                    journal = null;
+                }
+            }
+        }
+
+        double falsePositiveRate() {
+            double absentLookups = rejected.count() + falsePositives.count();
+            return absentLookups == 0 ? 0 : falsePositives.count() / absentLookups;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.yao.blog.cache;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves hot public endpoints from cached JSON bytes, pre-compressed with gzip and brotli, written straight
+ * to the servlet output stream. Entries are cleared by {@link CacheInvalidator} on the same writes as the data.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResponseBytesCache {
+
+    private static final int MIN_COMPRESS_SIZE = 1024;
+    // Compression runs once per entry, so trade some CPU on the miss for smaller responses on every hit
+    private static final int BROTLI_QUALITY = 8;
+
+    private static final boolean BROTLI_AVAILABLE = loadBrotli();
+    // ID1 ID2, deflate, no flags, no mtime, no extra flags, unknown OS
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+
+    @Value("${blog.cache.response-bytes.enabled:true}")
+    private boolean enabled;
+
+    public static String blogKey(Long id) {
+        return "blog:" + id;
+    }
+
+    public static String recommendKey(int size) {
+        return "recommend:" + size;
+    }
+
+    public static String tagsKey() {
+        return "tags";
+    }
+
+    public void write(String key, Supplier<?> loader, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        write(key, loader, Map.of(), request, response);
+    }
+
+    /**
+     * Writes the cached body with {@code liveFields} spliced in at the start of the JSON object, for values that
+     * change too often to be cached with it, such as a post's view count. The loader's value must leave those
+     * fields out. Spliced bodies are served gzip or identity: a brotli stream cannot be assembled around a new
+     * prefix, while a gzip member can be, from the deflated tail kept with the entry.
+     */
+    public void write(String key, Supplier<?> loader, Map<String, ?> liveFields, HttpServletRequest request,
+                      HttpServletResponse response) throws IOException {
+        boolean splice = !liveFields.isEmpty();
+        String encoding = coding(request, splice);
+        byte[] body;
+        if (enabled) {
+            SerializedResponse cached = load(key, loader, splice);
+            if (splice) {
+                byte[] prefix = prefix(liveFields, cached.identity());
+                body = "gzip".equals(encoding) ? gzipSpliced(prefix, cached) : null;
+                if (body == null) {
+                    encoding = null;
+                    body = spliced(prefix, cached.identity());
+                }
+            } else {
+                body = switch (encoding) {
+                    case "br" -> cached.brotli();
+                    case "gzip" -> cached.gzip();
+                    default -> null;
+                };
+                if (body == null) {
+                    encoding = null;
+                    body = cached.identity();
+                }
+            }
+        } else {
+            // Per-request serialization and compression, as a servlet container would do it
+            byte[] json = objectMapper.writeValueAsBytes(loader.get());
+            if (splice) {
+                json = spliced(prefix(liveFields, json), json);
+            }
+            body = json.length >= MIN_COMPRESS_SIZE ? compress(json, encoding) : null;
+            if (body == null) {
+                encoding = null;
+                body = json;
+            }
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (encoding != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private SerializedResponse load(String key, Supplier<?> loader, boolean splice) {
+        Cache cache = cacheManager.getCache(CacheNames.RESPONSE_BYTES);
+        if (cache == null) {
+            return serialize(loader.get(), splice);
+        }
+        try {
+            return cache.get(key, () -> serialize(loader.get(), splice));
+        } catch (Cache.ValueRetrievalException e) {
+            // Let ResourceNotFoundException and friends reach the exception handler unwrapped
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private SerializedResponse serialize(Object value, boolean splice) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            if (json.length < MIN_COMPRESS_SIZE) {
+                return new SerializedResponse(json, null, null, null);
+            }
+            if (splice) {
+                return new SerializedResponse(json, null, null, deflate(json, 1));
+            }
+            return new SerializedResponse(json, compress(json, "gzip"), compress(json, "br"), null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // "{" and the live fields with a trailing comma, which replace the body's opening brace
+    private byte[] prefix(Map<String, ?> liveFields, byte[] json) throws IOException {
+        byte[] fields = objectMapper.writeValueAsBytes(liveFields);
+        if (fields.length == 2) {
+            return new byte[]{'{'};
+        }
+        boolean emptyBody = json.length == 2;
+        byte[] prefix = Arrays.copyOf(fields, emptyBody ? fields.length - 1 : fields.length);
+        if (!emptyBody) {
+            prefix[prefix.length - 1] = ',';
+        }
+        return prefix;
+    }
+
+    private static byte[] spliced(byte[] prefix, byte[] json) {
+        byte[] body = Arrays.copyOf(prefix, prefix.length + json.length - 1);
+        System.arraycopy(json, 1, body, prefix.length, json.length - 1);
+        return body;
+    }
+
+    /**
+     * One gzip member: the prefix as a stored, non-final deflate block, then the pre-deflated tail, whose
+     * blocks start byte-aligned after a stored block. Only the CRC covers the whole body and is computed here.
+     */
+    private static byte[] gzipSpliced(byte[] prefix, SerializedResponse cached) {
+        byte[] json = cached.identity();
+        byte[] tail = cached.deflatedTail();
+        if (tail == null || prefix.length > 0xFFFF) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(prefix);
+        crc.update(json, 1, json.length - 1);
+        ByteBuffer out = ByteBuffer.allocate(GZIP_HEADER.length + 5 + prefix.length + tail.length + 8)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        out.put(GZIP_HEADER)
+                .put((byte) 0).putShort((short) prefix.length).putShort((short) ~prefix.length)
+                .put(prefix)
+                .put(tail)
+                .putInt((int) crc.getValue())
+                .putInt(prefix.length + json.length - 1);
+        return out.array();
+    }
+
+    // Raw deflate, no zlib or gzip framing, of json from offset on
+    private static byte[] deflate(byte[] json, int offset) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(json, offset, json.length - offset);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] compress(byte[] json, String encoding) throws IOException {
+        if ("gzip".equals(encoding)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+                gzip.write(json);
+            }
+            return out.toByteArray();
+        }
+        if ("br".equals(encoding) && BROTLI_AVAILABLE) {
+            return Encoder.compress(json, new Encoder.Parameters().setQuality(BROTLI_QUALITY).setMode(Encoder.Mode.TEXT));
+        }
+        return null;
+    }
+
+    // The coding write() answers this request with, for validators that must differ per coding
+    public static String coding(HttpServletRequest request, boolean splice) {
+        Set<String> accepted = acceptedCodings(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        return splice ? (accepted.contains("gzip") ? "gzip" : "identity") : negotiate(accepted);
+    }
+
+    // Prefers br, then gzip; honours q=0 exclusions
+    public static String negotiate(String acceptEncoding) {
+        return negotiate(acceptedCodings(acceptEncoding));
+    }
+
+    private static String negotiate(Set<String> accepted) {
+        if (accepted.contains("br") && BROTLI_AVAILABLE) {
+            return "br";
+        }
+        return accepted.contains("gzip") ? "gzip" : "identity";
+    }
+
+    private static Set<String> acceptedCodings(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return Set.of();
+        }
+        Set<String> accepted = new HashSet<>();
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            boolean rejected = tokens.length > 1 && tokens[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            if (!rejected) {
+                accepted.add(tokens[0].trim().toLowerCase());
+            }
+        }
+        return accepted;
+    }
+
+    private static boolean loadBrotli() {
+        try {
+            Brotli4jLoader.ensureAvailability();
+            return true;
+        } catch (Throwable e) {
+            log.info("Brotli encoder not available on this platform, serving gzip only: {}", e.getMessage());
+            return false;
+        }
+    }
+}
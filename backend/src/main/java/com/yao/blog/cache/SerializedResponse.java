@@ -0,0 +1,17 @@
+package com.yao.blog.cache;
+
+/**
+ * A JSON body serialized once, with its compressed variants. A variant is null when the body is too
+ * small to be worth compressing or the encoder is unavailable. Bodies that get fields spliced in per
+ * request keep {@code deflatedTail} instead of gzip and brotli: everything after the opening brace,
+ * deflated on its own so a gzip member can be assembled around the spliced prefix.
+ */
+public record SerializedResponse(byte[] identity, byte[] gzip, byte[] brotli, byte[] deflatedTail) {
+
+    public int weight() {
+        return identity.length
+                + (gzip != null ? gzip.length : 0)
+                + (brotli != null ? brotli.length : 0)
+                + (deflatedTail != null ? deflatedTail.length : 0);
+    }
+}
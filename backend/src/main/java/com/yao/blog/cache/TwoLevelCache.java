@@ -0,0 +1,338 @@
+package com.yao.blog.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A bounded on-heap cache (L1) in front of a shared Redis cache (L2). Reads fill L1 from L2;
+ * writes and evictions go to both, and evictions are broadcast so other nodes drop their L1 copy.
+ * L2 failures are logged and treated as misses so Redis outages degrade to L1-only caching.
+ * <p>
+ * Loads through {@link #get(Object, Callable)} are single-flight: concurrent misses on one key share a
+ * single load, and with a {@link CacheLoadLease} only one node loads while the others wait for L2.
+ * Entries read in the last part of their L1 lifetime are reloaded in the background, at a jittered
+ * point, so hot keys rarely expire under load.
+ * <p>
+ * While a loader runs, {@link #isLoading()} is true on its thread, so the data source can read the value
+ * from the primary: a value loaded from a lagging replica right after an eviction would be kept for the
+ * full time-to-live.
+ */
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private static final Duration REMOTE_POLL_INTERVAL = Duration.ofMillis(20);
+    private static final ThreadLocal<Boolean> LOADING = new ThreadLocal<>();
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final CacheInvalidationBus bus;
+    private final CacheLoadLease lease;
+    private final Executor refreshExecutor;
+    private final double refreshAhead;
+    // Loads in progress; evictions drop the entry so later callers start a fresh load
+    private final ConcurrentMap<String, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+
+    /**
+     * @param refreshAhead fraction of the L1 time-to-live after which reads may trigger a background reload;
+     *                     1 or more disables early refresh
+     */
+    public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                         Cache remote, CacheInvalidationBus bus, CacheLoadLease lease,
+                         Executor refreshExecutor, double refreshAhead) {
+        super(false);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.bus = bus;
+        this.lease = lease;
+        this.refreshExecutor = refreshExecutor;
+        this.refreshAhead = refreshAhead;
+    }
+
+    /**
+     * Whether the current thread is computing a value for some two-level cache, including early refreshes.
+     */
+    public static boolean isLoading() {
+        return LOADING.get() != null;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = key.toString();
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            return value;
+        }
+        value = remoteGet(localKey);
+        if (value != null) {
+            local.put(localKey, value);
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = key.toString();
+        Object cached = local.getIfPresent(localKey);
+        if (cached != null) {
+            if (refreshDue(localKey)) {
+                refreshAsync(localKey, cached, valueLoader);
+            }
+            return (T) cached;
+        }
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> running = loads.putIfAbsent(localKey, load);
+        if (running != null) {
+            return (T) await(running);
+        }
+        return (T) runLoad(localKey, load, () -> {
+            Object value = lookup(localKey);
+            if (value != null) {
+                return value;
+            }
+            String token = acquireLease(localKey);
+            if (token == null) {
+                value = awaitRemote(localKey);
+                if (value != null) {
+                    return value;
+                }
+                // The holder gave up the lease without storing a value (its load threw or returned null), or it
+                // is slow and the lease lapsed: load here, under the lease if no other node took it meanwhile
+                token = acquireLease(localKey);
+            }
+            return loadAndStore(localKey, valueLoader, load, token);
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        String localKey = key.toString();
+        local.put(localKey, value);
+        if (remote != null) {
+            try {
+                remote.put(localKey, value);
+            } catch (RuntimeException e) {
+                log.debug("L2 put failed for {}::{}: {}", name, localKey, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = key.toString();
+        loads.remove(localKey);
+        local.invalidate(localKey);
+        if (remote != null) {
+            try {
+                remote.evict(localKey);
+            } catch (RuntimeException e) {
+                log.warn("L2 evict failed for {}::{}: {}", name, localKey, e.getMessage());
+            }
+        }
+        if (bus != null) {
+            bus.publish(name, localKey);
+        }
+    }
+
+    @Override
+    public void clear() {
+        loads.clear();
+        local.invalidateAll();
+        if (remote != null) {
+            try {
+                remote.clear();
+            } catch (RuntimeException e) {
+                log.warn("L2 clear failed for {}: {}", name, e.getMessage());
+            }
+        }
+        if (bus != null) {
+            bus.publish(name, null);
+        }
+    }
+
+    Cache getRemote() {
+        return remote;
+    }
+
+    void putLocal(String key, Object value) {
+        local.put(key, value);
+    }
+
+    void evictLocal(String key) {
+        if (key == null) {
+            loads.clear();
+            local.invalidateAll();
+        } else {
+            loads.remove(key);
+            local.invalidate(key);
+        }
+    }
+
+    private boolean refreshDue(String key) {
+        if (refreshAhead >= 1) {
+            return false;
+        }
+        return local.policy().expireAfterWrite().map(expiration -> {
+            long ttl = expiration.getExpiresAfter(TimeUnit.NANOSECONDS);
+            long start = (long) (ttl * refreshAhead);
+            // Spread over the first half of the window so replicas and keys do not all reload at once
+            long jitter = ThreadLocalRandom.current().nextLong((ttl - start) / 2 + 1);
+            return expiration.ageOf(key, TimeUnit.NANOSECONDS).orElse(0) >= start + jitter;
+        }).orElse(false);
+    }
+
+    private void refreshAsync(String key, Object current, Callable<?> valueLoader) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        if (loads.putIfAbsent(key, load) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    runLoad(key, load, () -> {
+                        String token = acquireLease(key);
+                        if (token == null) {
+                            // Another node is refreshing and will publish the new value to L2
+                            return current;
+                        }
+                        return loadAndStore(key, valueLoader, load, token);
+                    });
+                } catch (RuntimeException e) {
+                    log.debug("Early refresh failed for {}::{}: {}", name, key, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loads.remove(key, load);
+            load.complete(current);
+        }
+    }
+
+    private Object runLoad(String key, CompletableFuture<Object> load, Supplier<Object> loader) {
+        try {
+            Object value = loader.get();
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    private Object loadAndStore(String key, Callable<?> valueLoader, CompletableFuture<Object> load, String token) {
+        try {
+            Object value;
+            boolean outermost = LOADING.get() == null;
+            LOADING.set(Boolean.TRUE);
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            } finally {
+                if (outermost) {
+                    LOADING.remove();
+                }
+            }
+            // An eviction during the load means the value may predate the change; hand it out but do not keep it
+            if (loads.get(key) == load) {
+                put(key, value);
+            }
+            return value;
+        } finally {
+            if (usesLease() && token != null) {
+                lease.release(name, key, token);
+            }
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Without a lease every node counts as the holder
+    private String acquireLease(String key) {
+        return usesLease() ? lease.tryAcquire(name, key) : "";
+    }
+
+    // An L1-only cache skips the lease: no other node's value could be read, so waiting for one only adds latency
+    private boolean usesLease() {
+        return lease != null && remote != null;
+    }
+
+    private Object awaitRemote(String key) {
+        long deadline = System.nanoTime() + lease.getTtl().toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(REMOTE_POLL_INTERVAL.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            Object value = remoteGet(key);
+            if (value == null && !lease.isHeld(name, key)) {
+                // The holder stores before it releases, so one more read settles whether it left a value
+                value = remoteGet(key);
+                if (value == null) {
+                    return null;
+                }
+            }
+            if (value != null) {
+                local.put(key, value);
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private Object remoteGet(String key) {
+        if (remote == null) {
+            return null;
+        }
+        try {
+            Cache.ValueWrapper wrapper = remote.get(key);
+            return wrapper != null ? wrapper.get() : null;
+        } catch (RuntimeException e) {
+            log.debug("L2 get failed for {}::{}: {}", name, key, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.yao.blog.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.AbstractCacheManager;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves a fixed set of {@link TwoLevelCache}s. {@code remote}, {@code bus} and {@code lease} may be null
+ * for L1-only operation.
+ */
+public class TwoLevelCacheManager extends AbstractCacheManager {
+
+    private final Collection<String> cacheNames;
+    private final long localMaximumSize;
+    private final Duration localTtl;
+    private final CacheManager remote;
+    private final CacheInvalidationBus bus;
+    private final CacheLoadLease lease;
+    private final double refreshAhead;
+    private final Map<String, Caffeine<Object, Object>> localSpecs = new HashMap<>();
+    // Small and bounded: a refresh that cannot be queued is skipped, the entry just expires normally
+    private final Executor refreshExecutor = new ThreadPoolExecutor(1, 2, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(256), daemonThreads());
+
+    public TwoLevelCacheManager(Collection<String> cacheNames, long localMaximumSize, Duration localTtl,
+                                double refreshAhead, CacheManager remote, CacheInvalidationBus bus,
+                                CacheLoadLease lease) {
+        this.cacheNames = cacheNames;
+        this.localMaximumSize = localMaximumSize;
+        this.localTtl = localTtl;
+        this.refreshAhead = refreshAhead;
+        this.remote = remote;
+        this.bus = bus;
+        this.lease = lease;
+    }
+
+    /**
+     * Overrides the L1 settings of one cache, e.g. to bound it by weight. Must be called before initialization.
+     */
+    public TwoLevelCacheManager withLocalSpec(String cacheName, Caffeine<Object, Object> spec) {
+        localSpecs.put(cacheName, spec);
+        return this;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return cacheNames.stream()
+                .map(name -> new TwoLevelCache(name,
+                        localSpecs.getOrDefault(name, Caffeine.newBuilder()
+                                        .maximumSize(localMaximumSize)
+                                        .expireAfterWrite(localTtl))
+                                .build(),
+                        remote != null ? remote.getCache(name) : null,
+                        bus, lease, refreshExecutor, refreshAhead))
+                .toList();
+    }
+
+    private static CustomizableThreadFactory daemonThreads() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-refresh-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    public void evictLocal(String cacheName, String key) {
+        Cache cache = getCache(cacheName);
+        if (cache instanceof TwoLevelCache twoLevel) {
+            twoLevel.evictLocal(key);
+        }
+    }
+}
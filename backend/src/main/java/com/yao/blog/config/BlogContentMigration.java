@@ -0,0 +1,77 @@
+package com.yao.blog.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Migration 6: moves post bodies from the columns they used to have on t_blog into t_blog_content (created
+ * by V5), then drops those columns. On a database without the legacy columns it does nothing. Only the
+ * columns the old schema actually had are copied: the V1 schema has just content, so those posts are
+ * rendered on first read. A bean so Flyway picks it up alongside the SQL migrations of either vendor.
+ */
+@Slf4j
+@Component
+public class BlogContentMigration implements JavaMigration {
+
+    // In copy order; the first must exist for there to be anything to migrate
+    private static final List<String> LEGACY_COLUMNS = List.of(
+            "content", "content_html", "content_hash", "renderer_version", "outline", "images");
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("6");
+    }
+
+    @Override
+    public String getDescription() {
+        return "move post bodies to t_blog_content";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return true;
+    }
+
+    @Override
+    public void migrate(Context context) {
+        moveBodies(new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true)));
+    }
+
+    void moveBodies(JdbcTemplate jdbcTemplate) {
+        Set<String> existing = jdbcTemplate.queryForList(
+                        "SELECT column_name FROM information_schema.columns "
+                                + "WHERE LOWER(table_name) = 't_blog' AND table_schema = CURRENT_SCHEMA", String.class)
+                .stream()
+                .map(name -> name.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        if (!existing.contains(LEGACY_COLUMNS.get(0))) {
+            return;
+        }
+        List<String> columns = LEGACY_COLUMNS.stream().filter(existing::contains).toList();
+        String list = String.join(", ", columns);
+        int copied = jdbcTemplate.update("INSERT INTO t_blog_content (blog_id, " + list + ") "
+                + "SELECT id, " + list + " FROM t_blog b "
+                + "WHERE NOT EXISTS (SELECT 1 FROM t_blog_content c WHERE c.blog_id = b.id)");
+        // A full-text vector from before V9 may be generated from t_blog.content; V9 recreates it without
+        jdbcTemplate.execute("ALTER TABLE t_blog DROP COLUMN IF EXISTS search_vector");
+        for (String column : columns) {
+            jdbcTemplate.execute("ALTER TABLE t_blog DROP COLUMN " + column);
+        }
+        log.info("Moved {} post bodies from t_blog to t_blog_content; dropped t_blog columns {}", copied, columns);
+    }
+}
@@ -1,31 +1,180 @@
 package com.yao.blog.config;
 
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.yao.blog.cache.BinaryRedisSerializer;
+import com.yao.blog.cache.CacheInvalidationBus;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yao.blog.cache.CacheLoadLease;
+import com.yao.blog.cache.CacheNames;
+import com.yao.blog.cache.ExistenceGuard;
+import com.yao.blog.cache.SerializedResponse;
+import com.yao.blog.cache.TwoLevelCacheManager;
+import com.yao.blog.dto.response.BlogResponse;
+import com.yao.blog.dto.response.BlogSummaryResponse;
+import com.yao.blog.dto.response.CommentResponse;
+import com.yao.blog.dto.response.PageResponse;
+import com.yao.blog.dto.response.TagResponse;
+import com.yao.blog.repository.projection.BlogVersion;
+import com.yao.blog.search.BlogSearchEngine;
+import com.yao.blog.search.InvertedIndexSearchEngine;
+import com.yao.blog.service.ArchiveIndex;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.NoOpCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.redis.cache.BatchStrategies;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.unit.DataSize;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+// Caching wraps the transactional proxy, so cache hits never open a transaction
 @Configuration
-@EnableCaching
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 public class RedisConfig {
 
+    @Value("${blog.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${blog.cache.redis-enabled:true}")
+    private boolean redisEnabled;
+
+    @Value("${blog.cache.local.maximum-size:1000}")
+    private long localMaximumSize;
+
+    @Value("${blog.cache.local.ttl:60s}")
+    private Duration localTtl;
+
+    @Value("${blog.cache.local.refresh-ahead:0.8}")
+    private double localRefreshAhead;
+
+    @Value("${blog.cache.redis.ttl:10m}")
+    private Duration redisTtl;
+
+    @Value("${blog.cache.redis.load-lease:5s}")
+    private Duration loadLeaseTtl;
+
+    @Value("${blog.cache.redis.codec:binary}")
+    private String redisCodec;
+
+    @Value("${blog.cache.redis.compress-threshold:2KB}")
+    private DataSize redisCompressThreshold;
+
+    @Value("${blog.cache.response-bytes.maximum-weight:64MB}")
+    private DataSize responseBytesMaximumWeight;
+
+    @Bean
+    @ConditionalOnProperty(name = "blog.cache.redis-enabled", havingValue = "true", matchIfMissing = true)
+    public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate redisTemplate) {
+        return new CacheInvalidationBus(redisTemplate);
+    }
+
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10))
-                .serializeValuesWith(
-                        RedisSerializationContext.SerializationPair
-                                .fromSerializer(new GenericJackson2JsonRedisSerializer())
-                );
-
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(config)
+    @ConditionalOnProperty(name = "blog.cache.redis-enabled", havingValue = "true", matchIfMissing = true)
+    public CacheLoadLease cacheLoadLease(StringRedisTemplate redisTemplate) {
+        return new CacheLoadLease(redisTemplate, loadLeaseTtl);
+    }
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper,
+                                     ObjectProvider<CacheInvalidationBus> bus, ObjectProvider<CacheLoadLease> lease) {
+        if (!cacheEnabled) {
+            return new NoOpCacheManager();
+        }
+        CacheManager remote = redisEnabled ? redisCacheManager(connectionFactory, objectMapper) : null;
+        // Response bytes have no Redis configuration, so they stay local; evictions still go over the bus
+        return new TwoLevelCacheManager(CacheNames.ALL, localMaximumSize, localTtl, localRefreshAhead,
+                remote, bus.getIfAvailable(), lease.getIfAvailable())
+                .withLocalSpec(CacheNames.RESPONSE_BYTES, Caffeine.newBuilder()
+                        .maximumWeight(responseBytesMaximumWeight.toBytes())
+                        .weigher((key, value) -> ((SerializedResponse) value).weight())
+                        .expireAfterWrite(localTtl));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "blog.cache.redis-enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                  CacheManager cacheManager,
+                                                                  CacheInvalidationBus bus,
+                                                                  ExistenceGuard existenceGuard,
+                                                                  ArchiveIndex archiveIndex,
+                                                                  BlogSearchEngine searchEngine) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> existenceGuard.receive(message.getBody()),
+                new ChannelTopic(ExistenceGuard.CHANNEL));
+        container.addMessageListener((message, pattern) -> archiveIndex.receive(message.getBody()),
+                new ChannelTopic(ArchiveIndex.CHANNEL));
+        if (searchEngine instanceof InvertedIndexSearchEngine index) {
+            container.addMessageListener((message, pattern) -> index.receive(message.getBody()),
+                    new ChannelTopic(InvertedIndexSearchEngine.CHANNEL));
+        }
+        if (cacheManager instanceof TwoLevelCacheManager twoLevel) {
+            container.addMessageListener((message, pattern) -> bus.receive(message.getBody(), twoLevel),
+                    new ChannelTopic(CacheInvalidationBus.CHANNEL));
+        }
+        return container;
+    }
+
+    // Not a bean: only reachable through the two-level manager, so nothing bypasses L1
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper) {
+        TypeFactory types = objectMapper.getTypeFactory();
+        JavaType summaryList = types.constructCollectionType(List.class, BlogSummaryResponse.class);
+        JavaType summaryPage = types.constructParametricType(PageResponse.class, BlogSummaryResponse.class);
+
+        Map<String, JavaType> valueTypes = new HashMap<>();
+        valueTypes.put(CacheNames.BLOG_DETAIL, types.constructType(BlogResponse.class));
+        valueTypes.put(CacheNames.BLOG_VERSIONS, types.constructType(BlogVersion.class));
+        valueTypes.put(CacheNames.BLOG_PAGES, summaryPage);
+        valueTypes.put(CacheNames.BLOG_TAG_PAGES, summaryPage);
+        valueTypes.put(CacheNames.RECOMMENDED_BLOGS, summaryList);
+        valueTypes.put(CacheNames.TAG, types.constructType(TagResponse.class));
+        valueTypes.put(CacheNames.TAGS, types.constructCollectionType(List.class, TagResponse.class));
+        valueTypes.put(CacheNames.TOP_TAGS, types.constructCollectionType(List.class, TagResponse.class));
+        valueTypes.put(CacheNames.COMMENTS, types.constructCollectionType(List.class, CommentResponse.class));
+        valueTypes.put(CacheNames.TOKEN_VERSIONS, types.constructType(Integer.class));
+
+        RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(redisTtl)
+                .disableCachingNullValues();
+        Map<String, RedisCacheConfiguration> configs = new HashMap<>();
+        valueTypes.forEach((name, type) -> configs.put(name, defaults.serializeValuesWith(
+                RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer(objectMapper, type)))));
+
+        RedisCacheManager manager = RedisCacheManager
+                .builder(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, BatchStrategies.scan(1000)))
+                .cacheDefaults(defaults)
+                .withInitialCacheConfigurations(configs)
+                .disableCreateOnMissingCache()
                 .build();
+        manager.initializeCaches();
+        return manager;
+    }
+
+    private RedisSerializer<Object> valueSerializer(ObjectMapper objectMapper, JavaType type) {
+        return switch (redisCodec) {
+            case "binary" -> new BinaryRedisSerializer<>(objectMapper, type, (int) redisCompressThreshold.toBytes());
+            case "json" -> new Jackson2JsonRedisSerializer<>(objectMapper, type);
+            default -> throw new IllegalStateException("Unknown blog.cache.redis.codec: " + redisCodec);
+        };
     }
 }
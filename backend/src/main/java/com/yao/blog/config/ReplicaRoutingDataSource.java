@@ -0,0 +1,153 @@
+package com.yao.blog.config;
+
+import com.yao.blog.cache.TwoLevelCache;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to the replicas, round-robin, and everything else to the primary. Each
+ * replica is checked on a schedule with the lag query; one that fails it or is more than maxLag behind is
+ * skipped until it recovers, and with no replica healthy read-only work falls back to the primary.
+ * <p>
+ * Read-only work that fills a cache ({@link TwoLevelCache#isLoading()}) stays on the primary: caches are
+ * evicted right after a commit, and a replica that has not replayed the write yet would hand the reload the
+ * old value, which the cache would then keep for its whole time-to-live under a new ETag. A load that joins
+ * a transaction which already holds a connection keeps that connection. Must
+ * sit behind a LazyConnectionDataSourceProxy: the connection has to be chosen at the first statement, once
+ * the transaction's read-only flag is set, not when the transaction begins.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final double maxLagSeconds;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter readWrite;
+    private final Counter cacheLoad;
+    private final Counter fallback;
+
+    private static final class Replica {
+        private final String name;
+        private final HikariDataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private final Counter routed;
+        private volatile boolean healthy;
+        private volatile double lagSeconds = Double.NaN;
+
+        private Replica(String name, HikariDataSource dataSource, Counter routed) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.jdbcTemplate.setQueryTimeout(2);
+            this.routed = routed;
+        }
+    }
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaDataSources,
+                                    Duration maxLag, String lagQuery, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.lagQuery = lagQuery;
+        this.readWrite = routed(meterRegistry, PRIMARY, "read-write");
+        this.cacheLoad = routed(meterRegistry, PRIMARY, "cache-load");
+        this.fallback = routed(meterRegistry, PRIMARY, "fallback");
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (HikariDataSource dataSource : replicaDataSources) {
+            Replica replica = new Replica(dataSource.getPoolName(), dataSource,
+                    routed(meterRegistry, dataSource.getPoolName(), "read-only"));
+            replicas.add(replica);
+            targets.put(replica.name, dataSource);
+            Gauge.builder("blog.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .tag("replica", replica.name).baseUnit("seconds").register(meterRegistry);
+            Gauge.builder("blog.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .tag("replica", replica.name).register(meterRegistry);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checkReplicas();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readWrite.increment();
+            return PRIMARY;
+        }
+        if (TwoLevelCache.isLoading()) {
+            cacheLoad.increment();
+            return PRIMARY;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                replica.routed.increment();
+                return replica.name;
+            }
+        }
+        fallback.increment();
+        return PRIMARY;
+    }
+
+    @Scheduled(fixedDelayString = "${blog.datasource.replicas.health-check-interval:5000}",
+            initialDelayString = "${blog.datasource.replicas.health-check-interval:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            String problem;
+            try {
+                Double lag = replica.jdbcTemplate.queryForObject(lagQuery, Double.class);
+                replica.lagSeconds = lag == null ? 0 : lag;
+                replica.healthy = replica.lagSeconds <= maxLagSeconds;
+                problem = replica.lagSeconds + "s behind";
+            } catch (RuntimeException e) {
+                replica.lagSeconds = Double.NaN;
+                replica.healthy = false;
+                problem = e.getMessage();
+            }
+            if (wasHealthy && !replica.healthy) {
+                log.warn("Replica {} out of rotation: {}", replica.name, problem);
+            } else if (!wasHealthy && replica.healthy) {
+                log.info("Replica {} in rotation, {}s behind", replica.name, replica.lagSeconds);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.close();
+    }
+
+    private static Counter routed(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("blog.datasource.routed")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,58 @@
+package com.yao.blog.config;
+
+import com.yao.blog.repository.BlogRepository;
+import com.yao.blog.search.BlogSearchEngine;
+import com.yao.blog.search.InvertedIndexSearchEngine;
+import com.yao.blog.search.LikeBlogSearchEngine;
+import com.yao.blog.search.PostgresBlogSearchEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.DatabaseMetaData;
+
+@Configuration
+@Slf4j
+public class SearchConfig {
+
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public BlogSearchEngine blogSearchEngine(
+            @Value("${blog.search.engine:auto}") String engine,
+            @Value("${blog.search.text-search-config:english}") String textSearchConfig,
+            @Value("${blog.search.index.snapshot-path:}") String snapshotPath,
+            @Value("${blog.search.index.parallelism:0}") int parallelism,
+            @Value("${blog.cache.redis-enabled:true}") boolean redisEnabled,
+            DataSource dataSource,
+            JdbcTemplate jdbcTemplate,
+            StringRedisTemplate redisTemplate,
+            BlogRepository blogRepository) {
+        String selected = "auto".equals(engine) ? (isPostgres(dataSource) ? "postgres" : "like") : engine;
+        log.info("Blog search engine: {}", selected);
+        return switch (selected) {
+            case "postgres" -> new PostgresBlogSearchEngine(jdbcTemplate, textSearchConfig);
+            case "like" -> new LikeBlogSearchEngine(blogRepository);
+            case "index" -> new InvertedIndexSearchEngine(blogRepository, redisEnabled ? redisTemplate : null,
+                    snapshotPath.isBlank() ? null : Path.of(snapshotPath),
+                    parallelism > 0 ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+            default -> throw new IllegalStateException("Unknown blog.search.engine: " + engine);
+        };
+    }
+
+    private boolean isPostgres(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equalsIgnoreCase(product);
+        } catch (MetaDataAccessException e) {
+            return false;
+        }
+    }
+}
@@ -46,9 +46,12 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/tags/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/comments/**").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/comments").permitAll()
+                        .requestMatchers("/api/auth/logout-all").authenticated()
                         .requestMatchers("/api/auth/**").permitAll()
                         // Swagger
                         .requestMatchers("/swagger-ui/**", "/api-docs/**", "/swagger-ui.html").permitAll()
+                        // Liveness and readiness probes
+                        .requestMatchers("/actuator/health/**").permitAll()
                         // Admin endpoints require authentication
                         .requestMatchers("/api/admin/**").authenticated()
                         .anyRequest().authenticated()
@@ -3,6 +3,7 @@ package com.yao.blog.controller;
 import com.yao.blog.dto.request.BlogRequest;
 import com.yao.blog.dto.response.BlogResponse;
 import com.yao.blog.dto.response.BlogSummaryResponse;
+import com.yao.blog.dto.response.CursorPageResponse;
 import com.yao.blog.service.BlogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -28,10 +29,19 @@ public class AdminBlogController {
     @PreAuthorize("hasAnyRole('ADMIN', 'AUTHOR')")
     @Operation(summary = "List all blogs (including drafts)")
     public ResponseEntity<Page<BlogSummaryResponse>> listBlogs(
-            @PageableDefault(size = 10, sort = "updatedAt", direction = Sort.Direction.DESC) Pageable pageable) {
+            @PageableDefault(size = 10, sort = {"updatedAt", "id"}, direction = Sort.Direction.DESC) Pageable pageable) {
         return ResponseEntity.ok(blogService.listAllBlogs(pageable));
     }
 
+    @GetMapping("/cursor")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AUTHOR')")
+    @Operation(summary = "List all blogs (including drafts) with keyset pagination")
+    public ResponseEntity<CursorPageResponse<BlogSummaryResponse>> scrollBlogs(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(blogService.scrollAllBlogs(cursor, size));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'AUTHOR')")
     @Operation(summary = "Get blog detail for editing")
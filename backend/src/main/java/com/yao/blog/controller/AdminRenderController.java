@@ -0,0 +1,43 @@
+package com.yao.blog.controller;
+
+import com.yao.blog.dto.response.RerenderJobResponse;
+import com.yao.blog.service.RerenderJob;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/render")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Admin - Render", description = "Bulk re-rendering of stored posts (ADMIN only)")
+public class AdminRenderController {
+
+    private final RerenderJob rerenderJob;
+
+    @PostMapping("/rerender")
+    @Operation(summary = "Re-render posts written by an older renderer, or every post with force=true; resumes an unfinished run")
+    public ResponseEntity<RerenderJobResponse> startRerender(@RequestParam(defaultValue = "false") boolean force) {
+        RerenderJobResponse started = rerenderJob.start(force);
+        if (started == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(rerenderJob.status());
+        }
+        return ResponseEntity.accepted().body(started);
+    }
+
+    @GetMapping("/rerender")
+    @Operation(summary = "Progress and throughput of the current or last re-render")
+    public ResponseEntity<RerenderJobResponse> rerenderStatus() {
+        return ResponseEntity.ok(rerenderJob.status());
+    }
+
+    @DeleteMapping("/rerender")
+    @Operation(summary = "Stop the running re-render after the current chunk; it can be resumed later")
+    public ResponseEntity<RerenderJobResponse> cancelRerender() {
+        return ResponseEntity.ok(rerenderJob.cancel());
+    }
+}
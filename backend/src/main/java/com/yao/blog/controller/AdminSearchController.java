@@ -0,0 +1,33 @@
+package com.yao.blog.controller;
+
+import com.yao.blog.dto.response.SearchIndexResponse;
+import com.yao.blog.exception.ResourceNotFoundException;
+import com.yao.blog.search.BlogSearchEngine;
+import com.yao.blog.search.InvertedIndexSearchEngine;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/search")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Admin - Search", description = "Search index management (ADMIN only)")
+public class AdminSearchController {
+
+    private final BlogSearchEngine blogSearchEngine;
+
+    @PostMapping("/rebuild")
+    @Operation(summary = "Rebuild the in-memory search index from the database")
+    public ResponseEntity<SearchIndexResponse> rebuildIndex() {
+        if (!(blogSearchEngine instanceof InvertedIndexSearchEngine index)) {
+            throw new ResourceNotFoundException("In-memory search index is not enabled (blog.search.engine=index)");
+        }
+        return ResponseEntity.ok(index.rebuild());
+    }
+}
@@ -3,12 +3,14 @@ package com.yao.blog.controller;
 import com.yao.blog.dto.request.LoginRequest;
 import com.yao.blog.dto.request.RefreshTokenRequest;
 import com.yao.blog.dto.response.AuthResponse;
+import com.yao.blog.security.CustomUserDetails;
 import com.yao.blog.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -40,4 +42,11 @@ public class AuthController {
         authService.logout(request.getRefreshToken());
         return ResponseEntity.ok().build();
     }
+
+    @PostMapping("/logout-all")
+    @Operation(summary = "Logout on every device and revoke all outstanding tokens")
+    public ResponseEntity<Void> logoutEverywhere(@AuthenticationPrincipal CustomUserDetails user) {
+        authService.logoutEverywhere(user.getId());
+        return ResponseEntity.ok().build();
+    }
 }
@@ -1,20 +1,42 @@
 package com.yao.blog.controller;
 
+import com.yao.blog.cache.CacheWarmer;
+import com.yao.blog.cache.ChangeSequence;
+import com.yao.blog.cache.ResponseBytesCache;
 import com.yao.blog.dto.response.ArchiveResponse;
 import com.yao.blog.dto.response.BlogResponse;
 import com.yao.blog.dto.response.BlogSummaryResponse;
+import com.yao.blog.dto.response.CursorPageResponse;
+import com.yao.blog.dto.response.PageResponse;
+import com.yao.blog.exception.ResourceNotFoundException;
+import com.yao.blog.service.BlogContentStreamer;
 import com.yao.blog.service.BlogService;
+import com.yao.blog.repository.projection.BlogVersion;
+import com.yao.blog.service.ViewCountService;
+import com.yao.blog.util.EtagUtils;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/blogs")
@@ -23,52 +45,174 @@ import java.util.List;
 public class BlogController {
 
     private final BlogService blogService;
+    private final ViewCountService viewCountService;
+    private final ChangeSequence changeSequence;
+    private final ResponseBytesCache responseBytesCache;
+    private final CacheWarmer cacheWarmer;
+    private final BlogContentStreamer blogContentStreamer;
 
     @GetMapping
     @Operation(summary = "List published blogs with pagination")
-    public ResponseEntity<Page<BlogSummaryResponse>> listBlogs(
-            @PageableDefault(size = 8, sort = "updatedAt", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok(blogService.listPublishedBlogs(pageable));
+    public ResponseEntity<PageResponse<BlogSummaryResponse>> listBlogs(
+            @PageableDefault(size = 8, sort = {"updatedAt", "id"}, direction = Sort.Direction.DESC) Pageable pageable,
+            WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        return revalidated(blogService.listPublishedBlogs(pageable));
+    }
+
+    @GetMapping("/cursor")
+    @Operation(summary = "List published blogs with keyset pagination (no total count)")
+    public ResponseEntity<CursorPageResponse<BlogSummaryResponse>> scrollBlogs(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "8") int size) {
+        return ResponseEntity.ok(blogService.scrollPublishedBlogs(cursor, size));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get blog detail with HTML content")
-    public ResponseEntity<BlogResponse> getBlog(@PathVariable Long id) {
-        return ResponseEntity.ok(blogService.getBlogAndConvert(id));
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = BlogResponse.class)))
+    public void getBlog(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        BlogVersion version = blogService.getBlogVersion(id);
+        Long storedViews = version != null ? viewCountService.storedViews(id) : null;
+        if (storedViews == null) {
+            throw new ResourceNotFoundException("Blog", id);
+        }
+        // Counted for revalidated reads too, and before the body is written so its total includes this view
+        if (!cacheWarmer.isWarmupRequest(request)) {
+            viewCountService.increment(id);
+        }
+        boolean large = blogContentStreamer.isLarge(version);
+        String coding = ResponseBytesCache.coding(request, !large);
+        // No Last-Modified: a tag rename changes the body but not the post's updatedAt
+        if (new ServletWebRequest(request, response)
+                .checkNotModified(EtagUtils.withCoding(EtagUtils.blogEtag(version, storedViews), coding))) {
+            return;
+        }
+        long views = storedViews + viewCountService.pending(id);
+        if (large) {
+            // Too large to hold in the response caches; written out as it is read
+            blogContentStreamer.writeJson(id, views, request, response);
+        } else {
+            // The cached body leaves views out; the live count is spliced in per request
+            responseBytesCache.write(ResponseBytesCache.blogKey(id), () -> blogService.getBlogAndConvert(id),
+                    Map.of("views", views), request, response);
+        }
+    }
+
+    @GetMapping("/{id}/views")
+    @Operation(summary = "Get a blog's view count alone, including views not yet written to the database")
+    public ResponseEntity<Long> getBlogViews(@PathVariable Long id) {
+        Long views = blogService.getBlogVersion(id) != null ? viewCountService.views(id) : null;
+        if (views == null) {
+            throw new ResourceNotFoundException("Blog", id);
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(views);
+    }
+
+    @GetMapping("/{id}/html")
+    @Operation(summary = "Get the rendered HTML of a blog, streamed")
+    public void getBlogHtml(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        BlogVersion version = blogService.getBlogVersion(id);
+        if (version == null) {
+            throw new ResourceNotFoundException("Blog", id);
+        }
+        String etag = EtagUtils.withCoding(EtagUtils.htmlEtag(version), ResponseBytesCache.coding(request, false));
+        if (!new ServletWebRequest(request, response).checkNotModified(etag, EtagUtils.lastModified(version))) {
+            blogContentStreamer.writeHtml(id, request, response);
+        }
     }
 
     @GetMapping("/search")
     @Operation(summary = "Search blogs by keyword")
     public ResponseEntity<Page<BlogSummaryResponse>> searchBlogs(
             @RequestParam String query,
-            @PageableDefault(size = 8, sort = "updatedAt", direction = Sort.Direction.DESC) Pageable pageable) {
+            @PageableDefault(size = 8, sort = {"updatedAt", "id"}, direction = Sort.Direction.DESC) Pageable pageable) {
         return ResponseEntity.ok(blogService.searchBlogs(query, pageable));
     }
 
+    @GetMapping("/search/cursor")
+    @Operation(summary = "Search blogs by literal substring, newest first, with keyset pagination; " +
+            "unlike /search this does not use the search engine or rank by relevance")
+    public ResponseEntity<CursorPageResponse<BlogSummaryResponse>> scrollSearchBlogs(
+            @RequestParam String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "8") int size) {
+        return ResponseEntity.ok(blogService.scrollSearchBlogs(query, cursor, size));
+    }
+
     @GetMapping("/recommend")
     @Operation(summary = "Get recommended blogs")
-    public ResponseEntity<List<BlogSummaryResponse>> getRecommendBlogs(
-            @RequestParam(defaultValue = "8") int size) {
-        return ResponseEntity.ok(blogService.listRecommendBlogs(size));
+    @ApiResponse(responseCode = "200",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = BlogSummaryResponse.class))))
+    public void getRecommendBlogs(
+            @RequestParam(defaultValue = "8") int size,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (notModified(new ServletWebRequest(request, response), ResponseBytesCache.coding(request, false))) {
+            return;
+        }
+        responseBytesCache.write(ResponseBytesCache.recommendKey(size), () -> blogService.listRecommendBlogs(size),
+                request, response);
     }
 
     @GetMapping("/tag/{tagId}")
     @Operation(summary = "List blogs by tag")
-    public ResponseEntity<Page<BlogSummaryResponse>> listBlogsByTag(
+    public ResponseEntity<PageResponse<BlogSummaryResponse>> listBlogsByTag(
             @PathVariable Long tagId,
-            @PageableDefault(size = 8, sort = "updatedAt", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok(blogService.listBlogsByTag(tagId, pageable));
+            @PageableDefault(size = 8, sort = {"updatedAt", "id"}, direction = Sort.Direction.DESC) Pageable pageable,
+            WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        return revalidated(blogService.listBlogsByTag(tagId, pageable));
+    }
+
+    @GetMapping("/tag/{tagId}/cursor")
+    @Operation(summary = "List blogs by tag with keyset pagination")
+    public ResponseEntity<CursorPageResponse<BlogSummaryResponse>> scrollBlogsByTag(
+            @PathVariable Long tagId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "8") int size) {
+        return ResponseEntity.ok(blogService.scrollBlogsByTag(tagId, cursor, size));
     }
 
     @GetMapping("/archive")
-    @Operation(summary = "Get blog archives grouped by year")
-    public ResponseEntity<List<ArchiveResponse>> getArchives() {
-        return ResponseEntity.ok(blogService.getArchives());
+    @Operation(summary = "Get archive years with per-month post counts")
+    public ResponseEntity<List<ArchiveResponse>> getArchiveIndex(WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        return revalidated(blogService.getArchiveIndex());
+    }
+
+    @GetMapping("/archive/{year}")
+    @Operation(summary = "Get one year of the archive, grouped by month")
+    public ResponseEntity<ArchiveResponse> getArchiveYear(@PathVariable int year, WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        return revalidated(blogService.getArchiveYear(year));
     }
 
     @GetMapping("/count")
-    @Operation(summary = "Get total blog count")
+    @Operation(summary = "Get total blog count (cached, may lag by up to a minute)")
     public ResponseEntity<Long> countBlogs() {
         return ResponseEntity.ok(blogService.countBlogs());
     }
+
+    // Sets the weak list ETag and reports whether the client's copy is still current
+    private boolean notModified(WebRequest request) {
+        return notModified(request, "identity");
+    }
+
+    private boolean notModified(WebRequest request, String coding) {
+        return request.checkNotModified(EtagUtils.withCoding(EtagUtils.listEtag(changeSequence.current()), coding));
+    }
+
+    private static <T> ResponseEntity<T> revalidated(T body) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(body);
+    }
 }
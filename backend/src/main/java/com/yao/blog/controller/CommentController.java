@@ -2,6 +2,7 @@ package com.yao.blog.controller;
 
 import com.yao.blog.dto.request.CommentRequest;
 import com.yao.blog.dto.response.CommentResponse;
+import com.yao.blog.dto.response.CursorPageResponse;
 import com.yao.blog.service.CommentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -26,6 +27,24 @@ public class CommentController {
         return ResponseEntity.ok(commentService.getCommentsByBlogId(blogId));
     }
 
+    @GetMapping("/blog/{blogId}/cursor")
+    @Operation(summary = "Get top-level comment threads with keyset pagination; deep replies are collapsed")
+    public ResponseEntity<CursorPageResponse<CommentResponse>> scrollComments(
+            @PathVariable Long blogId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(commentService.scrollThreads(blogId, cursor, size));
+    }
+
+    @GetMapping("/{id}/replies")
+    @Operation(summary = "Get replies to a comment with keyset pagination")
+    public ResponseEntity<CursorPageResponse<CommentResponse>> scrollReplies(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(commentService.scrollReplies(id, cursor, size));
+    }
+
     @PostMapping
     @Operation(summary = "Create a new comment")
     public ResponseEntity<CommentResponse> createComment(@Valid @RequestBody CommentRequest request) {
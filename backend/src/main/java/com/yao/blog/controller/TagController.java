@@ -1,12 +1,26 @@
 package com.yao.blog.controller;
 
+import com.yao.blog.cache.ChangeSequence;
+import com.yao.blog.cache.ResponseBytesCache;
 import com.yao.blog.dto.response.TagResponse;
 import com.yao.blog.service.TagService;
+import com.yao.blog.util.EtagUtils;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
 
 import java.util.List;
 
@@ -17,22 +31,49 @@ import java.util.List;
 public class TagController {
 
     private final TagService tagService;
+    private final ChangeSequence changeSequence;
+    private final ResponseBytesCache responseBytesCache;
 
     @GetMapping
     @Operation(summary = "List all tags")
-    public ResponseEntity<List<TagResponse>> listTags() {
-        return ResponseEntity.ok(tagService.listAllTags());
+    @ApiResponse(responseCode = "200",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = TagResponse.class))))
+    public void listTags(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (notModified(new ServletWebRequest(request, response), ResponseBytesCache.coding(request, false))) {
+            return;
+        }
+        responseBytesCache.write(ResponseBytesCache.tagsKey(), tagService::listAllTags, request, response);
     }
 
     @GetMapping("/top")
     @Operation(summary = "Get top tags by blog count")
-    public ResponseEntity<List<TagResponse>> getTopTags(@RequestParam(defaultValue = "10") int size) {
-        return ResponseEntity.ok(tagService.listTopTags(size));
+    public ResponseEntity<List<TagResponse>> getTopTags(@RequestParam(defaultValue = "10") int size,
+                                                        WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        return revalidated(tagService.listTopTags(size));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get tag by ID")
-    public ResponseEntity<TagResponse> getTag(@PathVariable Long id) {
-        return ResponseEntity.ok(tagService.getTag(id));
+    public ResponseEntity<TagResponse> getTag(@PathVariable Long id, WebRequest request) {
+        // Shares the list validator, which every blogCount change advances
+        if (notModified(request)) {
+            return null;
+        }
+        return revalidated(tagService.getTag(id));
+    }
+
+    private boolean notModified(WebRequest request) {
+        return notModified(request, "identity");
+    }
+
+    private boolean notModified(WebRequest request, String coding) {
+        return request.checkNotModified(EtagUtils.withCoding(EtagUtils.listEtag(changeSequence.current()), coding));
+    }
+
+    private static <T> ResponseEntity<T> revalidated(T body) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(body);
     }
 }
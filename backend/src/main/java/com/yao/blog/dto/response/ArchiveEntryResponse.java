@@ -0,0 +1,19 @@
+package com.yao.blog.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchiveEntryResponse {
+
+    private Long id;
+    private String title;
+    private LocalDateTime createdAt;
+}
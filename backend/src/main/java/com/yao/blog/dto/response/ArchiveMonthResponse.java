@@ -0,0 +1,22 @@
+package com.yao.blog.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchiveMonthResponse {
+
+    private Integer month;
+    private Integer count;
+    // Left out of the year index, which only carries counts
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<ArchiveEntryResponse> blogs;
+}
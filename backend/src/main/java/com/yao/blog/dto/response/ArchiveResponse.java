@@ -3,14 +3,17 @@ package com.yao.blog.dto.response;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.util.List;
 
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class ArchiveResponse {
 
     private Integer year;
-    private List<BlogSummaryResponse> blogs;
+    private Integer count;
+    private List<ArchiveMonthResponse> months;
 }
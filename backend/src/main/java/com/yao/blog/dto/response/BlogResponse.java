@@ -3,11 +3,13 @@ package com.yao.blog.dto.response;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class BlogResponse {
@@ -19,6 +21,10 @@ public class BlogResponse {
     private String flag;
     private String description;
     private Integer views;
+    private Integer wordCount;
+    private Integer readingMinutes;
+    private List<HeadingResponse> outline;
+    private List<String> images;
     private boolean appreciation;
     private boolean shareStatement;
     private boolean commentable;
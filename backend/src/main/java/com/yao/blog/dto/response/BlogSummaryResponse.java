@@ -3,11 +3,13 @@ package com.yao.blog.dto.response;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class BlogSummaryResponse {
@@ -18,9 +20,13 @@ public class BlogSummaryResponse {
     private String flag;
     private String description;
     private Integer views;
+    private Integer wordCount;
+    private Integer readingMinutes;
     private boolean recommend;
     private List<TagResponse> tags;
     private UserResponse user;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Search results only: HTML-escaped excerpt with matches wrapped in <mark>
+    private String highlight;
 }
@@ -3,13 +3,15 @@ package com.yao.blog.dto.response;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class CommentResponse {
 
     private Long id;
@@ -20,4 +22,7 @@ public class CommentResponse {
     private boolean adminComment;
     private LocalDateTime createdAt;
     private List<CommentResponse> replies;
+    // Direct replies, including any left out of replies because the thread was collapsed
+    private int replyCount;
+    private boolean hasMoreReplies;
 }
@@ -0,0 +1,17 @@
+package com.yao.blog.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HeadingResponse {
+
+    private int level;
+    private String text;
+    private String anchor;
+}
@@ -0,0 +1,27 @@
+package com.yao.blog.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@Builder
+public class RerenderJobResponse {
+
+    private String state;
+    private boolean force;
+    private int rendererVersion;
+    private long total;
+    private long processed;
+    private long updated;
+    // Rows edited while the job ran; the edit already rendered them
+    private long skipped;
+    private Long lastId;
+    private double postsPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
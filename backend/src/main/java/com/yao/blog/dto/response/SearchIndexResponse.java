@@ -0,0 +1,15 @@
+package com.yao.blog.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@Builder
+public class SearchIndexResponse {
+
+    private int documents;
+    private int terms;
+    private long durationMillis;
+}
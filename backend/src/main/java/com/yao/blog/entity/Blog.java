@@ -18,8 +18,13 @@ public class Blog extends BaseEntity {
     @Column(nullable = false)
     private String title;
 
-    @Column(columnDefinition = "TEXT")
-    private String content;
+    // Derived from the body by the renderer; see MarkdownUtils.render. The body itself is in BlogContent
+    @Column(length = 500)
+    private String excerpt;
+
+    private Integer wordCount;
+
+    private Integer readingMinutes;
 
     private String firstPicture;
 
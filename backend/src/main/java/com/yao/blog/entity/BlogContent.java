@@ -0,0 +1,47 @@
+package com.yao.blog.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.List;
+
+/**
+ * The body of a post and everything rendered from it, kept out of t_blog so listings never read it.
+ * Shares the post's id; load it through BlogContentRepository when a detail or edit view needs it.
+ */
+@Entity
+@Table(name = "t_blog_content")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BlogContent {
+
+    @Id
+    private Long id;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "blog_id")
+    private Blog blog;
+
+    @Column(columnDefinition = "TEXT")
+    private String content;
+
+    @Column(columnDefinition = "TEXT")
+    private String contentHtml;
+
+    @Column(length = 64)
+    private String contentHash;
+
+    private Integer rendererVersion;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    private List<ContentHeading> outline;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    private List<String> images;
+}
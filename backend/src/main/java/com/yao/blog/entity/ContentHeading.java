@@ -0,0 +1,18 @@
+package com.yao.blog.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of a post's outline; {@code anchor} is the id the rendered heading carries.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentHeading {
+
+    private int level;
+    private String text;
+    private String anchor;
+}
@@ -0,0 +1,34 @@
+package com.yao.blog.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a resumable background job: the last id it finished, and the parameters it was started with.
+ */
+@Entity
+@Table(name = "t_job_checkpoint")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private Long lastId;
+
+    private Integer rendererVersion;
+
+    @Column(nullable = false)
+    private boolean force;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
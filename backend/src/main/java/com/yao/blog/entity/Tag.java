@@ -2,11 +2,15 @@ package com.yao.blog.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tag")
 @Table(name = "t_tag")
 @Getter
 @Setter
@@ -18,6 +22,12 @@ public class Tag extends BaseEntity {
     @Column(nullable = false, unique = true)
     private String name;
 
+    // Published, non-deleted posts; maintained by BlogService and reconciled by TagService
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private long blogCount = 0;
+
     @ManyToMany(mappedBy = "tags")
     @Builder.Default
     private List<Blog> blogs = new ArrayList<>();
@@ -3,11 +3,15 @@ package com.yao.blog.entity;
 import com.yao.blog.enums.Role;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 @Table(name = "t_user")
 @Getter
 @Setter
@@ -33,6 +37,12 @@ public class User extends BaseEntity {
     @Column(nullable = false)
     private Role role;
 
+    // Embedded in access tokens; bumping it revokes every token issued before
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private int tokenVersion = 0;
+
     @OneToMany(mappedBy = "user")
     private List<Blog> blogs = new ArrayList<>();
 }
@@ -0,0 +1,36 @@
+package com.yao.blog.event;
+
+import com.yao.blog.entity.Blog;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by BlogService inside the writing transaction. Listeners that touch state outside the
+ * database should use {@code @TransactionalEventListener} so they only see committed changes.
+ */
+@Getter
+@AllArgsConstructor
+public class BlogChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Long blogId;
+    private final Type type;
+    private final boolean published;
+    private final String title;
+    private final String description;
+    private final String content;
+    private final LocalDateTime createdAt;
+
+    // content is the Markdown body, which lives in BlogContent; may be null for deletions
+    public static BlogChangedEvent of(Blog blog, String content, Type type) {
+        return new BlogChangedEvent(blog.getId(), type, blog.isPublished() && !blog.isDeleted(),
+                blog.getTitle(), blog.getDescription(), content, blog.getCreatedAt());
+    }
+
+    public boolean isVisible() {
+        return type != Type.DELETED && published;
+    }
+}
@@ -1,12 +1,13 @@
 package com.yao.blog.exception;
 
+// Thrown for every 404, including ids probed by scrapers; the stack trace is never logged, so skip building it
 public class ResourceNotFoundException extends RuntimeException {
 
     public ResourceNotFoundException(String resource, Long id) {
-        super(resource + " not found with id: " + id);
+        this(resource + " not found with id: " + id);
     }
 
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
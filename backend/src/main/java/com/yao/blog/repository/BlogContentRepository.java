@@ -0,0 +1,7 @@
+package com.yao.blog.repository;
+
+import com.yao.blog.entity.BlogContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BlogContentRepository extends JpaRepository<BlogContent, Long> {
+}
@@ -1,41 +1,134 @@
 package com.yao.blog.repository;
 
 import com.yao.blog.entity.Blog;
+import com.yao.blog.repository.projection.ArchiveEntry;
+import com.yao.blog.repository.projection.BlogIndexView;
+import com.yao.blog.repository.projection.BlogRenderSource;
+import com.yao.blog.repository.projection.BlogSearchView;
+import com.yao.blog.repository.projection.BlogTagView;
+import com.yao.blog.repository.projection.BlogVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BlogRepository extends JpaRepository<Blog, Long>, JpaSpecificationExecutor<Blog> {
 
     Optional<Blog> findByIdAndDeletedFalse(Long id);
 
+    @Query("SELECT b.id FROM Blog b WHERE b.deleted = false")
+    List<Long> findLiveIds();
+
+    @Query("SELECT new com.yao.blog.repository.projection.BlogVersion(b.id, b.version, b.updatedAt, LENGTH(c.content), " +
+            "(SELECT COALESCE(SUM(t.version), 0) FROM Blog tb JOIN tb.tags t WHERE tb.id = b.id)) " +
+            "FROM Blog b LEFT JOIN BlogContent c ON c.id = b.id WHERE b.id = :id AND b.deleted = false")
+    Optional<BlogVersion> findVersionById(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = "user")
     Page<Blog> findByDeletedFalse(Pageable pageable);
 
-    @Query("SELECT b FROM Blog b WHERE b.deleted = false AND b.published = true AND (b.title LIKE :query OR b.content LIKE :query)")
-    Page<Blog> findByQuery(@Param("query") String query, Pageable pageable);
+    @Query("SELECT b.id AS id, b.title AS title, b.description AS description FROM Blog b " +
+            "JOIN BlogContent c ON c.id = b.id " +
+            "WHERE b.deleted = false AND b.published = true AND (b.title LIKE :query ESCAPE '!' OR c.content LIKE :query ESCAPE '!')")
+    Page<BlogSearchView> findSearchViewsByQuery(@Param("query") String query, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    List<Blog> findByIdIn(Collection<Long> ids);
+
+    @Query("SELECT b.id FROM Blog b WHERE b.deleted = false AND b.published = true ORDER BY b.views DESC, b.id DESC")
+    List<Long> findMostViewedIds(Pageable pageable);
 
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT b FROM Blog b WHERE b.deleted = false AND b.published = true AND b.recommend = true ORDER BY b.updatedAt DESC")
     List<Blog> findRecommendBlogs(Pageable pageable);
 
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT b FROM Blog b JOIN b.tags t WHERE b.deleted = false AND b.published = true AND t.id = :tagId")
     Page<Blog> findByTagId(@Param("tagId") Long tagId, Pageable pageable);
 
-    @Query("SELECT EXTRACT(YEAR FROM b.createdAt) as year FROM Blog b WHERE b.deleted = false AND b.published = true GROUP BY EXTRACT(YEAR FROM b.createdAt) ORDER BY year DESC")
-    List<Integer> findArchiveYears();
+    // Keyset queries: rows strictly after (updatedAt, id) in (updatedAt DESC, id DESC) order. The row comparison,
+    // unlike the equivalent OR, is an index condition, so a page starts at the cursor instead of filtering up to it
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT b FROM Blog b WHERE b.deleted = false " +
+            "AND (b.updatedAt, b.id) < (:updatedAt, :id) " +
+            "ORDER BY b.updatedAt DESC, b.id DESC")
+    List<Blog> findAllAfter(@Param("updatedAt") LocalDateTime updatedAt, @Param("id") Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT b FROM Blog b WHERE b.deleted = false AND b.published = true " +
+            "AND (b.updatedAt, b.id) < (:updatedAt, :id) " +
+            "ORDER BY b.updatedAt DESC, b.id DESC")
+    List<Blog> findPublishedAfter(@Param("updatedAt") LocalDateTime updatedAt, @Param("id") Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT b FROM Blog b JOIN b.tags t WHERE b.deleted = false AND b.published = true AND t.id = :tagId " +
+            "AND (b.updatedAt, b.id) < (:updatedAt, :id) " +
+            "ORDER BY b.updatedAt DESC, b.id DESC")
+    List<Blog> findByTagIdAfter(@Param("tagId") Long tagId, @Param("updatedAt") LocalDateTime updatedAt,
+                                @Param("id") Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT b FROM Blog b JOIN BlogContent c ON c.id = b.id " +
+            "WHERE b.deleted = false AND b.published = true AND (b.title LIKE :query ESCAPE '!' OR c.content LIKE :query ESCAPE '!') " +
+            "AND (b.updatedAt, b.id) < (:updatedAt, :id) " +
+            "ORDER BY b.updatedAt DESC, b.id DESC")
+    List<Blog> findByQueryAfter(@Param("query") String query, @Param("updatedAt") LocalDateTime updatedAt,
+                                @Param("id") Long id, Pageable pageable);
 
-    @Query("SELECT b FROM Blog b WHERE b.deleted = false AND b.published = true AND EXTRACT(YEAR FROM b.createdAt) = :year ORDER BY b.createdAt DESC")
-    List<Blog> findByYear(@Param("year") Integer year);
+    // Newest first; read with a fetch size so the driver does not buffer the whole archive
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.yao.blog.repository.projection.ArchiveEntry(b.id, b.title, b.createdAt) FROM Blog b " +
+            "WHERE b.deleted = false AND b.published = true ORDER BY b.createdAt DESC, b.id DESC")
+    Stream<ArchiveEntry> streamArchiveEntries();
 
-    @Modifying
-    @Query("UPDATE Blog b SET b.views = b.views + 1 WHERE b.id = :id")
-    void incrementViews(@Param("id") Long id);
+    @Query("SELECT new com.yao.blog.repository.projection.ArchiveEntry(b.id, b.title, b.createdAt) FROM Blog b " +
+            "WHERE b.id = :id AND b.deleted = false AND b.published = true")
+    Optional<ArchiveEntry> findArchiveEntry(@Param("id") Long id);
+
+    @Query("SELECT b.id AS blogId, t.id AS tagId, t.name AS tagName, t.blogCount AS tagBlogCount FROM Blog b JOIN b.tags t WHERE b.id IN :blogIds")
+    List<BlogTagView> findTagsByBlogIds(@Param("blogIds") Collection<Long> blogIds);
+
+    @Query("SELECT b.id AS id, b.title AS title, b.description AS description, c.content AS content, " +
+            "b.published AS published, b.deleted AS deleted FROM Blog b LEFT JOIN BlogContent c ON c.id = b.id " +
+            "WHERE b.deleted = false AND b.published = true AND b.id > :afterId ORDER BY b.id")
+    List<BlogIndexView> findIndexViewsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Includes deleted and unpublished rows so callers can drop them
+    @Query("SELECT b.id AS id, b.title AS title, b.description AS description, c.content AS content, " +
+            "b.published AS published, b.deleted AS deleted FROM Blog b LEFT JOIN BlogContent c ON c.id = b.id " +
+            "WHERE b.updatedAt > :since")
+    List<BlogIndexView> findIndexViewsUpdatedAfter(@Param("since") LocalDateTime since);
+
+    // As above, for one post changed on another node
+    @Query("SELECT b.id AS id, b.title AS title, b.description AS description, c.content AS content, " +
+            "b.published AS published, b.deleted AS deleted FROM Blog b LEFT JOIN BlogContent c ON c.id = b.id " +
+            "WHERE b.id = :id")
+    Optional<BlogIndexView> findIndexViewById(@Param("id") Long id);
 
     long countByDeletedFalse();
-}
\ No newline at end of file
+
+    // Rows the bulk re-render should touch: stale ones, or every live row when forced
+    @Query("SELECT b.id AS id, c.content AS content, b.description AS description, b.version AS version FROM Blog b " +
+            "JOIN BlogContent c ON c.id = b.id WHERE b.deleted = false AND b.id > :afterId " +
+            "AND (:force = true OR c.rendererVersion IS NULL OR c.rendererVersion <> :rendererVersion) ORDER BY b.id")
+    List<BlogRenderSource> findRenderSourcesAfterId(@Param("afterId") Long afterId,
+                                                    @Param("rendererVersion") int rendererVersion,
+                                                    @Param("force") boolean force, Pageable pageable);
+
+    @Query("SELECT COUNT(b) FROM Blog b JOIN BlogContent c ON c.id = b.id WHERE b.deleted = false AND b.id > :afterId " +
+            "AND (:force = true OR c.rendererVersion IS NULL OR c.rendererVersion <> :rendererVersion)")
+    long countRenderTargetsAfterId(@Param("afterId") Long afterId, @Param("rendererVersion") int rendererVersion,
+                                   @Param("force") boolean force);
+}
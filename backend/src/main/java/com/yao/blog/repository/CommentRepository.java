@@ -1,13 +1,27 @@
 package com.yao.blog.repository;
 
 import com.yao.blog.entity.Comment;
+import com.yao.blog.repository.projection.CommentView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findByBlogIdAndParentCommentNullAndDeletedFalseOrderByCreatedAtDesc(Long blogId);
-
     List<Comment> findByBlogIdAndDeletedFalseOrderByCreatedAtDesc(Long blogId);
+
+    @Query("SELECT c.id FROM Comment c WHERE c.deleted = false")
+    List<Long> findLiveIds();
+
+    // Every live comment of a blog at every depth, so the tree can be assembled without lazy loads
+    @Query("SELECT c.id AS id, c.parentComment.id AS parentId, c.nickname AS nickname, c.email AS email, " +
+            "c.content AS content, c.avatar AS avatar, c.adminComment AS adminComment, c.createdAt AS createdAt " +
+            "FROM Comment c WHERE c.blog.id = :blogId AND c.deleted = false")
+    List<CommentView> findViewsByBlogId(@Param("blogId") Long blogId);
+
+    @Query("SELECT c.blog.id FROM Comment c WHERE c.id = :id AND c.deleted = false")
+    Optional<Long> findLiveBlogId(@Param("id") Long id);
 }
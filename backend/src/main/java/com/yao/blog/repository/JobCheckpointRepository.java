@@ -0,0 +1,7 @@
+package com.yao.blog.repository;
+
+import com.yao.blog.entity.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+}
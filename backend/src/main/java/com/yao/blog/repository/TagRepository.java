@@ -1,11 +1,17 @@
 package com.yao.blog.repository;
 
 import com.yao.blog.entity.Tag;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,12 +19,33 @@ public interface TagRepository extends JpaRepository<Tag, Long> {
 
     Optional<Tag> findByIdAndDeletedFalse(Long id);
 
+    @Query("SELECT t.id FROM Tag t WHERE t.deleted = false")
+    List<Long> findLiveIds();
+
+    List<Tag> findByIdInAndDeletedFalse(Collection<Long> ids);
+
+    // Cacheable query: results are dropped whenever t_tag is written, the tags come from the entity cache.
+    // Both are per node, so nothing that fills a shared Spring cache may read through them
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Tag> findByNameAndDeletedFalse(String name);
 
     Page<Tag> findByDeletedFalse(Pageable pageable);
 
+    // Loads the shared tags cache: always read from the database, see above
     List<Tag> findByDeletedFalse();
 
-    @Query("SELECT t FROM Tag t LEFT JOIN t.blogs b WHERE t.deleted = false GROUP BY t.id ORDER BY COUNT(b) DESC")
+    @Query("SELECT t FROM Tag t WHERE t.deleted = false ORDER BY t.blogCount DESC")
     List<Tag> findTopTags(Pageable pageable);
-}
\ No newline at end of file
+
+    // Both counter updates bump the version, which blog detail ETags are built from
+    @Modifying
+    @Query("UPDATE Tag t SET t.blogCount = t.blogCount + :delta, t.version = t.version + 1 WHERE t.id IN :tagIds")
+    int adjustBlogCount(@Param("tagIds") Collection<Long> tagIds, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE Tag t SET t.blogCount = " +
+            "(SELECT COUNT(b) FROM Blog b JOIN b.tags bt WHERE bt.id = t.id AND b.deleted = false AND b.published = true), " +
+            "t.version = t.version + 1 WHERE t.blogCount <> " +
+            "(SELECT COUNT(b) FROM Blog b JOIN b.tags bt WHERE bt.id = t.id AND b.deleted = false AND b.published = true)")
+    int reconcileBlogCounts();
+}
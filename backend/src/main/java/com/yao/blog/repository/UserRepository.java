@@ -1,13 +1,28 @@
 package com.yao.blog.repository;
 
 import com.yao.blog.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    // Every request with a legacy token and every login; cached like the tag lookups
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsernameAndDeletedFalse(String username);
 
     boolean existsByUsernameAndDeletedFalse(String username);
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id AND u.deleted = false")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,5 @@
+package com.yao.blog.repository.projection;
+
+import java.time.LocalDateTime;
+
+public record ArchiveEntry(Long id, String title, LocalDateTime createdAt) {}
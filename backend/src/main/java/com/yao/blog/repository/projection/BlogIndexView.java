@@ -0,0 +1,16 @@
+package com.yao.blog.repository.projection;
+
+public interface BlogIndexView {
+
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    String getContent();
+
+    boolean isPublished();
+
+    boolean isDeleted();
+}
@@ -0,0 +1,12 @@
+package com.yao.blog.repository.projection;
+
+public interface BlogRenderSource {
+
+    Long getId();
+
+    String getContent();
+
+    String getDescription();
+
+    Long getVersion();
+}
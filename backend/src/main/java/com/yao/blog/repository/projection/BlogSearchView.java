@@ -0,0 +1,10 @@
+package com.yao.blog.repository.projection;
+
+public interface BlogSearchView {
+
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+}
@@ -0,0 +1,12 @@
+package com.yao.blog.repository.projection;
+
+public interface BlogTagView {
+
+    Long getBlogId();
+
+    Long getTagId();
+
+    String getTagName();
+
+    long getTagBlogCount();
+}
@@ -0,0 +1,8 @@
+package com.yao.blog.repository.projection;
+
+import java.time.LocalDateTime;
+
+// A record rather than an interface projection so it can be stored in the Redis cache.
+// contentLength is the Markdown length in characters; null in entries cached before it existed.
+// tagsVersion sums the versions of the embedded tags, which move with their names and blog counts
+public record BlogVersion(Long id, Long version, LocalDateTime updatedAt, Integer contentLength, Long tagsVersion) {}
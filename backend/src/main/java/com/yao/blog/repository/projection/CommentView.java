@@ -0,0 +1,22 @@
+package com.yao.blog.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface CommentView {
+
+    Long getId();
+
+    Long getParentId();
+
+    String getNickname();
+
+    String getEmail();
+
+    String getContent();
+
+    String getAvatar();
+
+    boolean isAdminComment();
+
+    LocalDateTime getCreatedAt();
+}
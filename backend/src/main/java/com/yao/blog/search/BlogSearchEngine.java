@@ -0,0 +1,12 @@
+package com.yao.blog.search;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Finds published, non-deleted blogs matching a free-text query, most relevant first.
+ */
+public interface BlogSearchEngine {
+
+    Page<SearchHit> search(String query, Pageable pageable);
+}
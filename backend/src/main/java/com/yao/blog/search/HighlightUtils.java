@@ -0,0 +1,58 @@
+package com.yao.blog.search;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.Locale;
+
+final class HighlightUtils {
+
+    // Private-use code points survive ts_headline and HTML escaping, then become <mark> tags
+    static final String START_MARK = "\uE000";
+    static final String STOP_MARK = "\uE001";
+
+    private HighlightUtils() {}
+
+    static String toHtml(String markedText) {
+        if (markedText == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(markedText)
+                .replace(START_MARK, "<mark>")
+                .replace(STOP_MARK, "</mark>");
+    }
+
+    /**
+     * Marks case-insensitive occurrences of {@code term} and trims the text to a window around the first match.
+     */
+    static String highlight(String text, String term, int window) {
+        if (text == null || text.isBlank() || term == null || term.isBlank()) {
+            return null;
+        }
+        String lowerText = text.toLowerCase(Locale.ROOT);
+        String lowerTerm = term.toLowerCase(Locale.ROOT);
+        int first = lowerText.indexOf(lowerTerm);
+        if (first < 0) {
+            return null;
+        }
+        int from = Math.max(0, first - window / 2);
+        int to = Math.min(text.length(), first + term.length() + window / 2);
+
+        StringBuilder marked = new StringBuilder(to - from + 16);
+        if (from > 0) {
+            marked.append("...");
+        }
+        int pos = from;
+        int match = first;
+        while (match >= 0 && match + term.length() <= to) {
+            marked.append(text, pos, match).append(START_MARK)
+                    .append(text, match, match + term.length()).append(STOP_MARK);
+            pos = match + term.length();
+            match = lowerText.indexOf(lowerTerm, pos);
+        }
+        marked.append(text, pos, to);
+        if (to < text.length()) {
+            marked.append("...");
+        }
+        return toHtml(marked.toString());
+    }
+}
@@ -0,0 +1,225 @@
+package com.yao.blog.search;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index with BM25 scoring. Title and description terms count
+ * {@value #TITLE_WEIGHT}x and {@value #DESCRIPTION_WEIGHT}x as much as content terms.
+ */
+public class InvertedIndex {
+
+    static final int TITLE_WEIGHT = 3;
+    static final int DESCRIPTION_WEIGHT = 2;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int SNIPPET_WINDOW = 160;
+
+    /**
+     * A tokenized blog, ready to insert. Building one is the expensive part and needs no lock.
+     */
+    public record Document(Long id, String title, String description, Map<String, Integer> termFreqs, int length) {}
+
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private long totalLength;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public static Document analyze(Long id, String title, String description, String content) {
+        Map<String, Integer> termFreqs = new HashMap<>();
+        int length = addTerms(termFreqs, title, TITLE_WEIGHT)
+                + addTerms(termFreqs, description, DESCRIPTION_WEIGHT)
+                + addTerms(termFreqs, content, 1);
+        return new Document(id, title, description, termFreqs, length);
+    }
+
+    private static int addTerms(Map<String, Integer> termFreqs, String text, int weight) {
+        List<String> tokens = Tokenizer.tokenize(text);
+        for (String token : tokens) {
+            termFreqs.merge(token, weight, Integer::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    public void put(Document document) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.id());
+            documents.put(document.id(), document);
+            totalLength += document.length();
+            document.termFreqs().forEach((term, freq) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(document.id(), freq));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(Long id) {
+        Document existing = documents.remove(id);
+        if (existing == null) {
+            return;
+        }
+        totalLength -= existing.length();
+        for (String term : existing.termFreqs().keySet()) {
+            Map<Long, Integer> list = postings.get(term);
+            if (list != null) {
+                list.remove(id);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    public Page<SearchHit> search(String query, Pageable pageable) {
+        Set<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        lock.readLock().lock();
+        try {
+            int docCount = documents.size();
+            if (terms.isEmpty() || docCount == 0) {
+                return new PageImpl<>(List.of(), pageable, 0);
+            }
+            double avgLength = Math.max(1.0, (double) totalLength / docCount);
+            Map<Long, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<Long, Integer> list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (docCount - list.size() + 0.5) / (list.size() + 0.5));
+                list.forEach((id, freq) -> {
+                    double norm = K1 * (1 - B + B * documents.get(id).length() / avgLength);
+                    scores.merge(id, idf * freq * (K1 + 1) / (freq + norm), Double::sum);
+                });
+            }
+
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+
+            int from = (int) Math.min(pageable.getOffset(), ranked.size());
+            int to = Math.min(from + pageable.getPageSize(), ranked.size());
+            List<SearchHit> hits = new ArrayList<>(to - from);
+            for (Map.Entry<Long, Double> entry : ranked.subList(from, to)) {
+                hits.add(new SearchHit(entry.getKey(), entry.getValue(), snippet(documents.get(entry.getKey()), terms)));
+            }
+            return new PageImpl<>(hits, pageable, ranked.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private String snippet(Document document, Set<String> terms) {
+        for (String term : terms) {
+            String highlight = HighlightUtils.highlight(document.description(), term, SNIPPET_WINDOW);
+            if (highlight == null) {
+                highlight = HighlightUtils.highlight(document.title(), term, SNIPPET_WINDOW);
+            }
+            if (highlight != null) {
+                return highlight;
+            }
+        }
+        return null;
+    }
+
+    public int documentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Snapshots store analyzed documents only; postings are rebuilt on load
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(documents.size());
+            for (Document document : documents.values()) {
+                out.writeLong(document.id());
+                writeString(out, document.title());
+                writeString(out, document.description());
+                out.writeInt(document.length());
+                out.writeInt(document.termFreqs().size());
+                for (Map.Entry<String, Integer> entry : document.termFreqs().entrySet()) {
+                    writeString(out, entry.getKey());
+                    out.writeInt(entry.getValue());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static InvertedIndex readFrom(DataInputStream in) throws IOException {
+        InvertedIndex index = new InvertedIndex();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            long id = in.readLong();
+            String title = readString(in);
+            String description = readString(in);
+            int length = in.readInt();
+            int terms = in.readInt();
+            Map<String, Integer> termFreqs = new HashMap<>(terms * 2);
+            for (int t = 0; t < terms; t++) {
+                termFreqs.put(readString(in), in.readInt());
+            }
+            index.put(new Document(id, title, description, termFreqs, length));
+        }
+        return index;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = in.readNBytes(length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,237 @@
+package com.yao.blog.search;
+
+import com.yao.blog.dto.response.SearchIndexResponse;
+import com.yao.blog.event.BlogChangedEvent;
+import com.yao.blog.repository.BlogRepository;
+import com.yao.blog.repository.projection.BlogIndexView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Search served entirely from an in-JVM {@link InvertedIndex}. The index is loaded from an optional
+ * on-disk snapshot (then caught up from the database), kept current from {@link BlogChangedEvent}s,
+ * and can be rebuilt from scratch on a dedicated fork-join pool. Writes on other replicas arrive as post
+ * ids over Redis and are re-read by id.
+ */
+@Slf4j
+public class InvertedIndexSearchEngine implements BlogSearchEngine {
+
+    public static final String CHANNEL = "blog:search:changed";
+
+    private static final int SNAPSHOT_MAGIC = 0x424C4958;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int LOAD_CHUNK = 500;
+    private static final Duration CATCH_UP_MARGIN = Duration.ofMinutes(1);
+
+    private final BlogRepository blogRepository;
+    // Null when Redis is disabled: changes then stay on this node
+    private final StringRedisTemplate redisTemplate;
+    private final Path snapshotPath;
+    private final ForkJoinPool analyzerPool;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile InvertedIndex index = new InvertedIndex();
+    private volatile boolean loaded;
+    // Changes seen while a rebuild is running, replayed onto the new index; guarded by this
+    private List<Change> journal;
+
+    // A null document removes the post
+    private record Change(Long blogId, InvertedIndex.Document document) {}
+
+    public InvertedIndexSearchEngine(BlogRepository blogRepository, StringRedisTemplate redisTemplate,
+                                     Path snapshotPath, int parallelism) {
+        this.blogRepository = blogRepository;
+        this.redisTemplate = redisTemplate;
+        this.snapshotPath = snapshotPath;
+        this.analyzerPool = new ForkJoinPool(parallelism);
+    }
+
+    @Override
+    public Page<SearchHit> search(String query, Pageable pageable) {
+        return index.search(query, pageable);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDateTime snapshotAt = loadSnapshot();
+        if (snapshotAt != null) {
+            catchUp(snapshotAt);
+        } else {
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onBlogChanged(BlogChangedEvent event) {
+        change(event.getBlogId(), event.isVisible()
+                ? InvertedIndex.analyze(event.getBlogId(), event.getTitle(), event.getDescription(), event.getContent())
+                : null);
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.convertAndSend(CHANNEL, nodeId + ":" + event.getBlogId());
+            } catch (RuntimeException e) {
+                log.warn("Could not broadcast search index change for blog {}: {}", event.getBlogId(), e.getMessage());
+            }
+        }
+    }
+
+    public void receive(byte[] body) {
+        String[] parts = new String(body, StandardCharsets.UTF_8).split(":", 2);
+        if (parts.length < 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            Long blogId = Long.parseLong(parts[1]);
+            change(blogId, blogRepository.findIndexViewById(blogId).map(InvertedIndexSearchEngine::analyze).orElse(null));
+        } catch (RuntimeException e) {
+            log.debug("Ignoring search index change message: {}", e.getMessage());
+        }
+    }
+
+    public SearchIndexResponse rebuild() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            if (journal != null) {
+                throw new IllegalStateException("Search index rebuild already running");
+            }
+            journal = new ArrayList<>();
+        }
+        InvertedIndex fresh = new InvertedIndex();
+        boolean completed = false;
+        try {
+            Long afterId = 0L;
+            List<BlogIndexView> chunk;
+            do {
+                chunk = blogRepository.findIndexViewsAfterId(afterId, PageRequest.of(0, LOAD_CHUNK));
+                List<BlogIndexView> rows = chunk;
+                // Tokenizing dominates rebuild time; keep it off the common pool used by request threads
+                List<InvertedIndex.Document> documents = analyzerPool.submit(() -> rows.parallelStream()
+                        .map(InvertedIndexSearchEngine::analyze)
+                        .toList()).join();
+                documents.forEach(fresh::put);
+                if (!chunk.isEmpty()) {
+                    afterId = chunk.get(chunk.size() - 1).getId();
+                }
+            } while (chunk.size() == LOAD_CHUNK);
+            completed = true;
+        } finally {
+            synchronized (this) {
+                if (completed) {
+                    for (Change change : journal) {
+                        apply(fresh, change.blogId(), change.document());
+                    }
+                    index = fresh;
+                    loaded = true;
+                }
+                journal = null;
+            }
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Search index rebuilt: {} documents, {} terms in {} ms", fresh.documentCount(), fresh.termCount(), millis);
+        saveSnapshot();
+        return SearchIndexResponse.builder()
+                .documents(fresh.documentCount())
+                .terms(fresh.termCount())
+                .durationMillis(millis)
+                .build();
+    }
+
+    // Called by Spring on shutdown (inferred destroy method)
+    public void close() {
+        saveSnapshot();
+        analyzerPool.shutdown();
+    }
+
+    private synchronized void change(Long blogId, InvertedIndex.Document document) {
+        if (journal != null) {
+            journal.add(new Change(blogId, document));
+        }
+        apply(index, blogId, document);
+    }
+
+    // Null for rows that are deleted or unpublished
+    private static InvertedIndex.Document analyze(BlogIndexView row) {
+        return row.isPublished() && !row.isDeleted()
+                ? InvertedIndex.analyze(row.getId(), row.getTitle(), row.getDescription(), row.getContent())
+                : null;
+    }
+
+    private static void apply(InvertedIndex target, Long blogId, InvertedIndex.Document document) {
+        if (document == null) {
+            target.remove(blogId);
+        } else {
+            target.put(document);
+        }
+    }
+
+    private void catchUp(LocalDateTime snapshotAt) {
+        List<BlogIndexView> changed = blogRepository.findIndexViewsUpdatedAfter(snapshotAt);
+        for (BlogIndexView row : changed) {
+            apply(index, row.getId(), analyze(row));
+        }
+        log.info("Search index loaded from snapshot: {} documents, {} caught up", index.documentCount(), changed.size());
+    }
+
+    private LocalDateTime loadSnapshot() {
+        if (snapshotPath == null || !Files.isReadable(snapshotPath)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                log.info("Ignoring search index snapshot with unknown format: {}", snapshotPath);
+                return null;
+            }
+            LocalDateTime snapshotAt = LocalDateTime.parse(in.readUTF());
+            index = InvertedIndex.readFrom(in);
+            loaded = true;
+            return snapshotAt;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read search index snapshot {}: {}", snapshotPath, e.getMessage());
+            return null;
+        }
+    }
+
+    private void saveSnapshot() {
+        if (snapshotPath == null || !loaded) {
+            return;
+        }
+        // Back-dated so catch-up also covers commits whose events were still in flight while writing
+        LocalDateTime snapshotAt = LocalDateTime.now().minus(CATCH_UP_MARGIN);
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "search-index", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeUTF(snapshotAt.toString());
+                index.writeTo(out);
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write search index snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.yao.blog.search;
+
+import com.yao.blog.repository.BlogRepository;
+import com.yao.blog.repository.projection.BlogSearchView;
+import com.yao.blog.util.LikeUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Portable fallback (used on H2): substring match on title and content, ordered by the requested sort.
+ */
+@RequiredArgsConstructor
+public class LikeBlogSearchEngine implements BlogSearchEngine {
+
+    private static final int SNIPPET_WINDOW = 160;
+
+    private final BlogRepository blogRepository;
+
+    @Override
+    public Page<SearchHit> search(String query, Pageable pageable) {
+        Page<BlogSearchView> rows = blogRepository.findSearchViewsByQuery(LikeUtils.contains(query), pageable);
+        return rows.map(row -> new SearchHit(row.getId(), 0, snippet(row, query)));
+    }
+
+    private String snippet(BlogSearchView row, String query) {
+        String highlight = HighlightUtils.highlight(row.getDescription(), query, SNIPPET_WINDOW);
+        return highlight != null ? highlight : HighlightUtils.highlight(row.getTitle(), query, SNIPPET_WINDOW);
+    }
+}
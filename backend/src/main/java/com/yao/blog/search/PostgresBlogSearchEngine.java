@@ -0,0 +1,63 @@
+package com.yao.blog.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * PostgreSQL full-text search over generated, GIN-indexed tsvectors: title and description on t_blog,
+ * weighted A and B, and the body on t_blog_content, weighted C. A generated column cannot read another
+ * table, so a post matches if either vector does, found through each table's index and united, and is
+ * ranked on their concatenation. Query-only: the columns and indexes come from migration V9, built with
+ * the same text search config.
+ */
+@RequiredArgsConstructor
+public class PostgresBlogSearchEngine implements BlogSearchEngine {
+
+    private static final String HEADLINE_OPTIONS =
+            "StartSel=" + HighlightUtils.START_MARK + ",StopSel=" + HighlightUtils.STOP_MARK
+                    + ",MaxWords=35,MinWords=15,MaxFragments=2,FragmentDelimiter=\" ... \"";
+
+    // Each vector is matched on its own GIN index; an OR across the join could use neither
+    private static final String MATCHES =
+            "SELECT id FROM t_blog WHERE search_vector @@ websearch_to_tsquery(?::regconfig, ?) "
+                    + "UNION SELECT blog_id FROM t_blog_content WHERE search_vector @@ websearch_to_tsquery(?::regconfig, ?)";
+
+    static final String COUNT_SQL = "SELECT count(*) FROM (" + MATCHES + ") m JOIN t_blog b ON b.id = m.id "
+            + "WHERE b.deleted = false AND b.published = true";
+
+    // Rank and page first, then build headlines for just the rows on this page
+    static final String PAGE_SQL = "SELECT p.id, p.rank, ts_headline(?::regconfig, "
+            + "coalesce(b.description, '') || ' ' || coalesce(c.content, ''), p.q, ?) AS snippet "
+            + "FROM (SELECT b.id, ts_rank_cd(b.search_vector || c.search_vector, q) AS rank, q "
+            + "      FROM (" + MATCHES + ") m "
+            + "      JOIN t_blog b ON b.id = m.id JOIN t_blog_content c ON c.blog_id = m.id, "
+            + "           websearch_to_tsquery(?::regconfig, ?) q "
+            + "      WHERE b.deleted = false AND b.published = true "
+            + "      ORDER BY rank DESC, b.id DESC LIMIT ? OFFSET ?) p "
+            + "JOIN t_blog b ON b.id = p.id JOIN t_blog_content c ON c.blog_id = p.id "
+            + "ORDER BY p.rank DESC, p.id DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String textSearchConfig;
+
+    @Override
+    public Page<SearchHit> search(String query, Pageable pageable) {
+        Long total = jdbcTemplate.queryForObject(COUNT_SQL, Long.class,
+                textSearchConfig, query, textSearchConfig, query);
+        if (total == null || total == 0 || pageable.getOffset() >= total) {
+            return new PageImpl<>(List.of(), pageable, total == null ? 0 : total);
+        }
+
+        List<SearchHit> hits = jdbcTemplate.query(PAGE_SQL,
+                (rs, rowNum) -> new SearchHit(rs.getLong("id"), rs.getDouble("rank"),
+                        HighlightUtils.toHtml(rs.getString("snippet"))),
+                textSearchConfig, HEADLINE_OPTIONS, textSearchConfig, query, textSearchConfig, query,
+                textSearchConfig, query, pageable.getPageSize(), pageable.getOffset());
+        return new PageImpl<>(hits, pageable, total);
+    }
+}
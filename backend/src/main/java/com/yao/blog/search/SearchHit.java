@@ -0,0 +1,6 @@
+package com.yao.blog.search;
+
+/**
+ * One ranked search result. {@code highlight} is HTML-safe text with matches wrapped in {@code <mark>}.
+ */
+public record SearchHit(Long blogId, double score, String highlight) {}
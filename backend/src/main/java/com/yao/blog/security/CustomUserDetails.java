@@ -1,6 +1,7 @@
 package com.yao.blog.security;
 
 import com.yao.blog.entity.User;
+import com.yao.blog.enums.Role;
 import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -16,14 +17,28 @@ public class CustomUserDetails implements UserDetails {
     private final String username;
     private final String password;
     private final String nickname;
+    private final Role role;
+    private final int tokenVersion;
     private final Collection<? extends GrantedAuthority> authorities;
 
     public CustomUserDetails(User user) {
-        this.id = user.getId();
-        this.username = user.getUsername();
-        this.password = user.getPassword();
-        this.nickname = user.getNickname();
-        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
+        this(user.getId(), user.getUsername(), user.getPassword(), user.getNickname(), user.getRole(),
+                user.getTokenVersion());
+    }
+
+    // Principal rebuilt from access token claims; carries no password
+    public CustomUserDetails(Long id, String username, String nickname, Role role, int tokenVersion) {
+        this(id, username, null, nickname, role, tokenVersion);
+    }
+
+    private CustomUserDetails(Long id, String username, String password, String nickname, Role role, int tokenVersion) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.nickname = nickname;
+        this.role = role;
+        this.tokenVersion = tokenVersion;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
     }
 
     @Override
@@ -22,6 +22,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenVersionService tokenVersionService;
 
     @Override
     protected void doFilterInternal(
@@ -39,11 +40,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String jwt = authHeader.substring(7);
 
         try {
-            final String username = jwtService.extractUsername(jwt);
-
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = resolvePrincipal(jwt);
+                if (userDetails != null) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities()
                     );
@@ -56,4 +55,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    private UserDetails resolvePrincipal(String jwt) {
+        CustomUserDetails principal = jwtService.authenticate(jwt);
+        if (principal != null) {
+            // Stateless path: only the token version is looked up, and that is cached
+            return principal.getTokenVersion() == tokenVersionService.currentVersion(principal.getId())
+                    ? principal
+                    : null;
+        }
+        // Tokens issued before ids and roles were embedded still go through the user table
+        UserDetails userDetails = userDetailsService.loadUserByUsername(jwtService.extractUsername(jwt));
+        return jwtService.isTokenValid(jwt, userDetails) ? userDetails : null;
+    }
 }
@@ -1,14 +1,21 @@
 package com.yao.blog.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.yao.blog.enums.Role;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -17,12 +24,78 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_NICKNAME = "nick";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_TOKEN_VERSION = "ver";
+
+    private record VerifiedToken(CustomUserDetails principal, long expiresAtMillis) {}
+
     @Value("${jwt.secret}")
     private String secretKey;
 
     @Value("${jwt.access-token-expiration}")
     private long accessTokenExpiration;
 
+    @Value("${jwt.verified-cache.maximum-size:10000}")
+    private long verifiedCacheMaximumSize;
+
+    @Value("${jwt.verified-cache.ttl:30s}")
+    private Duration verifiedCacheTtl;
+
+    private SecretKey signInKey;
+    private JwtParser parser;
+    // Signature checks are the expensive part; a token already verified is trusted until its cache entry expires
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parser().verifyWith(signInKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaximumSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        long untilTokenExpiry = Duration.ofMillis(value.expiresAtMillis() - System.currentTimeMillis()).toNanos();
+                        return Math.max(0, Math.min(untilTokenExpiry, verifiedCacheTtl.toNanos()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Verifies the token once and rebuilds the principal from its claims, without touching the database.
+     * Returns null for tokens issued without the embedded claims; throws if the token is invalid or expired.
+     */
+    public CustomUserDetails authenticate(String token) {
+        VerifiedToken verified = verifiedTokens.getIfPresent(token);
+        if (verified != null) {
+            return verified.principal();
+        }
+        Claims claims = extractAllClaims(token);
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Integer tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Integer.class);
+        if (userId == null || role == null || tokenVersion == null) {
+            return null;
+        }
+        CustomUserDetails principal = new CustomUserDetails(userId, claims.getSubject(),
+                claims.get(CLAIM_NICKNAME, String.class), Role.valueOf(role), tokenVersion);
+        verifiedTokens.put(token, new VerifiedToken(principal, claims.getExpiration().getTime()));
+        return principal;
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -37,7 +110,14 @@ public class JwtService {
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, accessTokenExpiration);
+        Map<String, Object> claims = new HashMap<>(extraClaims);
+        if (userDetails instanceof CustomUserDetails user) {
+            claims.put(CLAIM_USER_ID, user.getId());
+            claims.put(CLAIM_NICKNAME, user.getNickname());
+            claims.put(CLAIM_ROLE, user.getRole().name());
+            claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion());
+        }
+        return buildToken(claims, userDetails, accessTokenExpiration);
     }
 
     private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
@@ -46,33 +126,17 @@ public class JwtService {
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .signWith(signInKey)
                 .compact();
     }
 
+    // The parser already rejects expired tokens, so one parse covers both checks
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        final Claims claims = extractAllClaims(token);
+        return claims.getSubject().equals(userDetails.getUsername()) && claims.getExpiration().after(new Date());
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return parser.parseSignedClaims(token).getPayload();
     }
 }
@@ -0,0 +1,34 @@
+package com.yao.blog.security;
+
+import com.yao.blog.cache.CacheInvalidator;
+import com.yao.blog.cache.CacheNames;
+import com.yao.blog.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Current token version per user. Served from the two-level cache, whose invalidation bus makes
+ * a revocation visible on every node as soon as it commits.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenVersionService {
+
+    static final int UNKNOWN_USER = -1;
+
+    private final UserRepository userRepository;
+    private final CacheInvalidator cacheInvalidator;
+
+    @Cacheable(cacheNames = CacheNames.TOKEN_VERSIONS, key = "#userId", sync = true)
+    public int currentVersion(Long userId) {
+        return userRepository.findTokenVersionById(userId).orElse(UNKNOWN_USER);
+    }
+
+    @Transactional
+    public void revoke(Long userId) {
+        userRepository.incrementTokenVersion(userId);
+        cacheInvalidator.tokenVersionChanged(userId);
+    }
+}
@@ -0,0 +1,252 @@
+package com.yao.blog.service;
+
+import com.yao.blog.dto.response.ArchiveEntryResponse;
+import com.yao.blog.dto.response.ArchiveMonthResponse;
+import com.yao.blog.dto.response.ArchiveResponse;
+import com.yao.blog.event.BlogChangedEvent;
+import com.yao.blog.repository.BlogRepository;
+import com.yao.blog.repository.projection.ArchiveEntry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * The archive as an in-memory snapshot of (id, title, createdAt) per published post, bucketed by year and
+ * month. Built by one streaming query, then kept current one post at a time from {@link BlogChangedEvent}s;
+ * only the year a change touches is rebuilt. Writes on other replicas arrive as post ids over Redis and are
+ * re-read by id. A periodic full rebuild bounds any drift. Readers get immutable responses without locking.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ArchiveIndex {
+
+    public static final String CHANNEL = "blog:archive:changed";
+
+    private static final Comparator<ArchiveEntry> NEWEST_FIRST =
+            Comparator.comparing(ArchiveEntry::createdAt).thenComparing(ArchiveEntry::id).reversed();
+
+    private final BlogRepository blogRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Object buildLock = new Object();
+
+    @Value("${blog.cache.redis-enabled:true}")
+    private boolean redisEnabled;
+
+    private TransactionTemplate readOnly;
+
+    // Guarded by this
+    private final Map<Integer, NavigableSet<ArchiveEntry>> entriesByYear = new HashMap<>();
+    private final Map<Long, ArchiveEntry> entriesById = new HashMap<>();
+    // Changes applied while a build is loading, replayed onto its result; guarded by this
+    private List<Change> journal;
+
+    private volatile Snapshot snapshot;
+
+    private record Change(Long id, ArchiveEntry entry) {}
+
+    private record Snapshot(List<ArchiveResponse> index, Map<Integer, ArchiveResponse> years) {}
+
+    @PostConstruct
+    void init() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    /**
+     * Years newest first, each with its per-month post counts but no posts.
+     */
+    public List<ArchiveResponse> index() {
+        return current().index();
+    }
+
+    /**
+     * One year's posts grouped by month, newest first; null if nothing was published that year.
+     */
+    public ArchiveResponse year(int year) {
+        return current().years().get(year);
+    }
+
+    @TransactionalEventListener
+    public void onBlogChanged(BlogChangedEvent event) {
+        apply(event.getBlogId(), event.isVisible() && event.getCreatedAt() != null
+                ? new ArchiveEntry(event.getBlogId(), event.getTitle(), event.getCreatedAt())
+                : null);
+        if (redisEnabled) {
+            try {
+                redisTemplate.convertAndSend(CHANNEL, nodeId + ":" + event.getBlogId());
+            } catch (RuntimeException e) {
+                log.warn("Could not broadcast archive change for blog {}: {}", event.getBlogId(), e.getMessage());
+            }
+        }
+    }
+
+    public void receive(byte[] body) {
+        String[] parts = new String(body, StandardCharsets.UTF_8).split(":", 2);
+        if (parts.length < 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            Long blogId = Long.parseLong(parts[1]);
+            apply(blogId, blogRepository.findArchiveEntry(blogId).orElse(null));
+        } catch (RuntimeException e) {
+            log.debug("Ignoring archive change message: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${blog.archive.rebuild-interval:3600000}",
+            initialDelayString = "${blog.archive.rebuild-interval:3600000}")
+    public void rebuild() {
+        try {
+            build();
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the archive: {}", e.getMessage());
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            build();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private void build() {
+        synchronized (buildLock) {
+            synchronized (this) {
+                journal = new ArrayList<>();
+            }
+            try {
+                Map<Integer, NavigableSet<ArchiveEntry>> byYear = new HashMap<>();
+                Map<Long, ArchiveEntry> byId = new HashMap<>();
+                readOnly.executeWithoutResult(status -> {
+                    try (Stream<ArchiveEntry> rows = blogRepository.streamArchiveEntries()) {
+                        rows.forEach(entry -> {
+                            byId.put(entry.id(), entry);
+                            byYear.computeIfAbsent(entry.createdAt().getYear(), y -> new TreeSet<>(NEWEST_FIRST)).add(entry);
+                        });
+                    }
+                });
+                synchronized (this) {
+                    entriesByYear.clear();
+                    entriesByYear.putAll(byYear);
+                    entriesById.clear();
+                    entriesById.putAll(byId);
+                    journal.forEach(change -> applyLocked(change.id(), change.entry()));
+                    publish(Map.of(), entriesByYear.keySet());
+                }
+                log.debug("Archive rebuilt with {} posts in {} years", byId.size(), byYear.size());
+            } finally {
+                synchronized (this) {
+                    journal = null;
+                }
+            }
+        }
+    }
+
+    private synchronized void apply(Long blogId, ArchiveEntry entry) {
+        if (journal != null) {
+            journal.add(new Change(blogId, entry));
+        }
+        Snapshot current = snapshot;
+        // Before the first build there is nothing to update; the build reads committed state
+        if (current != null) {
+            publish(current.years(), applyLocked(blogId, entry));
+        }
+    }
+
+    // Returns the years whose posts changed
+    private List<Integer> applyLocked(Long blogId, ArchiveEntry entry) {
+        List<Integer> touched = new ArrayList<>(2);
+        ArchiveEntry previous = entry != null ? entriesById.put(blogId, entry) : entriesById.remove(blogId);
+        if (previous != null) {
+            int year = previous.createdAt().getYear();
+            NavigableSet<ArchiveEntry> entries = entriesByYear.get(year);
+            entries.remove(previous);
+            if (entries.isEmpty()) {
+                entriesByYear.remove(year);
+            }
+            touched.add(year);
+        }
+        if (entry != null) {
+            int year = entry.createdAt().getYear();
+            entriesByYear.computeIfAbsent(year, y -> new TreeSet<>(NEWEST_FIRST)).add(entry);
+            touched.add(year);
+        }
+        return touched;
+    }
+
+    // Reuses the responses of untouched years from the previous snapshot
+    private void publish(Map<Integer, ArchiveResponse> previous, Collection<Integer> touched) {
+        Map<Integer, ArchiveResponse> years = new TreeMap<>(Comparator.reverseOrder());
+        years.putAll(previous);
+        for (Integer year : touched) {
+            NavigableSet<ArchiveEntry> entries = entriesByYear.get(year);
+            if (entries == null) {
+                years.remove(year);
+            } else {
+                years.put(year, toYearResponse(year, entries));
+            }
+        }
+        List<ArchiveResponse> index = years.values().stream().map(ArchiveIndex::withoutPosts).toList();
+        snapshot = new Snapshot(index, Collections.unmodifiableMap(years));
+    }
+
+    private static ArchiveResponse toYearResponse(int year, NavigableSet<ArchiveEntry> entries) {
+        Map<Integer, List<ArchiveEntryResponse>> byMonth = new LinkedHashMap<>();
+        for (ArchiveEntry entry : entries) {
+            byMonth.computeIfAbsent(entry.createdAt().getMonthValue(), m -> new ArrayList<>())
+                    .add(ArchiveEntryResponse.builder()
+                            .id(entry.id())
+                            .title(entry.title())
+                            .createdAt(entry.createdAt())
+                            .build());
+        }
+        List<ArchiveMonthResponse> months = new ArrayList<>();
+        byMonth.forEach((month, posts) -> months.add(ArchiveMonthResponse.builder()
+                .month(month)
+                .count(posts.size())
+                .blogs(posts)
+                .build()));
+        return ArchiveResponse.builder().year(year).count(entries.size()).months(months).build();
+    }
+
+    private static ArchiveResponse withoutPosts(ArchiveResponse year) {
+        return ArchiveResponse.builder()
+                .year(year.getYear())
+                .count(year.getCount())
+                .months(year.getMonths().stream()
+                        .map(month -> ArchiveMonthResponse.builder().month(month.getMonth()).count(month.getCount()).build())
+                        .toList())
+                .build();
+    }
+}
@@ -10,6 +10,7 @@ import com.yao.blog.repository.RefreshTokenRepository;
 import com.yao.blog.repository.UserRepository;
 import com.yao.blog.security.CustomUserDetails;
 import com.yao.blog.security.JwtService;
+import com.yao.blog.security.TokenVersionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -29,6 +30,7 @@ public class AuthService {
     private final JwtService jwtService;
     private final UserRepository userRepository;
     private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenVersionService tokenVersionService;
 
     @Value("${jwt.refresh-token-expiration}")
     private long refreshTokenExpiration;
@@ -81,10 +83,17 @@ public class AuthService {
                 .build();
     }
 
+    // Ends this session only; its access token lapses with the access-token expiration
     @Transactional
     public void logout(String refreshToken) {
-        refreshTokenRepository.findByToken(refreshToken)
-                .ifPresent(refreshTokenRepository::delete);
+        refreshTokenRepository.findByToken(refreshToken).ifPresent(refreshTokenRepository::delete);
+    }
+
+    @Transactional
+    public void logoutEverywhere(Long userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+        // Access tokens are stateless, so outstanding ones are revoked through the token version
+        tokenVersionService.revoke(userId);
     }
 
     private RefreshToken createRefreshToken(Long userId) {
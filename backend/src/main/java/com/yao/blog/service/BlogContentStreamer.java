@@ -0,0 +1,209 @@
+package com.yao.blog.service;
+
+import com.aayushatharva.brotli4j.encoder.BrotliOutputStream;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.yao.blog.cache.ResponseBytesCache;
+import com.yao.blog.repository.projection.BlogVersion;
+import com.yao.blog.util.MarkdownUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a post's HTML to the response as it is produced instead of materializing it: the stored HTML is
+ * copied out in slices and stale Markdown is rendered straight into the response writer, escaped on the
+ * way into the JSON string when the client asked for JSON. Compression is streamed too. Used for every
+ * {@code /html} request and for detail requests of posts above {@code blog.render.streaming-threshold},
+ * which are too large to keep in the response caches.
+ */
+@Component
+@RequiredArgsConstructor
+public class BlogContentStreamer {
+
+    private static final int BUFFER_SIZE = 8192;
+    // Per-request compression, so a quality that keeps up with the network rather than the best ratio
+    private static final int BROTLI_QUALITY = 4;
+
+    private final BlogService blogService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${blog.render.streaming-threshold:256KB}")
+    private DataSize streamingThreshold;
+
+    public boolean isLarge(BlogVersion version) {
+        return version.contentLength() != null && version.contentLength() >= streamingThreshold.toBytes();
+    }
+
+    public void writeJson(Long id, long views, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        BlogService.StreamableBlog blog = blogService.getStreamableBlog(id);
+        blog.metadata().setViews(Math.toIntExact(views));
+        ObjectNode metadata = objectMapper.valueToTree(blog.metadata());
+        try (Writer writer = open(request, response, MediaType.APPLICATION_JSON_VALUE);
+             JsonGenerator generator = objectMapper.createGenerator(writer)) {
+            generator.writeStartObject();
+            boolean contentWritten = false;
+            for (Iterator<Map.Entry<String, JsonNode>> fields = metadata.fields(); fields.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                generator.writeFieldName(field.getKey());
+                if ("content".equals(field.getKey())) {
+                    writeContentString(generator, blog);
+                    contentWritten = true;
+                } else {
+                    generator.writeTree(field.getValue());
+                }
+            }
+            if (!contentWritten) {
+                generator.writeFieldName("content");
+                writeContentString(generator, blog);
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    public void writeHtml(Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BlogService.StreamableBlog blog = blogService.getStreamableBlog(id);
+        try (Writer writer = open(request, response, MediaType.TEXT_HTML_VALUE + ";charset=UTF-8")) {
+            writeContent(blog, writer);
+        }
+    }
+
+    private void writeContentString(JsonGenerator generator, BlogService.StreamableBlog blog) throws IOException {
+        // Raw value keeps the generator's state right; the string body is escaped by JsonStringWriter
+        generator.writeRawValue("\"");
+        try (Writer escaped = new JsonStringWriter(generator)) {
+            writeContent(blog, escaped);
+        }
+        generator.writeRaw('"');
+    }
+
+    private static void writeContent(BlogService.StreamableBlog blog, Writer writer) throws IOException {
+        if (blog.html() == null) {
+            MarkdownUtils.renderTo(blog.markdown(), writer);
+            return;
+        }
+        // Through one reused buffer: Writer.write(String, ...) copies each slice into a fresh array
+        String html = blog.html();
+        char[] buffer = new char[BUFFER_SIZE];
+        for (int start = 0; start < html.length(); start += BUFFER_SIZE) {
+            int end = Math.min(start + BUFFER_SIZE, html.length());
+            html.getChars(start, end, buffer, 0);
+            writer.write(buffer, 0, end - start);
+        }
+    }
+
+    private static Writer open(HttpServletRequest request, HttpServletResponse response, String contentType)
+            throws IOException {
+        String encoding = ResponseBytesCache.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        OutputStream out = response.getOutputStream();
+        if ("br".equals(encoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+            out = new BrotliOutputStream(out, new Encoder.Parameters().setQuality(BROTLI_QUALITY).setMode(Encoder.Mode.TEXT),
+                    BUFFER_SIZE);
+        } else if ("gzip".equals(encoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        return new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Escapes what is written to it as the body of a JSON string and hands it to the generator as raw text,
+     * through a reused buffer so no copy of the content is allocated.
+     */
+    private static final class JsonStringWriter extends Writer {
+
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        private final JsonGenerator generator;
+        private final char[] escaped = new char[BUFFER_SIZE];
+        private int length;
+
+        JsonStringWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int count) throws IOException {
+            for (int i = offset; i < offset + count; i++) {
+                escape(buffer[i]);
+            }
+        }
+
+        @Override
+        public void write(String text, int offset, int count) throws IOException {
+            for (int i = offset; i < offset + count; i++) {
+                escape(text.charAt(i));
+            }
+        }
+
+        @Override
+        public Writer append(CharSequence text) throws IOException {
+            for (int i = 0; i < text.length(); i++) {
+                escape(text.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.writeRaw(escaped, 0, length);
+            length = 0;
+        }
+
+        // Flushes, but must not close the generator, which still has fields to write
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        private void escape(char c) throws IOException {
+            if (length > escaped.length - 6) {
+                flush();
+            }
+            if (c == '"' || c == '\\') {
+                escaped[length++] = '\\';
+                escaped[length++] = c;
+            } else if (c < 0x20) {
+                escaped[length++] = '\\';
+                switch (c) {
+                    case '\n' -> escaped[length++] = 'n';
+                    case '\r' -> escaped[length++] = 'r';
+                    case '\t' -> escaped[length++] = 't';
+                    default -> {
+                        escaped[length++] = 'u';
+                        escaped[length++] = '0';
+                        escaped[length++] = '0';
+                        escaped[length++] = HEX[c >> 4];
+                        escaped[length++] = HEX[c & 0xF];
+                    }
+                }
+            } else {
+                escaped[length++] = c;
+            }
+        }
+    }
+}
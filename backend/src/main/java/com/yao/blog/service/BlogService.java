@@ -1,22 +1,43 @@
 package com.yao.blog.service;
 
+import com.yao.blog.cache.CacheInvalidator;
+import com.yao.blog.cache.CacheNames;
+import com.yao.blog.cache.ExistenceGuard;
 import com.yao.blog.dto.request.BlogRequest;
 import com.yao.blog.dto.response.ArchiveResponse;
 import com.yao.blog.dto.response.BlogResponse;
 import com.yao.blog.dto.response.BlogSummaryResponse;
+import com.yao.blog.dto.response.CursorPageResponse;
+import com.yao.blog.dto.response.HeadingResponse;
+import com.yao.blog.dto.response.PageResponse;
 import com.yao.blog.dto.response.TagResponse;
 import com.yao.blog.dto.response.UserResponse;
 import com.yao.blog.entity.Blog;
+import com.yao.blog.entity.BlogContent;
+import com.yao.blog.entity.ContentHeading;
 import com.yao.blog.entity.Tag;
 import com.yao.blog.entity.User;
+import com.yao.blog.event.BlogChangedEvent;
 import com.yao.blog.exception.ResourceNotFoundException;
+import com.yao.blog.repository.BlogContentRepository;
 import com.yao.blog.repository.BlogRepository;
 import com.yao.blog.repository.TagRepository;
 import com.yao.blog.repository.UserRepository;
+import com.yao.blog.repository.projection.BlogTagView;
+import com.yao.blog.repository.projection.BlogVersion;
+import com.yao.blog.search.BlogSearchEngine;
+import com.yao.blog.search.SearchHit;
 import com.yao.blog.security.CustomUserDetails;
+import com.yao.blog.util.CachedValue;
+import com.yao.blog.util.CursorUtils;
+import com.yao.blog.util.LikeUtils;
 import com.yao.blog.util.MarkdownUtils;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -24,80 +45,181 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BlogService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final BlogRepository blogRepository;
+    private final BlogContentRepository blogContentRepository;
     private final TagRepository tagRepository;
     private final UserRepository userRepository;
+    private final BlogSearchEngine blogSearchEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheInvalidator cacheInvalidator;
+    private final ExistenceGuard existenceGuard;
+    private final ContentRenderer contentRenderer;
+    private final ArchiveIndex archiveIndex;
+    private final EntityManager entityManager;
+    private final CachedValue<Long> approximateCount = new CachedValue<>(Duration.ofMinutes(1));
 
+    @Cacheable(cacheNames = CacheNames.BLOG_PAGES, sync = true,
+            key = "#pageable.pageNumber + ':' + #pageable.pageSize + ':' + #pageable.sort")
     @Transactional(readOnly = true)
-    public Page<BlogSummaryResponse> listPublishedBlogs(Pageable pageable) {
-        return blogRepository.findByDeletedFalse(pageable)
-                .map(this::toBlogSummaryResponse);
+    public PageResponse<BlogSummaryResponse> listPublishedBlogs(Pageable pageable) {
+        return toBlogSummaryPage(blogRepository.findByDeletedFalse(pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<BlogSummaryResponse> scrollPublishedBlogs(String cursor, int size) {
+        CursorUtils.Position after = CursorUtils.decode(cursor);
+        return toCursorPage(blogRepository.findPublishedAfter(after.updatedAt(), after.id(), keysetLimit(size)), size);
     }
 
     @Transactional(readOnly = true)
     public BlogResponse getBlog(Long id) {
         Blog blog = blogRepository.findByIdAndDeletedFalse(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Blog", id));
-        return toBlogResponse(blog);
+        return toBlogResponse(blog, loadContent(blog));
     }
 
+    // Validators for conditional GETs, answered without loading the blog; null if it does not exist, and
+    // nulls are not cached. No surrounding transaction, so ids the guard rejects never take a connection
+    @Cacheable(cacheNames = CacheNames.BLOG_VERSIONS, key = "#id", sync = true)
+    public BlogVersion getBlogVersion(Long id) {
+        if (!existenceGuard.mightExist(ExistenceGuard.Kind.BLOG, id)) {
+            return null;
+        }
+        Optional<BlogVersion> version = blogRepository.findVersionById(id);
+        if (version.isEmpty()) {
+            existenceGuard.recordMissing(ExistenceGuard.Kind.BLOG, id);
+        }
+        return version.orElse(null);
+    }
+
+    // Cached without views, which change on every read; the controller splices the live count into the body
+    @Cacheable(cacheNames = CacheNames.BLOG_DETAIL, key = "#id", sync = true)
     @Transactional
     public BlogResponse getBlogAndConvert(Long id) {
+        existenceGuard.require(ExistenceGuard.Kind.BLOG, id);
         Blog blog = blogRepository.findByIdAndDeletedFalse(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Blog", id));
-        blogRepository.incrementViews(id);
-        BlogResponse response = toBlogResponse(blog);
-        response.setContent(MarkdownUtils.markdownToHtml(blog.getContent()));
-        response.setViews(blog.getViews() + 1);
+                .orElseThrow(() -> existenceGuard.missing(ExistenceGuard.Kind.BLOG, id));
+        BlogContent content = loadContent(blog);
+        if (isRenderStale(content)) {
+            // Rows written before pre-rendering, or by an older renderer, are re-rendered once here
+            renderContent(blog, content);
+            blogContentRepository.save(content);
+            cacheInvalidator.blogRendered(id);
+        }
+        BlogResponse response = toBlogResponse(blog, content);
+        response.setContent(content.getContentHtml());
+        response.setViews(null);
         return response;
     }
 
+    /**
+     * A post to be streamed rather than cached: metadata without content, plus either the stored HTML or,
+     * when that is stale, the Markdown to render on the fly.
+     */
+    public record StreamableBlog(BlogResponse metadata, String html, String markdown) {}
+
+    // Not cached and not re-rendered here: large posts are served straight to the response
+    @Transactional(readOnly = true)
+    public StreamableBlog getStreamableBlog(Long id) {
+        existenceGuard.require(ExistenceGuard.Kind.BLOG, id);
+        Blog blog = blogRepository.findByIdAndDeletedFalse(id)
+                .orElseThrow(() -> existenceGuard.missing(ExistenceGuard.Kind.BLOG, id));
+        BlogContent content = loadContent(blog);
+        BlogResponse metadata = toBlogResponse(blog, content);
+        metadata.setContent(null);
+        return isRenderStale(content)
+                ? new StreamableBlog(metadata, null, content.getContent())
+                : new StreamableBlog(metadata, content.getContentHtml(), null);
+    }
+
     @Transactional(readOnly = true)
     public Page<BlogSummaryResponse> searchBlogs(String query, Pageable pageable) {
-        return blogRepository.findByQuery("%" + query + "%", pageable)
-                .map(this::toBlogSummaryResponse);
+        Page<SearchHit> hits = blogSearchEngine.search(query, pageable);
+        if (hits.isEmpty()) {
+            return new PageImpl<>(List.of(), hits.getPageable(), hits.getTotalElements());
+        }
+        Map<Long, Blog> blogsById = blogRepository.findByIdIn(hits.map(SearchHit::blogId).getContent()).stream()
+                .collect(Collectors.toMap(Blog::getId, Function.identity()));
+        // Keep the engine's relevance order; skip hits whose row disappeared in between
+        List<Blog> blogs = hits.getContent().stream()
+                .map(hit -> blogsById.get(hit.blogId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        Map<Long, String> highlights = new HashMap<>();
+        hits.forEach(hit -> {
+            if (hit.highlight() != null) {
+                highlights.put(hit.blogId(), hit.highlight());
+            }
+        });
+        List<BlogSummaryResponse> content = toBlogSummaryResponses(blogs);
+        content.forEach(summary -> summary.setHighlight(highlights.get(summary.getId())));
+        return new PageImpl<>(content, hits.getPageable(), hits.getTotalElements());
     }
 
+    // Not the search engine: a keyset cursor needs a stable (updatedAt, id) order, which relevance ranking
+    // does not give. So this is a literal substring match, newest first, and can return posts searchBlogs
+    // does not (and vice versa: no stemming or word matching)
+    @Transactional(readOnly = true)
+    public CursorPageResponse<BlogSummaryResponse> scrollSearchBlogs(String query, String cursor, int size) {
+        CursorUtils.Position after = CursorUtils.decode(cursor);
+        return toCursorPage(blogRepository.findByQueryAfter(LikeUtils.contains(query), after.updatedAt(), after.id(),
+                keysetLimit(size)), size);
+    }
+
+    @Cacheable(cacheNames = CacheNames.RECOMMENDED_BLOGS, key = "#size", sync = true)
     @Transactional(readOnly = true)
     public List<BlogSummaryResponse> listRecommendBlogs(int size) {
-        return blogRepository.findRecommendBlogs(PageRequest.of(0, size))
-                .stream()
-                .map(this::toBlogSummaryResponse)
-                .collect(Collectors.toList());
+        return toBlogSummaryResponses(blogRepository.findRecommendBlogs(PageRequest.of(0, size)));
     }
 
+    @Cacheable(cacheNames = CacheNames.BLOG_TAG_PAGES, sync = true,
+            key = "#tagId + ':' + #pageable.pageNumber + ':' + #pageable.pageSize + ':' + #pageable.sort")
     @Transactional(readOnly = true)
-    public Page<BlogSummaryResponse> listBlogsByTag(Long tagId, Pageable pageable) {
-        return blogRepository.findByTagId(tagId, pageable)
-                .map(this::toBlogSummaryResponse);
+    public PageResponse<BlogSummaryResponse> listBlogsByTag(Long tagId, Pageable pageable) {
+        return toBlogSummaryPage(blogRepository.findByTagId(tagId, pageable));
     }
 
     @Transactional(readOnly = true)
-    public List<ArchiveResponse> getArchives() {
-        List<Integer> years = blogRepository.findArchiveYears();
-        List<ArchiveResponse> archives = new ArrayList<>();
-        for (Integer year : years) {
-            List<BlogSummaryResponse> blogs = blogRepository.findByYear(year)
-                    .stream()
-                    .map(this::toBlogSummaryResponse)
-                    .collect(Collectors.toList());
-            archives.add(ArchiveResponse.builder().year(year).blogs(blogs).build());
+    public CursorPageResponse<BlogSummaryResponse> scrollBlogsByTag(Long tagId, String cursor, int size) {
+        CursorUtils.Position after = CursorUtils.decode(cursor);
+        return toCursorPage(blogRepository.findByTagIdAfter(tagId, after.updatedAt(), after.id(), keysetLimit(size)), size);
+    }
+
+    public List<ArchiveResponse> getArchiveIndex() {
+        return archiveIndex.index();
+    }
+
+    public ArchiveResponse getArchiveYear(int year) {
+        ArchiveResponse archive = archiveIndex.year(year);
+        if (archive == null) {
+            throw new ResourceNotFoundException("No posts archived for " + year);
         }
-        return archives;
+        return archive;
     }
 
     @Transactional(readOnly = true)
     public long countBlogs() {
-        return blogRepository.countByDeletedFalse();
+        // Exact to within a minute; a count(*) per request is not worth it for a display number
+        return approximateCount.get(blogRepository::countByDeletedFalse);
     }
 
     @Transactional
@@ -105,41 +227,70 @@ public class BlogService {
         Blog blog = new Blog();
         populateBlog(blog, request);
         blog.setUser(getCurrentUser());
+        BlogContent content = BlogContent.builder().blog(blog).content(request.getContent()).build();
+        renderContent(blog, content);
         setDescription(blog, request);
         Blog saved = blogRepository.save(blog);
-        return toBlogResponse(saved);
+        blogContentRepository.save(content);
+        existenceGuard.created(ExistenceGuard.Kind.BLOG, saved.getId());
+        Set<Long> recounted = adjustTagCounts(Set.of(), countedTagIds(saved));
+        refreshTags(saved, recounted);
+        eventPublisher.publishEvent(BlogChangedEvent.of(saved, content.getContent(), BlogChangedEvent.Type.CREATED));
+        cacheInvalidator.blogChanged(saved.getId(), recounted);
+        return toBlogResponse(saved, content);
     }
 
     @Transactional
     public BlogResponse updateBlog(Long id, BlogRequest request) {
         Blog blog = blogRepository.findByIdAndDeletedFalse(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Blog", id));
+        BlogContent content = loadContent(blog);
+        Set<Long> countedBefore = countedTagIds(blog);
         populateBlog(blog, request);
+        if (!Objects.equals(content.getContent(), request.getContent())) {
+            content.setContent(request.getContent());
+            // A body-only edit would not dirty t_blog; touch it so version and updatedAt still move
+            blog.setUpdatedAt(LocalDateTime.now());
+        }
+        renderContent(blog, content);
         setDescription(blog, request);
         Blog saved = blogRepository.save(blog);
-        return toBlogResponse(saved);
+        blogContentRepository.save(content);
+        Set<Long> recounted = adjustTagCounts(countedBefore, countedTagIds(saved));
+        refreshTags(saved, recounted);
+        eventPublisher.publishEvent(BlogChangedEvent.of(saved, content.getContent(), BlogChangedEvent.Type.UPDATED));
+        cacheInvalidator.blogChanged(saved.getId(), recounted);
+        return toBlogResponse(saved, content);
     }
 
     @Transactional
     public void deleteBlog(Long id) {
         Blog blog = blogRepository.findByIdAndDeletedFalse(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Blog", id));
+        Set<Long> recounted = adjustTagCounts(countedTagIds(blog), Set.of());
         blog.setDeleted(true);
         blog.setDeletedAt(LocalDateTime.now());
         blog.setDeletedBy(SecurityContextHolder.getContext().getAuthentication().getName());
         blogRepository.save(blog);
+        eventPublisher.publishEvent(BlogChangedEvent.of(blog, null, BlogChangedEvent.Type.DELETED));
+        cacheInvalidator.blogChanged(id, recounted);
     }
 
     // Admin: list all blogs including drafts
     @Transactional(readOnly = true)
     public Page<BlogSummaryResponse> listAllBlogs(Pageable pageable) {
-        return blogRepository.findByDeletedFalse(pageable)
-                .map(this::toBlogSummaryResponse);
+        Page<Blog> page = blogRepository.findByDeletedFalse(pageable);
+        return new PageImpl<>(toBlogSummaryResponses(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<BlogSummaryResponse> scrollAllBlogs(String cursor, int size) {
+        CursorUtils.Position after = CursorUtils.decode(cursor);
+        return toCursorPage(blogRepository.findAllAfter(after.updatedAt(), after.id(), keysetLimit(size)), size);
     }
 
     private void populateBlog(Blog blog, BlogRequest request) {
         blog.setTitle(request.getTitle());
-        blog.setContent(request.getContent());
         blog.setFirstPicture(request.getFirstPicture());
         blog.setFlag(request.getFlag());
         blog.setAppreciation(request.isAppreciation());
@@ -149,8 +300,10 @@ public class BlogService {
         blog.setRecommend(request.isRecommend());
 
         if (request.getTagIds() != null && !request.getTagIds().isEmpty()) {
+            Map<Long, Tag> found = tagRepository.findByIdInAndDeletedFalse(request.getTagIds()).stream()
+                    .collect(Collectors.toMap(Tag::getId, Function.identity()));
             List<Tag> tags = request.getTagIds().stream()
-                    .map(tagId -> tagRepository.findByIdAndDeletedFalse(tagId)
+                    .map(tagId -> Optional.ofNullable(found.get(tagId))
                             .orElseThrow(() -> new ResourceNotFoundException("Tag", tagId)))
                     .collect(Collectors.toList());
             blog.setTags(tags);
@@ -160,28 +313,90 @@ public class BlogService {
     private void setDescription(Blog blog, BlogRequest request) {
         if (request.getDescription() != null && !request.getDescription().isBlank()) {
             blog.setDescription(request.getDescription());
-        } else if (blog.getContent() != null && blog.getContent().length() > 100) {
-            blog.setDescription(blog.getContent().substring(0, 100) + "...");
         } else {
-            blog.setDescription(blog.getContent());
+            blog.setDescription(blog.getExcerpt());
         }
     }
 
+    // Tags whose blogCount includes this post: only published, non-deleted posts are counted
+    private Set<Long> countedTagIds(Blog blog) {
+        if (!blog.isPublished() || blog.isDeleted()) {
+            return Set.of();
+        }
+        return blog.getTags().stream().map(Tag::getId).collect(Collectors.toSet());
+    }
+
+    // Returns the tags whose count changed
+    private Set<Long> adjustTagCounts(Set<Long> before, Set<Long> after) {
+        Set<Long> removed = new HashSet<>(before);
+        removed.removeAll(after);
+        Set<Long> added = new HashSet<>(after);
+        added.removeAll(before);
+        if (!removed.isEmpty()) {
+            tagRepository.adjustBlogCount(removed, -1);
+        }
+        if (!added.isEmpty()) {
+            tagRepository.adjustBlogCount(added, 1);
+        }
+        added.addAll(removed);
+        return added;
+    }
+
+    // The bulk count updates bypass the managed tags; re-read the ones the response embeds
+    private void refreshTags(Blog blog, Set<Long> recounted) {
+        blog.getTags().stream().filter(tag -> recounted.contains(tag.getId())).forEach(entityManager::refresh);
+    }
+
+    // Every post has a content row; a missing one (a half-migrated database) reads as an empty body
+    private BlogContent loadContent(Blog blog) {
+        return blogContentRepository.findById(blog.getId())
+                .orElseGet(() -> BlogContent.builder().blog(blog).build());
+    }
+
+    private void renderContent(Blog blog, BlogContent content) {
+        String hash = MarkdownUtils.contentHash(content.getContent());
+        if (hash != null && hash.equals(content.getContentHash())
+                && Integer.valueOf(MarkdownUtils.RENDERER_VERSION).equals(content.getRendererVersion())) {
+            return;
+        }
+        MarkdownUtils.RenderedContent rendered = contentRenderer.render(content.getContent());
+        if (MarkdownUtils.isLegacyDescription(content.getContent(), blog.getDescription())) {
+            blog.setDescription(rendered.excerpt());
+        }
+        blog.setExcerpt(rendered.excerpt());
+        blog.setWordCount(rendered.wordCount());
+        blog.setReadingMinutes(rendered.readingMinutes());
+        content.setContentHtml(rendered.html());
+        content.setOutline(rendered.outline());
+        content.setImages(rendered.images());
+        content.setContentHash(hash);
+        content.setRendererVersion(MarkdownUtils.RENDERER_VERSION);
+    }
+
+    private boolean isRenderStale(BlogContent content) {
+        return content.getContentHtml() == null
+                || !Integer.valueOf(MarkdownUtils.RENDERER_VERSION).equals(content.getRendererVersion());
+    }
+
     private User getCurrentUser() {
         CustomUserDetails userDetails = (CustomUserDetails) SecurityContextHolder.getContext()
                 .getAuthentication().getPrincipal();
         return userRepository.findById(userDetails.getId()).orElseThrow();
     }
 
-    private BlogResponse toBlogResponse(Blog blog) {
+    private BlogResponse toBlogResponse(Blog blog, BlogContent content) {
         return BlogResponse.builder()
                 .id(blog.getId())
                 .title(blog.getTitle())
-                .content(blog.getContent())
+                .content(content.getContent())
                 .firstPicture(blog.getFirstPicture())
                 .flag(blog.getFlag())
                 .description(blog.getDescription())
                 .views(blog.getViews())
+                .wordCount(blog.getWordCount())
+                .readingMinutes(blog.getReadingMinutes())
+                .outline(toHeadingResponses(content.getOutline()))
+                .images(content.getImages() != null ? content.getImages() : List.of())
                 .appreciation(blog.isAppreciation())
                 .shareStatement(blog.isShareStatement())
                 .commentable(blog.isCommentable())
@@ -194,7 +409,59 @@ public class BlogService {
                 .build();
     }
 
-    private BlogSummaryResponse toBlogSummaryResponse(Blog blog) {
+    // One extra row tells us whether another page exists without a count query
+    private Pageable keysetLimit(int size) {
+        return PageRequest.of(0, clampPageSize(size) + 1);
+    }
+
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+    }
+
+    private CursorPageResponse<BlogSummaryResponse> toCursorPage(List<Blog> rows, int size) {
+        int limit = clampPageSize(size);
+        boolean hasNext = rows.size() > limit;
+        List<Blog> blogs = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            Blog last = blogs.get(blogs.size() - 1);
+            nextCursor = CursorUtils.encode(last.getUpdatedAt(), last.getId());
+        }
+        return CursorPageResponse.<BlogSummaryResponse>builder()
+                .content(toBlogSummaryResponses(blogs))
+                .size(limit)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    private PageResponse<BlogSummaryResponse> toBlogSummaryPage(Page<Blog> page) {
+        return PageResponse.of(new PageImpl<>(toBlogSummaryResponses(page.getContent()), page.getPageable(),
+                page.getTotalElements()));
+    }
+
+    // Resolves tags for the whole batch in one query instead of per row
+    private List<BlogSummaryResponse> toBlogSummaryResponses(List<Blog> blogs) {
+        if (blogs.isEmpty()) {
+            return List.of();
+        }
+        List<Long> blogIds = blogs.stream().map(Blog::getId).collect(Collectors.toList());
+        List<BlogTagView> rows = blogRepository.findTagsByBlogIds(blogIds);
+        Map<Long, List<TagResponse>> tagsByBlog = new HashMap<>();
+        for (BlogTagView row : rows) {
+            tagsByBlog.computeIfAbsent(row.getBlogId(), id -> new ArrayList<>())
+                    .add(TagResponse.builder()
+                            .id(row.getTagId())
+                            .name(row.getTagName())
+                            .blogCount(row.getTagBlogCount())
+                            .build());
+        }
+        return blogs.stream()
+                .map(blog -> toBlogSummaryResponse(blog, tagsByBlog.getOrDefault(blog.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    private BlogSummaryResponse toBlogSummaryResponse(Blog blog, List<TagResponse> tags) {
         return BlogSummaryResponse.builder()
                 .id(blog.getId())
                 .title(blog.getTitle())
@@ -202,19 +469,34 @@ public class BlogService {
                 .flag(blog.getFlag())
                 .description(blog.getDescription())
                 .views(blog.getViews())
+                .wordCount(blog.getWordCount())
+                .readingMinutes(blog.getReadingMinutes())
                 .recommend(blog.isRecommend())
-                .tags(blog.getTags().stream().map(this::toTagResponse).collect(Collectors.toList()))
+                .tags(tags)
                 .user(blog.getUser() != null ? toUserResponse(blog.getUser()) : null)
                 .createdAt(blog.getCreatedAt())
                 .updatedAt(blog.getUpdatedAt())
                 .build();
     }
 
+    private List<HeadingResponse> toHeadingResponses(List<ContentHeading> outline) {
+        if (outline == null) {
+            return List.of();
+        }
+        return outline.stream()
+                .map(heading -> HeadingResponse.builder()
+                        .level(heading.getLevel())
+                        .text(heading.getText())
+                        .anchor(heading.getAnchor())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
     private TagResponse toTagResponse(Tag tag) {
         return TagResponse.builder()
                 .id(tag.getId())
                 .name(tag.getName())
-                .blogCount(tag.getBlogs() != null ? tag.getBlogs().stream().filter(b -> !b.isDeleted()).count() : 0)
+                .blogCount(tag.getBlogCount())
                 .build();
     }
 
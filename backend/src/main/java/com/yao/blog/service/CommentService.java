@@ -1,36 +1,79 @@
 package com.yao.blog.service;
 
+import com.yao.blog.cache.CacheInvalidator;
+import com.yao.blog.cache.CacheNames;
+import com.yao.blog.cache.ExistenceGuard;
 import com.yao.blog.dto.request.CommentRequest;
 import com.yao.blog.dto.response.CommentResponse;
+import com.yao.blog.dto.response.CursorPageResponse;
 import com.yao.blog.entity.Blog;
 import com.yao.blog.entity.Comment;
 import com.yao.blog.exception.ResourceNotFoundException;
 import com.yao.blog.repository.BlogRepository;
 import com.yao.blog.repository.CommentRepository;
+import com.yao.blog.repository.projection.CommentView;
+import com.yao.blog.util.CursorUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CommentService {
 
+    // Replies nested deeper than this are collapsed behind GET /api/comments/{id}/replies
+    private static final int MAX_REPLY_DEPTH = 3;
+    private static final int MAX_CURSOR_PAGE_SIZE = 50;
+    private static final Comparator<CommentView> OLDEST_FIRST =
+            Comparator.comparing(CommentView::getCreatedAt).thenComparing(CommentView::getId);
+
     private final CommentRepository commentRepository;
     private final BlogRepository blogRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final ExistenceGuard existenceGuard;
+    private final CacheManager cacheManager;
 
-    @Transactional(readOnly = true)
+    // No surrounding transaction, so ids the guard rejects never take a connection
     public List<CommentResponse> getCommentsByBlogId(Long blogId) {
-        List<Comment> topLevelComments = commentRepository
-                .findByBlogIdAndParentCommentNullAndDeletedFalseOrderByCreatedAtDesc(blogId);
-        return topLevelComments.stream()
-                .map(this::toResponse)
+        existenceGuard.require(ExistenceGuard.Kind.BLOG, blogId);
+        return cachedTree(blogId);
+    }
+
+    // Top-level threads newest first; each thread is cut off at MAX_REPLY_DEPTH
+    public CursorPageResponse<CommentResponse> scrollThreads(Long blogId, String cursor, int size) {
+        CursorUtils.Position before = CursorUtils.decode(cursor);
+        existenceGuard.require(ExistenceGuard.Kind.BLOG, blogId);
+        List<CommentResponse> threads = cachedTree(blogId).stream()
+                .filter(comment -> isBefore(comment, before))
+                .collect(Collectors.toList());
+        return toCursorPage(threads, size);
+    }
+
+    // Direct replies oldest first, continuing a thread that was collapsed or paged.
+    // No surrounding transaction, so ids the guard rejects never take a connection
+    public CursorPageResponse<CommentResponse> scrollReplies(Long commentId, String cursor, int size) {
+        CursorUtils.Position after = CursorUtils.decode(cursor);
+        existenceGuard.require(ExistenceGuard.Kind.COMMENT, commentId);
+        CommentResponse parent = commentRepository.findLiveBlogId(commentId)
+                .flatMap(blogId -> find(cachedTree(blogId), commentId))
+                .orElseThrow(() -> existenceGuard.missing(ExistenceGuard.Kind.COMMENT, commentId));
+        List<CommentResponse> replies = parent.getReplies().stream()
+                .filter(comment -> after == CursorUtils.FIRST || isAfter(comment, after))
                 .collect(Collectors.toList());
+        return toCursorPage(replies, size);
     }
 
     @Transactional
@@ -61,6 +104,8 @@ public class CommentService {
         }
 
         Comment saved = commentRepository.save(comment);
+        existenceGuard.created(ExistenceGuard.Kind.COMMENT, saved.getId());
+        cacheInvalidator.commentsChanged(blog.getId());
         return toResponse(saved);
     }
 
@@ -72,16 +117,101 @@ public class CommentService {
         comment.setDeletedAt(LocalDateTime.now());
         comment.setDeletedBy(SecurityContextHolder.getContext().getAuthentication().getName());
         commentRepository.save(comment);
+        cacheInvalidator.commentsChanged(comment.getBlog().getId());
     }
 
-    private CommentResponse toResponse(Comment comment) {
-        List<CommentResponse> replies = comment.getReplies() != null
-                ? comment.getReplies().stream()
-                    .filter(r -> !r.isDeleted())
-                    .map(this::toResponse)
-                    .collect(Collectors.toList())
-                : List.of();
+    // The full tree, oldest replies first, shared through the COMMENTS cache with getCommentsByBlogId.
+    // Going through the cache manager rather than this bean's own proxy keeps both on the same entry
+    @SuppressWarnings("unchecked")
+    private List<CommentResponse> cachedTree(Long blogId) {
+        Cache cache = cacheManager.getCache(CacheNames.COMMENTS);
+        return cache == null ? loadTree(blogId) : cache.get(blogId, () -> loadTree(blogId));
+    }
+
+    // Children of deleted comments are never reached from a root, matching the old lazy walk
+    private List<CommentResponse> loadTree(Long blogId) {
+        Map<Long, List<CommentView>> children = new HashMap<>();
+        for (CommentView comment : commentRepository.findViewsByBlogId(blogId)) {
+            children.computeIfAbsent(comment.getParentId(), id -> new ArrayList<>()).add(comment);
+        }
+        children.values().forEach(list -> list.sort(OLDEST_FIRST));
+        return children.getOrDefault(null, List.of()).stream()
+                .sorted(OLDEST_FIRST.reversed())
+                .map(comment -> toResponse(comment, children))
+                .collect(Collectors.toList());
+    }
+
+    private static Optional<CommentResponse> find(List<CommentResponse> comments, Long id) {
+        for (CommentResponse comment : comments) {
+            if (comment.getId().equals(id)) {
+                return Optional.of(comment);
+            }
+            Optional<CommentResponse> found = find(comment.getReplies(), id);
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private CursorPageResponse<CommentResponse> toCursorPage(List<CommentResponse> rows, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        boolean hasNext = rows.size() > limit;
+        List<CommentResponse> page = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            CommentResponse last = page.get(page.size() - 1);
+            nextCursor = CursorUtils.encode(last.getCreatedAt(), last.getId());
+        }
+        return CursorPageResponse.<CommentResponse>builder()
+                .content(page.stream()
+                        .map(comment -> collapse(comment, 0))
+                        .collect(Collectors.toList()))
+                .size(limit)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
 
+    private static boolean isBefore(CommentResponse comment, CursorUtils.Position position) {
+        int cmp = comment.getCreatedAt().compareTo(position.updatedAt());
+        return cmp < 0 || (cmp == 0 && comment.getId() < position.id());
+    }
+
+    private static boolean isAfter(CommentResponse comment, CursorUtils.Position position) {
+        int cmp = comment.getCreatedAt().compareTo(position.updatedAt());
+        return cmp > 0 || (cmp == 0 && comment.getId() > position.id());
+    }
+
+    private CommentResponse toResponse(CommentView comment, Map<Long, List<CommentView>> children) {
+        List<CommentView> replies = children.getOrDefault(comment.getId(), List.of());
+        return CommentResponse.builder()
+                .id(comment.getId())
+                .nickname(comment.getNickname())
+                .email(comment.getEmail())
+                .content(comment.getContent())
+                .avatar(comment.getAvatar())
+                .adminComment(comment.isAdminComment())
+                .createdAt(comment.getCreatedAt())
+                .replies(replies.stream()
+                        .map(reply -> toResponse(reply, children))
+                        .collect(Collectors.toList()))
+                .replyCount(replies.size())
+                .build();
+    }
+
+    // A copy cut off at MAX_REPLY_DEPTH; the cached tree itself is shared and never modified
+    private static CommentResponse collapse(CommentResponse comment, int depth) {
+        boolean collapsed = depth >= MAX_REPLY_DEPTH && !comment.getReplies().isEmpty();
+        return comment.toBuilder()
+                .replies(collapsed ? List.of() : comment.getReplies().stream()
+                        .map(reply -> collapse(reply, depth + 1))
+                        .collect(Collectors.toList()))
+                .hasMoreReplies(collapsed)
+                .build();
+    }
+
+    private CommentResponse toResponse(Comment comment) {
         return CommentResponse.builder()
                 .id(comment.getId())
                 .nickname(comment.getNickname())
@@ -90,7 +220,7 @@ public class CommentService {
                 .avatar(comment.getAvatar())
                 .adminComment(comment.isAdminComment())
                 .createdAt(comment.getCreatedAt())
-                .replies(replies)
+                .replies(List.of())
                 .build();
     }
 }
@@ -0,0 +1,36 @@
+package com.yao.blog.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yao.blog.util.MarkdownUtils;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Renders post content through a cache of per-block fragments, so saving an edit re-renders only the blocks
+ * that changed. Fragments are keyed by the hash of the block's Markdown and shared between posts.
+ */
+@Component
+public class ContentRenderer {
+
+    @Value("${blog.render.fragment-cache.maximum-weight:32MB}")
+    private DataSize maximumWeight;
+
+    private Cache<String, MarkdownUtils.Fragment> fragments;
+
+    @PostConstruct
+    void init() {
+        fragments = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight.toBytes())
+                .weigher((String key, MarkdownUtils.Fragment fragment) ->
+                        2 * (key.length() + fragment.html().length() + fragment.summary().length()))
+                .build();
+    }
+
+    public MarkdownUtils.RenderedContent render(String markdown) {
+        return MarkdownUtils.render(markdown, block ->
+                fragments.get(MarkdownUtils.contentHash(block), hash -> MarkdownUtils.renderFragment(block)));
+    }
+}
@@ -0,0 +1,280 @@
+package com.yao.blog.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yao.blog.cache.CacheInvalidator;
+import com.yao.blog.dto.response.RerenderJobResponse;
+import com.yao.blog.entity.JobCheckpoint;
+import com.yao.blog.repository.BlogRepository;
+import com.yao.blog.repository.JobCheckpointRepository;
+import com.yao.blog.repository.projection.BlogRenderSource;
+import com.yao.blog.util.MarkdownUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Re-renders stored posts after the renderer changes, instead of leaving it to the first read of each post.
+ * Posts are read in id order in chunks, rendered on a small dedicated fork-join pool, and written back with
+ * one JDBC batch per chunk together with a checkpoint, so a stopped or failed run resumes where it left off.
+ * Only the derived columns are written and rows edited since they were read are skipped, so the job never
+ * overwrites an author's save or moves a post in the updatedAt-ordered listings.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RerenderJob {
+
+    static final String NAME = "rerender";
+
+    private static final String BLOG_UPDATE_SQL = "UPDATE t_blog SET excerpt = ?, word_count = ?, reading_minutes = ?, "
+            + "description = ?, version = version + 1 WHERE id = ? AND version = ? AND deleted = false";
+
+    private final BlogRepository blogRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CacheInvalidator cacheInvalidator;
+
+    // 0 = half the cores, leaving the rest to request threads
+    @Value("${blog.render.rerender.parallelism:0}")
+    private int parallelism;
+
+    @Value("${blog.render.rerender.chunk-size:200}")
+    private int chunkSize;
+
+    private ForkJoinPool renderPool;
+    private ExecutorService runner;
+    private volatile Run current;
+
+    private record Rendered(BlogRenderSource source, MarkdownUtils.RenderedContent content, String description,
+                            String outline, String images) {}
+
+    @PostConstruct
+    void init() {
+        int threads = parallelism > 0 ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        renderPool = new ForkJoinPool(threads);
+        runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rerender-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        Run run = current;
+        if (run != null) {
+            run.cancelled = true;
+        }
+        runner.shutdown();
+        renderPool.shutdown();
+    }
+
+    /**
+     * Starts a run in the background, resuming from the checkpoint of an unfinished run with the same
+     * parameters. Returns null if a run is already in progress.
+     */
+    public synchronized RerenderJobResponse start(boolean force) {
+        if (current != null && current.isActive()) {
+            return null;
+        }
+        Run run = new Run(force);
+        current = run;
+        runner.execute(() -> execute(run));
+        return run.toResponse();
+    }
+
+    public RerenderJobResponse status() {
+        Run run = current;
+        return run != null ? run.toResponse() : RerenderJobResponse.builder().state("IDLE").build();
+    }
+
+    public RerenderJobResponse cancel() {
+        Run run = current;
+        if (run != null) {
+            run.cancelled = true;
+        }
+        return status();
+    }
+
+    private void execute(Run run) {
+        try {
+            long afterId = resumeFrom(run.force);
+            run.lastId = afterId;
+            run.total = blogRepository.countRenderTargetsAfterId(afterId, MarkdownUtils.RENDERER_VERSION, run.force);
+            String contentSql = contentUpdateSql();
+            log.info("Re-render started (force={}): {} posts after id {}", run.force, run.total, afterId);
+            List<BlogRenderSource> chunk;
+            do {
+                if (run.cancelled) {
+                    run.state = "CANCELLED";
+                    break;
+                }
+                chunk = blogRepository.findRenderSourcesAfterId(afterId, MarkdownUtils.RENDERER_VERSION, run.force,
+                        PageRequest.of(0, chunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                List<BlogRenderSource> rows = chunk;
+                List<Rendered> rendered = renderPool.submit(() -> rows.parallelStream().map(this::render).toList()).join();
+                afterId = chunk.get(chunk.size() - 1).getId();
+                write(run, contentSql, rendered, afterId);
+            } while (chunk.size() == chunkSize);
+            if (!run.cancelled) {
+                checkpointRepository.deleteById(NAME);
+                run.state = "COMPLETED";
+            }
+        } catch (RuntimeException e) {
+            log.warn("Re-render stopped at id {}: {}", run.lastId, e.getMessage());
+            run.error = e.getMessage();
+            run.state = "FAILED";
+        }
+        run.finish();
+        log.info("Re-render {}: {} of {} posts processed, {} updated, {} skipped, {} posts/s", run.state.toLowerCase(),
+                run.processed, run.total, run.updated, run.skipped, String.format("%.1f", run.postsPerSecond()));
+    }
+
+    private long resumeFrom(boolean force) {
+        JobCheckpoint checkpoint = checkpointRepository.findById(NAME).orElse(null);
+        if (checkpoint != null && checkpoint.isForce() == force
+                && Integer.valueOf(MarkdownUtils.RENDERER_VERSION).equals(checkpoint.getRendererVersion())) {
+            return checkpoint.getLastId();
+        }
+        return 0L;
+    }
+
+    private Rendered render(BlogRenderSource source) {
+        MarkdownUtils.RenderedContent content = MarkdownUtils.render(source.getContent());
+        String description = MarkdownUtils.isLegacyDescription(source.getContent(), source.getDescription())
+                ? content.excerpt() : source.getDescription();
+        try {
+            return new Rendered(source, content, description,
+                    objectMapper.writeValueAsString(content.outline()), objectMapper.writeValueAsString(content.images()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outline of blog " + source.getId(), e);
+        }
+    }
+
+    private void write(Run run, String contentSql, List<Rendered> rendered, long lastId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // The version check on t_blog decides which rows were edited since they were read; only the
+            // rows it let through get their content row rewritten, under the lock it took
+            int[][] counts = jdbcTemplate.batchUpdate(BLOG_UPDATE_SQL, rendered, rendered.size(), (ps, row) -> {
+                ps.setString(1, row.content().excerpt());
+                ps.setInt(2, row.content().wordCount());
+                ps.setInt(3, row.content().readingMinutes());
+                ps.setString(4, row.description());
+                ps.setLong(5, row.source().getId());
+                ps.setLong(6, row.source().getVersion());
+            });
+            List<Rendered> written = new ArrayList<>();
+            int index = 0;
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                        written.add(rendered.get(index));
+                    }
+                    index++;
+                }
+            }
+            jdbcTemplate.batchUpdate(contentSql, written, Math.max(1, written.size()), (ps, row) -> {
+                ps.setString(1, row.content().html());
+                ps.setString(2, row.outline());
+                ps.setString(3, row.images());
+                ps.setString(4, MarkdownUtils.contentHash(row.source().getContent()));
+                ps.setInt(5, MarkdownUtils.RENDERER_VERSION);
+                ps.setLong(6, row.source().getId());
+            });
+            List<Long> updatedIds = written.stream().map(row -> row.source().getId()).toList();
+            checkpointRepository.save(JobCheckpoint.builder()
+                    .name(NAME)
+                    .lastId(lastId)
+                    .rendererVersion(MarkdownUtils.RENDERER_VERSION)
+                    .force(run.force)
+                    .updatedAt(LocalDateTime.now())
+                    .build());
+            cacheInvalidator.blogsRendered(updatedIds);
+            run.updated += updatedIds.size();
+            run.skipped += rendered.size() - updatedIds.size();
+        });
+        run.processed += rendered.size();
+        run.lastId = lastId;
+    }
+
+    // Outline and images are JSON columns, and each database wants a string bound to one differently
+    private String contentUpdateSql() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        String json = "H2".equals(product) ? "? FORMAT JSON" : "CAST(? AS jsonb)";
+        return "UPDATE t_blog_content SET content_html = ?, outline = " + json + ", images = " + json + ", "
+                + "content_hash = ?, renderer_version = ? WHERE blog_id = ?";
+    }
+
+    private static final class Run {
+
+        private final boolean force;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private volatile String state = "RUNNING";
+        private volatile boolean cancelled;
+        private volatile long total;
+        private volatile long processed;
+        private volatile long updated;
+        private volatile long skipped;
+        private volatile long lastId;
+        private volatile LocalDateTime finishedAt;
+        private volatile long elapsedNanos;
+        private volatile String error;
+
+        Run(boolean force) {
+            this.force = force;
+        }
+
+        boolean isActive() {
+            return "RUNNING".equals(state);
+        }
+
+        void finish() {
+            elapsedNanos = System.nanoTime() - startNanos;
+            finishedAt = LocalDateTime.now();
+        }
+
+        double postsPerSecond() {
+            double seconds = (finishedAt != null ? elapsedNanos : System.nanoTime() - startNanos) / 1e9;
+            return seconds > 0 ? processed / seconds : 0;
+        }
+
+        RerenderJobResponse toResponse() {
+            return RerenderJobResponse.builder()
+                    .state(state)
+                    .force(force)
+                    .rendererVersion(MarkdownUtils.RENDERER_VERSION)
+                    .total(total)
+                    .processed(processed)
+                    .updated(updated)
+                    .skipped(skipped)
+                    .lastId(lastId)
+                    .postsPerSecond(postsPerSecond())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.yao.blog.service;
 
+import com.yao.blog.cache.CacheInvalidator;
+import com.yao.blog.cache.CacheNames;
+import com.yao.blog.cache.ExistenceGuard;
 import com.yao.blog.dto.request.TagRequest;
 import com.yao.blog.dto.response.TagResponse;
 import com.yao.blog.entity.Tag;
@@ -7,9 +10,12 @@ import com.yao.blog.exception.DuplicateResourceException;
 import com.yao.blog.exception.ResourceNotFoundException;
 import com.yao.blog.repository.TagRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,9 +26,12 @@ import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class TagService {
 
     private final TagRepository tagRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final ExistenceGuard existenceGuard;
 
     @Transactional(readOnly = true)
     public Page<TagResponse> listTags(Pageable pageable) {
@@ -30,6 +39,7 @@ public class TagService {
                 .map(this::toResponse);
     }
 
+    @Cacheable(cacheNames = CacheNames.TAGS, key = "'all'", sync = true)
     @Transactional(readOnly = true)
     public List<TagResponse> listAllTags() {
         return tagRepository.findByDeletedFalse().stream()
@@ -37,6 +47,7 @@ public class TagService {
                 .collect(Collectors.toList());
     }
 
+    @Cacheable(cacheNames = CacheNames.TOP_TAGS, key = "#size", sync = true)
     @Transactional(readOnly = true)
     public List<TagResponse> listTopTags(int size) {
         return tagRepository.findTopTags(PageRequest.of(0, size)).stream()
@@ -44,10 +55,12 @@ public class TagService {
                 .collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
+    // No surrounding transaction, so ids the guard rejects never take a connection
+    @Cacheable(cacheNames = CacheNames.TAG, key = "#id", sync = true)
     public TagResponse getTag(Long id) {
+        existenceGuard.require(ExistenceGuard.Kind.TAG, id);
         Tag tag = tagRepository.findByIdAndDeletedFalse(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Tag", id));
+                .orElseThrow(() -> existenceGuard.missing(ExistenceGuard.Kind.TAG, id));
         return toResponse(tag);
     }
 
@@ -57,7 +70,10 @@ public class TagService {
                 .ifPresent(t -> { throw new DuplicateResourceException("Tag already exists: " + request.getName()); });
 
         Tag tag = Tag.builder().name(request.getName()).build();
-        return toResponse(tagRepository.save(tag));
+        TagResponse response = toResponse(tagRepository.save(tag));
+        existenceGuard.created(ExistenceGuard.Kind.TAG, response.getId());
+        cacheInvalidator.tagCreated();
+        return response;
     }
 
     @Transactional
@@ -70,7 +86,9 @@ public class TagService {
                 .ifPresent(t -> { throw new DuplicateResourceException("Tag already exists: " + request.getName()); });
 
         tag.setName(request.getName());
-        return toResponse(tagRepository.save(tag));
+        TagResponse response = toResponse(tagRepository.save(tag));
+        cacheInvalidator.tagChanged(id);
+        return response;
     }
 
     @Transactional
@@ -81,13 +99,26 @@ public class TagService {
         tag.setDeletedAt(LocalDateTime.now());
         tag.setDeletedBy(SecurityContextHolder.getContext().getAuthentication().getName());
         tagRepository.save(tag);
+        cacheInvalidator.tagChanged(id);
+    }
+
+    // Repairs any drift in the maintained counters, e.g. from rows written outside BlogService
+    @Scheduled(cron = "${blog.tags.reconcile-cron:0 30 3 * * *}")
+    @Transactional
+    public int reconcileBlogCounts() {
+        int fixed = tagRepository.reconcileBlogCounts();
+        if (fixed > 0) {
+            log.info("Reconciled blog counts for {} tags", fixed);
+            cacheInvalidator.allTagsChanged();
+        }
+        return fixed;
     }
 
     private TagResponse toResponse(Tag tag) {
         return TagResponse.builder()
                 .id(tag.getId())
                 .name(tag.getName())
-                .blogCount(tag.getBlogs() != null ? tag.getBlogs().stream().filter(b -> !b.isDeleted()).count() : 0)
+                .blogCount(tag.getBlogCount())
                 .build();
     }
 }
@@ -0,0 +1,231 @@
+package com.yao.blog.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yao.blog.cache.ChangeSequence;
+import com.yao.blog.util.StripedCounter;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Write-behind view counter. Views are collected in memory and flushed to t_blog as one
+ * JDBC batch per interval, optionally buffered in a Redis hash shared by all nodes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ViewCountService {
+
+    static final String REDIS_PENDING_KEY = "blog:views:pending";
+    // Claims are named REDIS_PENDING_KEY:<claimed at, epoch millis>:<uuid>
+    static final String CLAIM_PREFIX = REDIS_PENDING_KEY + ":";
+    // A claim is read and deleted within one flush; one this old was left by a failed or killed node
+    private static final Duration ORPHANED_CLAIM_AGE = Duration.ofMinutes(1);
+    // Adds a claimed hash back into the buffer and deletes it, atomically so no count is merged twice
+    private static final RedisScript<Long> MERGE_CLAIM = new DefaultRedisScript<>(
+            "local entries = redis.call('hgetall', KEYS[1]) "
+                    + "for i = 1, #entries, 2 do redis.call('hincrby', KEYS[2], entries[i], entries[i + 1]) end "
+                    + "redis.call('del', KEYS[1]) return #entries / 2",
+            Long.class);
+    private static final String UPDATE_SQL = "UPDATE t_blog SET views = views + ? WHERE id = ?";
+    private static final String SELECT_SQL = "SELECT views FROM t_blog WHERE id = ? AND deleted = false";
+    // About one flush interval: other nodes' flushes show up in the stored count within that time
+    private static final Duration STORED_TTL = Duration.ofSeconds(5);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final ChangeSequence changeSequence;
+    private final StripedCounter counter = new StripedCounter(32);
+    // Stored counts read by views(); this node's flushes add their deltas instead of invalidating
+    private final Cache<Long, Long> stored = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(STORED_TTL)
+            .build();
+
+    @Value("${blog.views.redis-buffer:false}")
+    private boolean redisBuffer;
+
+    public void increment(Long blogId) {
+        counter.add(blogId, 1);
+    }
+
+    /**
+     * The up-to-date total, stored count plus pending views, or null if the blog does not exist. Spliced into
+     * the cached blog detail on every read rather than cached with it.
+     */
+    public Long views(Long blogId) {
+        Long base = storedViews(blogId);
+        return base == null ? null : base + pending(blogId);
+    }
+
+    /**
+     * The count as last flushed to the database, or null if the blog does not exist. Changes once per flush
+     * rather than once per view, so it can be part of a validator.
+     */
+    public Long storedViews(Long blogId) {
+        return stored.get(blogId, id -> jdbcTemplate.query(SELECT_SQL, rs -> rs.next() ? rs.getLong(1) : null, id));
+    }
+
+    /**
+     * Views recorded but not yet written to the database.
+     */
+    public long pending(Long blogId) {
+        long pending = counter.get(blogId);
+        if (redisBuffer) {
+            try {
+                Object buffered = redisTemplate.opsForHash().get(REDIS_PENDING_KEY, blogId.toString());
+                if (buffered != null) {
+                    pending += Long.parseLong(buffered.toString());
+                }
+            } catch (RuntimeException e) {
+                log.debug("Redis view buffer unavailable: {}", e.getMessage());
+            }
+        }
+        return pending;
+    }
+
+    @Scheduled(fixedDelayString = "${blog.views.flush-interval:5000}")
+    public void flush() {
+        Map<Long, Long> deltas = counter.drain();
+        if (redisBuffer) {
+            deltas = pushToRedis(deltas);
+            if (deltas.isEmpty()) {
+                deltas = drainRedis();
+            }
+        }
+        writeToDatabase(deltas);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Returns counts claimed by a node that failed before writing them back into the shared buffer, where the
+     * next flush picks them up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOrphanedClaims() {
+        if (!redisBuffer) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - ORPHANED_CLAIM_AGE.toMillis();
+        ScanOptions options = ScanOptions.scanOptions().match(CLAIM_PREFIX + "*").count(100).build();
+        try (Cursor<String> claims = redisTemplate.scan(options)) {
+            while (claims.hasNext()) {
+                String claimedKey = claims.next();
+                if (claimedAt(claimedKey) < cutoff) {
+                    log.info("Returning orphaned view counts {} to the buffer", claimedKey);
+                    returnClaim(claimedKey);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not recover orphaned view counts: {}", e.getMessage());
+        }
+    }
+
+    private void writeToDatabase(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> batch.add(new Object[]{delta, id}));
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+            deltas.forEach((id, delta) -> stored.asMap().computeIfPresent(id, (key, views) -> views + delta));
+            // List bodies carry view counts, so their validators move with each flush too
+            changeSequence.advance();
+            log.debug("Flushed views for {} blogs", deltas.size());
+        } catch (RuntimeException e) {
+            // Put the deltas back so the next flush retries them
+            deltas.forEach(counter::add);
+            log.warn("Failed to flush view counts, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the deltas that could not be buffered in Redis and must be written directly.
+     */
+    private Map<Long, Long> pushToRedis(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return deltas;
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                byte[] key = REDIS_PENDING_KEY.getBytes(StandardCharsets.UTF_8);
+                deltas.forEach((id, delta) -> connection.hashCommands().hIncrBy(key, id.toString().getBytes(StandardCharsets.UTF_8), delta));
+                return null;
+            });
+            return Map.of();
+        } catch (RuntimeException e) {
+            log.warn("Redis view buffer unavailable, writing directly: {}", e.getMessage());
+            return deltas;
+        }
+    }
+
+    private Map<Long, Long> drainRedis() {
+        // RENAME is atomic, so exactly one node takes ownership of the buffered counts
+        String claimedKey = CLAIM_PREFIX + System.currentTimeMillis() + ":" + UUID.randomUUID();
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.renameIfAbsent(REDIS_PENDING_KEY, claimedKey))) {
+                return Map.of();
+            }
+        } catch (RuntimeException e) {
+            // Key does not exist (nothing buffered) or Redis is down
+            return Map.of();
+        }
+        try {
+            Map<Object, Object> entries = redisTemplate.opsForHash().entries(claimedKey);
+            redisTemplate.delete(claimedKey);
+            Map<Long, Long> deltas = new HashMap<>();
+            entries.forEach((id, delta) -> deltas.put(Long.valueOf(id.toString()), Long.valueOf(delta.toString())));
+            return deltas;
+        } catch (RuntimeException e) {
+            // Nothing is written from a claim that was not deleted; its counts go back for the next flush
+            log.warn("Failed to drain the Redis view buffer, returning the claim: {}", e.getMessage());
+            returnClaim(claimedKey);
+            return Map.of();
+        }
+    }
+
+    // A claim that cannot be returned now stays under its name until recoverOrphanedClaims finds it
+    private void returnClaim(String claimedKey) {
+        try {
+            redisTemplate.execute(MERGE_CLAIM, List.of(claimedKey, REDIS_PENDING_KEY));
+        } catch (RuntimeException e) {
+            log.warn("Could not return view counts {} to the buffer: {}", claimedKey, e.getMessage());
+        }
+    }
+
+    // Claims without a parseable time, e.g. from before claims carried one, count as orphaned
+    private static long claimedAt(String claimedKey) {
+        String[] parts = claimedKey.substring(CLAIM_PREFIX.length()).split(":");
+        try {
+            return Long.parseLong(parts[0]);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.yao.blog.util;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * A single value recomputed at most once per TTL. Readers may see a value up to one TTL old.
+ */
+public class CachedValue<T> {
+
+    private final long ttlNanos;
+    private volatile T value;
+    private volatile long loadedAt;
+
+    public CachedValue(Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public T get(Supplier<T> loader) {
+        T current = value;
+        if (current != null && System.nanoTime() - loadedAt < ttlNanos) {
+            return current;
+        }
+        synchronized (this) {
+            if (value == null || System.nanoTime() - loadedAt >= ttlNanos) {
+                value = loader.get();
+                loadedAt = System.nanoTime();
+            }
+            return value;
+        }
+    }
+
+    public void invalidate() {
+        value = null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.yao.blog.util;
+
+import com.yao.blog.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursors over (timestamp, id): updatedAt for blog listings, createdAt for comment threads.
+ */
+public final class CursorUtils {
+
+    public record Position(LocalDateTime updatedAt, Long id) {}
+
+    // Sorts after every real row, so the first page uses the same keyset query as the rest
+    public static final Position FIRST = new Position(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private static final char SEPARATOR = '|';
+
+    private CursorUtils() {}
+
+    public static String encode(LocalDateTime updatedAt, Long id) {
+        String raw = updatedAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Position decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            return new Position(LocalDateTime.parse(raw.substring(0, split)), Long.valueOf(raw.substring(split + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.yao.blog.util;
+
+import com.yao.blog.repository.projection.BlogVersion;
+
+import java.time.ZoneId;
+
+/**
+ * Validators for conditional GETs. A blog's HTML is validated by its row version and the Markdown renderer;
+ * the detail also embeds tag names and counts, which change without touching the row, so its ETag carries
+ * the embedded tags' versions as well. The detail's view count is validated at the flushed count only,
+ * which makes that ETag weak: views still pending may differ from the body that was validated. List
+ * endpoints share one weak ETag that moves with every content write and view flush. Responses served in
+ * several content codings carry the coding in the ETag, since each coding is a different body.
+ */
+public final class EtagUtils {
+
+    private EtagUtils() {}
+
+    public static String blogEtag(BlogVersion version, long storedViews) {
+        return "W/\"b" + version.id() + "-" + version.version() + "-r" + MarkdownUtils.RENDERER_VERSION
+                + "-t" + version.tagsVersion() + "-v" + storedViews + "\"";
+    }
+
+    public static String htmlEtag(BlogVersion version) {
+        return "\"h" + version.id() + "-" + version.version() + "-r" + MarkdownUtils.RENDERER_VERSION + "\"";
+    }
+
+    public static long lastModified(BlogVersion version) {
+        return version.updatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public static String listEtag(long changeSequence) {
+        return "W/\"s" + changeSequence + "\"";
+    }
+
+    public static String withCoding(String etag, String coding) {
+        String suffix = switch (coding) {
+            case "gzip" -> "-gz";
+            case "br" -> "-br";
+            default -> "";
+        };
+        return etag.substring(0, etag.length() - 1) + suffix + "\"";
+    }
+}
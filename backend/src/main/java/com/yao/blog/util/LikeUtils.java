@@ -0,0 +1,24 @@
+package com.yao.blog.util;
+
+/**
+ * Builds LIKE patterns from user input. Queries using them must declare {@code ESCAPE '!'}.
+ */
+public final class LikeUtils {
+
+    public static final char ESCAPE = '!';
+
+    private LikeUtils() {}
+
+    // Matches the input as a literal substring: its own % and _ are not wildcards
+    public static String contains(String value) {
+        StringBuilder pattern = new StringBuilder(value.length() + 2).append('%');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                pattern.append(ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
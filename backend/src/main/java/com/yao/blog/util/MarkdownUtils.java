@@ -1,38 +1,408 @@
 package com.yao.blog.util;
 
+import com.yao.blog.entity.ContentHeading;
 import org.commonmark.Extension;
 import org.commonmark.ext.gfm.tables.TablesExtension;
 import org.commonmark.ext.heading.anchor.HeadingAnchorExtension;
+import org.commonmark.ext.heading.anchor.IdGenerator;
+import org.commonmark.node.AbstractVisitor;
+import org.commonmark.node.Code;
+import org.commonmark.node.FencedCodeBlock;
+import org.commonmark.node.HardLineBreak;
+import org.commonmark.node.Heading;
+import org.commonmark.node.Image;
+import org.commonmark.node.IndentedCodeBlock;
 import org.commonmark.node.Node;
+import org.commonmark.node.Paragraph;
+import org.commonmark.node.SoftLineBreak;
+import org.commonmark.node.Text;
 import org.commonmark.parser.Parser;
 import org.commonmark.renderer.html.HtmlRenderer;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Renders post Markdown block by block. Content is split into top-level blocks, each block is rendered on its
+ * own into a {@link Fragment}, and the fragments are joined; callers that cache fragments only re-render the
+ * blocks an edit touched. Heading ids depend on every heading before them, so fragments carry a placeholder
+ * that is replaced with the same ids HeadingAnchorExtension would generate once the whole document is known.
+ */
 public final class MarkdownUtils {
 
+    /**
+     * Bump whenever extensions or renderer options change so stored HTML is re-rendered on next read.
+     */
+    public static final int RENDERER_VERSION = 2;
+
+    public static final int EXCERPT_LENGTH = 100;
+
+    private static final int WORDS_PER_MINUTE = 200;
+    // CJK text is counted per character and read faster per unit than words
+    private static final int CJK_CHARACTERS_PER_MINUTE = 400;
+
+    // The parser turns NUL in the input into U+FFFD, so rendered content can never contain it
+    private static final String ANCHOR_PLACEHOLDER = "\u0000";
+    private static final String ANCHOR_ATTRIBUTE = "id=\"" + ANCHOR_PLACEHOLDER + "\"";
+
+    private static final List<Extension> EXTENSIONS = List.of(TablesExtension.create());
+
+    // Parser and HtmlRenderer are immutable and thread-safe once built
+    private static final Parser PARSER = Parser.builder()
+            .extensions(EXTENSIONS)
+            .build();
+
+    private static final HtmlRenderer RENDERER = HtmlRenderer.builder()
+            .extensions(EXTENSIONS)
+            .attributeProviderFactory(context -> (node, tagName, attributes) -> {
+                if (node instanceof Heading) {
+                    attributes.put("id", ANCHOR_PLACEHOLDER);
+                }
+            })
+            .build();
+
+    // Whole-document rendering for output that is streamed and never stored; same HTML as joined fragments
+    private static final HtmlRenderer STREAMING_RENDERER = HtmlRenderer.builder()
+            .extensions(List.of(TablesExtension.create(), HeadingAnchorExtension.create()))
+            .build();
+
+    private static final Pattern FENCE = Pattern.compile("^ {0,3}(`{3,}|~{3,})");
+    private static final Pattern LIST_ITEM = Pattern.compile("^(?:[-*+]|\\d{1,9}[.)])(?:\\s|$)");
+    // Reference definitions apply to the whole document, which rules out rendering blocks separately
+    private static final Pattern LINK_REFERENCE = Pattern.compile("^ {0,3}\\[(?:[^\\]\\\\]|\\\\.)+]:", Pattern.MULTILINE);
+    // HTML blocks that, unlike the other kinds, may contain blank lines; group i ends at HTML_BLOCK_END[i - 1]
+    private static final Pattern HTML_BLOCK_START = Pattern.compile(
+            "^ {0,3}(?:(<(?:script|pre|style|textarea)(?:\\s|>|$))|(<!--)|(<\\?)|(<![A-Za-z])|(<!\\[CDATA\\[))",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern[] HTML_BLOCK_END = {
+            Pattern.compile("</(?:script|pre|style|textarea)>", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("-->"),
+            Pattern.compile("\\?>"),
+            Pattern.compile(">"),
+            Pattern.compile("]]>")
+    };
+
     private MarkdownUtils() {}
 
+    /**
+     * Everything derived from a post's Markdown.
+     */
+    public record RenderedContent(String html, String excerpt, int wordCount, int readingMinutes,
+                                  List<ContentHeading> outline, List<String> images) {
+
+        static final RenderedContent EMPTY = new RenderedContent("", "", 0, 0, List.of(), List.of());
+    }
+
+    /**
+     * One rendered top-level block. Headings have no anchor yet and their ids in {@code html} are placeholders.
+     */
+    public record Fragment(String html, String summary, int latinWords, int cjkCharacters,
+                           List<ContentHeading> headings, List<String> images) {}
+
     public static String markdownToHtml(String markdown) {
+        return render(markdown).html();
+    }
+
+    public static RenderedContent render(String markdown) {
+        return render(markdown, MarkdownUtils::renderFragment);
+    }
+
+    /**
+     * Renders straight into {@code out} without building the HTML as a string.
+     */
+    public static void renderTo(String markdown, Appendable out) {
+        if (markdown == null || markdown.isBlank()) {
+            return;
+        }
+        STREAMING_RENDERER.render(PARSER.parse(markdown), out);
+    }
+
+    /**
+     * Renders through {@code fragments}, which may answer from a cache keyed by block content.
+     */
+    public static RenderedContent render(String markdown, Function<String, Fragment> fragments) {
         if (markdown == null || markdown.isBlank()) {
-            return "";
+            return RenderedContent.EMPTY;
+        }
+        List<Fragment> rendered = new ArrayList<>();
+        for (String block : splitBlocks(markdown)) {
+            rendered.add(fragments.apply(block));
+        }
+        return assemble(rendered);
+    }
+
+    /**
+     * Splits at blank lines that CommonMark treats as a hard boundary between top-level blocks, so rendering
+     * the blocks one by one gives the same HTML as rendering the whole document. Blank lines inside fenced
+     * code, multi-line HTML blocks and lists do not split; documents with link reference definitions stay whole.
+     */
+    public static List<String> splitBlocks(String markdown) {
+        if (LINK_REFERENCE.matcher(markdown).find()) {
+            return List.of(markdown);
+        }
+        List<String> blocks = new ArrayList<>();
+        int blockStart = 0;
+        int position = 0;
+        boolean afterBlank = false;
+        String fence = null;
+        Pattern htmlEnd = null;
+        while (position < markdown.length()) {
+            int newline = markdown.indexOf('\n', position);
+            int lineEnd = newline < 0 ? markdown.length() : newline;
+            String line = markdown.substring(position, lineEnd);
+            if (fence != null) {
+                if (closesFence(line, fence)) {
+                    fence = null;
+                }
+            } else if (htmlEnd != null) {
+                if (htmlEnd.matcher(line).find()) {
+                    htmlEnd = null;
+                }
+            } else if (line.isBlank()) {
+                afterBlank = true;
+            } else {
+                if (afterBlank && startsTopLevelBlock(line)) {
+                    blocks.add(markdown.substring(blockStart, position));
+                    blockStart = position;
+                }
+                afterBlank = false;
+                Matcher fenceMatcher = FENCE.matcher(line);
+                Matcher htmlMatcher = HTML_BLOCK_START.matcher(line);
+                if (fenceMatcher.find()) {
+                    fence = fenceMatcher.group(1);
+                } else if (htmlMatcher.find()) {
+                    Pattern end = HTML_BLOCK_END[firstMatchedGroup(htmlMatcher) - 1];
+                    if (!end.matcher(line.substring(htmlMatcher.end())).find()) {
+                        htmlEnd = end;
+                    }
+                }
+            }
+            position = newline < 0 ? markdown.length() : newline + 1;
+        }
+        blocks.add(markdown.substring(blockStart));
+        return blocks;
+    }
+
+    public static Fragment renderFragment(String block) {
+        Node document = PARSER.parse(block);
+        ContentCollector collector = new ContentCollector();
+        document.accept(collector);
+        return new Fragment(RENDERER.render(document), collector.summary.toString(), collector.latinWords,
+                collector.cjkCharacters, List.copyOf(collector.headings), List.copyOf(collector.images));
+    }
+
+    /**
+     * Joins fragments in document order, assigning heading ids across the whole document.
+     */
+    public static RenderedContent assemble(List<Fragment> fragments) {
+        // Same generator settings as HeadingAnchorExtension.create()
+        IdGenerator ids = IdGenerator.builder().defaultId("id").build();
+        StringBuilder html = new StringBuilder();
+        StringBuilder summary = new StringBuilder();
+        List<ContentHeading> outline = new ArrayList<>();
+        List<String> images = new ArrayList<>();
+        int latinWords = 0;
+        int cjkCharacters = 0;
+        for (Fragment fragment : fragments) {
+            String fragmentHtml = fragment.html();
+            int copied = 0;
+            for (ContentHeading heading : fragment.headings()) {
+                String anchor = ids.generateId(heading.getText().toLowerCase(Locale.ROOT));
+                int placeholder = fragmentHtml.indexOf(ANCHOR_ATTRIBUTE, copied);
+                html.append(fragmentHtml, copied, placeholder).append("id=\"").append(anchor).append('"');
+                copied = placeholder + ANCHOR_ATTRIBUTE.length();
+                outline.add(new ContentHeading(heading.getLevel(), heading.getText(), anchor));
+            }
+            html.append(fragmentHtml, copied, fragmentHtml.length());
+            if (summary.length() < EXCERPT_LENGTH * 2) {
+                summary.append(fragment.summary());
+            }
+            latinWords += fragment.latinWords();
+            cjkCharacters += fragment.cjkCharacters();
+            images.addAll(fragment.images());
+        }
+        return new RenderedContent(html.toString(), excerpt(summary), latinWords + cjkCharacters,
+                readingMinutes(latinWords, cjkCharacters), outline, images);
+    }
+
+    /**
+     * True if {@code description} is what was generated before excerpts existed: the first 100 characters of raw Markdown.
+     */
+    public static boolean isLegacyDescription(String markdown, String description) {
+        if (markdown == null || description == null) {
+            return false;
+        }
+        return description.equals(markdown.length() > 100 ? markdown.substring(0, 100) + "..." : markdown);
+    }
+
+    public static String contentHash(String markdown) {
+        if (markdown == null) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(markdown.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
+    }
+
+    // Cut on a word boundary where there is one nearby; CJK text has none and is cut at the limit
+    static String excerpt(CharSequence text) {
+        String plain = text.toString().replaceAll("\\s+", " ").trim();
+        if (plain.length() <= EXCERPT_LENGTH) {
+            return plain;
+        }
+        int cut = plain.lastIndexOf(' ', EXCERPT_LENGTH);
+        if (cut < EXCERPT_LENGTH * 3 / 5) {
+            cut = EXCERPT_LENGTH;
+        }
+        return plain.substring(0, cut).stripTrailing() + "...";
+    }
+
+    private static boolean startsTopLevelBlock(String line) {
+        // Indented lines continue the previous block, and list items continue the previous list
+        return !Character.isWhitespace(line.charAt(0)) && !LIST_ITEM.matcher(line).find();
+    }
+
+    private static boolean closesFence(String line, String fence) {
+        String trimmed = line.strip();
+        if (line.length() - line.stripLeading().length() > 3 || trimmed.length() < fence.length()) {
+            return false;
+        }
+        return trimmed.chars().allMatch(c -> c == fence.charAt(0));
+    }
+
+    private static int firstMatchedGroup(Matcher matcher) {
+        for (int group = 1; group <= matcher.groupCount(); group++) {
+            if (matcher.group(group) != null) {
+                return group;
+            }
+        }
+        throw new IllegalStateException("No HTML block kind matched");
+    }
+
+    private static int readingMinutes(int latinWords, int cjkCharacters) {
+        if (latinWords + cjkCharacters == 0) {
+            return 0;
+        }
+        double minutes = (double) latinWords / WORDS_PER_MINUTE + (double) cjkCharacters / CJK_CHARACTERS_PER_MINUTE;
+        return Math.max(1, (int) Math.ceil(minutes));
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL;
+    }
+
+    /**
+     * Walks a parsed block once, collecting prose for the excerpt and word count, headings and images.
+     * Code blocks are not prose and count towards neither; heading text counts as words but stays out of the excerpt.
+     */
+    private static final class ContentCollector extends AbstractVisitor {
 
-        List<Extension> extensions = List.of(
-                TablesExtension.create(),
-                HeadingAnchorExtension.create()
-        );
+        private final StringBuilder summary = new StringBuilder();
+        private final List<ContentHeading> headings = new ArrayList<>();
+        private final List<String> images = new ArrayList<>();
+        private int latinWords;
+        private int cjkCharacters;
+        private boolean inParagraph;
+        private boolean inWord;
 
-        Parser parser = Parser.builder()
-                .extensions(extensions)
-                .build();
+        @Override
+        public void visit(Heading heading) {
+            // Text and inline code only, as HeadingAnchorExtension reads it
+            StringBuilder text = new StringBuilder();
+            heading.accept(new AbstractVisitor() {
+                @Override
+                public void visit(Text node) {
+                    text.append(node.getLiteral());
+                }
 
-        Node document = parser.parse(markdown);
+                @Override
+                public void visit(Code node) {
+                    text.append(node.getLiteral());
+                }
+            });
+            String title = text.toString().trim();
+            headings.add(new ContentHeading(heading.getLevel(), title, null));
+            count(title);
+            inWord = false;
+        }
+
+        @Override
+        public void visit(Paragraph paragraph) {
+            inParagraph = summary.length() < EXCERPT_LENGTH * 2;
+            visitChildren(paragraph);
+            append(" ");
+            inParagraph = false;
+        }
+
+        @Override
+        public void visit(Text text) {
+            append(text.getLiteral());
+        }
 
-        HtmlRenderer renderer = HtmlRenderer.builder()
-                .extensions(extensions)
-                .build();
+        @Override
+        public void visit(Code code) {
+            append(code.getLiteral());
+        }
+
+        @Override
+        public void visit(SoftLineBreak softLineBreak) {
+            append(" ");
+        }
+
+        @Override
+        public void visit(HardLineBreak hardLineBreak) {
+            append(" ");
+        }
 
-        return renderer.render(document);
+        @Override
+        public void visit(Image image) {
+            images.add(image.getDestination());
+        }
+
+        @Override
+        public void visit(FencedCodeBlock codeBlock) {
+        }
+
+        @Override
+        public void visit(IndentedCodeBlock codeBlock) {
+        }
+
+        private void append(String text) {
+            if (inParagraph) {
+                summary.append(text);
+            }
+            count(text);
+        }
+
+        private void count(String text) {
+            for (int i = 0; i < text.length(); ) {
+                int codePoint = text.codePointAt(i);
+                if (isCjk(codePoint)) {
+                    cjkCharacters++;
+                    inWord = false;
+                } else if (Character.isLetterOrDigit(codePoint)) {
+                    if (!inWord) {
+                        latinWords++;
+                    }
+                    inWord = true;
+                } else if (codePoint != '\'' && codePoint != '-') {
+                    inWord = false;
+                }
+                i += Character.charCount(codePoint);
+            }
+        }
     }
 }
@@ -0,0 +1,65 @@
+package com.yao.blog.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-key counters split across independently locked stripes, so increments for
+ * different keys rarely contend and {@link #drain()} never loses a concurrent increment.
+ */
+public class StripedCounter {
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    public StripedCounter(int concurrency) {
+        int size = Integer.highestOneBit(Math.max(1, concurrency - 1) << 1);
+        this.stripes = new Stripe[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public void add(Long key, long delta) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.counts.merge(key, delta, Long::sum);
+        }
+    }
+
+    public long get(Long key) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.counts.getOrDefault(key, 0L);
+        }
+    }
+
+    /**
+     * Atomically takes every pending count and resets the counter.
+     */
+    public Map<Long, Long> drain() {
+        Map<Long, Long> drained = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            Map<Long, Long> taken;
+            synchronized (stripe) {
+                if (stripe.counts.isEmpty()) {
+                    continue;
+                }
+                taken = stripe.counts;
+                stripe.counts = new HashMap<>();
+            }
+            drained.putAll(taken);
+        }
+        return drained;
+    }
+
+    private Stripe stripeFor(Long key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+
+    private static final class Stripe {
+        private Map<Long, Long> counts = new HashMap<>();
+    }
+}
@@ -0,0 +1,102 @@
+-- The H2 twin of postgresql/V1__baseline.sql, for the tests. Keep the two in step.
+
+CREATE TABLE t_user (
+    id            bigint       GENERATED BY DEFAULT AS IDENTITY,
+    username      varchar(255) NOT NULL,
+    password      varchar(255) NOT NULL,
+    nickname      varchar(255) NOT NULL,
+    email         varchar(255),
+    avatar        varchar(255),
+    role          varchar(255) NOT NULL,
+    created_at    timestamp(6) NOT NULL,
+    updated_at    timestamp(6) NOT NULL,
+    created_by    varchar(255),
+    updated_by    varchar(255),
+    deleted       boolean      NOT NULL,
+    deleted_at    timestamp(6),
+    deleted_by    varchar(255),
+    version       bigint,
+    CONSTRAINT pk_user PRIMARY KEY (id),
+    CONSTRAINT uk_user_username UNIQUE (username),
+    CONSTRAINT ck_user_role CHECK (role IN ('ADMIN', 'AUTHOR', 'READER'))
+);
+
+CREATE TABLE t_tag (
+    id         bigint       GENERATED BY DEFAULT AS IDENTITY,
+    name       varchar(255) NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6) NOT NULL,
+    created_by varchar(255),
+    updated_by varchar(255),
+    deleted    boolean      NOT NULL,
+    deleted_at timestamp(6),
+    deleted_by varchar(255),
+    version    bigint,
+    CONSTRAINT pk_tag PRIMARY KEY (id),
+    CONSTRAINT uk_tag_name UNIQUE (name)
+);
+
+CREATE TABLE t_blog (
+    id              bigint       GENERATED BY DEFAULT AS IDENTITY,
+    title           varchar(255) NOT NULL,
+    content         clob,
+    first_picture   varchar(255),
+    flag            varchar(255),
+    description     varchar(500),
+    views           integer      NOT NULL,
+    appreciation    boolean      NOT NULL,
+    share_statement boolean      NOT NULL,
+    commentable     boolean      NOT NULL,
+    published       boolean      NOT NULL,
+    recommend       boolean      NOT NULL,
+    user_id         bigint,
+    created_at      timestamp(6) NOT NULL,
+    updated_at      timestamp(6) NOT NULL,
+    created_by      varchar(255),
+    updated_by      varchar(255),
+    deleted         boolean      NOT NULL,
+    deleted_at      timestamp(6),
+    deleted_by      varchar(255),
+    version         bigint,
+    CONSTRAINT pk_blog PRIMARY KEY (id),
+    CONSTRAINT fk_blog_user FOREIGN KEY (user_id) REFERENCES t_user
+);
+
+CREATE TABLE t_blog_tag (
+    blog_id bigint NOT NULL,
+    tag_id  bigint NOT NULL,
+    CONSTRAINT fk_blog_tag_blog FOREIGN KEY (blog_id) REFERENCES t_blog,
+    CONSTRAINT fk_blog_tag_tag FOREIGN KEY (tag_id) REFERENCES t_tag
+);
+
+CREATE TABLE t_comment (
+    id                bigint       GENERATED BY DEFAULT AS IDENTITY,
+    nickname          varchar(255) NOT NULL,
+    email             varchar(255),
+    content           clob         NOT NULL,
+    avatar            varchar(255),
+    admin_comment     boolean      NOT NULL,
+    blog_id           bigint,
+    parent_comment_id bigint,
+    created_at        timestamp(6) NOT NULL,
+    updated_at        timestamp(6) NOT NULL,
+    created_by        varchar(255),
+    updated_by        varchar(255),
+    deleted           boolean      NOT NULL,
+    deleted_at        timestamp(6),
+    deleted_by        varchar(255),
+    version           bigint,
+    CONSTRAINT pk_comment PRIMARY KEY (id),
+    CONSTRAINT fk_comment_blog FOREIGN KEY (blog_id) REFERENCES t_blog,
+    CONSTRAINT fk_comment_parent FOREIGN KEY (parent_comment_id) REFERENCES t_comment
+);
+
+CREATE TABLE t_refresh_token (
+    id          bigint       GENERATED BY DEFAULT AS IDENTITY,
+    token       varchar(255) NOT NULL,
+    expiry_date timestamp(6) NOT NULL,
+    user_id     bigint       NOT NULL,
+    CONSTRAINT pk_refresh_token PRIMARY KEY (id),
+    CONSTRAINT uk_refresh_token_token UNIQUE (token),
+    CONSTRAINT fk_refresh_token_user FOREIGN KEY (user_id) REFERENCES t_user
+);
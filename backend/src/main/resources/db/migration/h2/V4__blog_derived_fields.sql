@@ -0,0 +1,4 @@
+-- Derived from the body at write time. Existing posts get them when they are first re-rendered
+ALTER TABLE t_blog ADD COLUMN excerpt varchar(500);
+ALTER TABLE t_blog ADD COLUMN word_count integer;
+ALTER TABLE t_blog ADD COLUMN reading_minutes integer;
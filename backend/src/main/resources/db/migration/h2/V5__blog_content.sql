@@ -0,0 +1,13 @@
+-- The H2 twin of postgresql/V5__blog_content.sql, with json for jsonb.
+-- Post bodies, apart from the rows listings read. BlogContentMigration (version 6) moves them over
+CREATE TABLE t_blog_content (
+    blog_id          bigint      NOT NULL,
+    content          text,
+    content_html     text,
+    content_hash     varchar(64),
+    renderer_version integer,
+    outline          json,
+    images           json,
+    CONSTRAINT pk_blog_content PRIMARY KEY (blog_id),
+    CONSTRAINT fk_blog_content_blog FOREIGN KEY (blog_id) REFERENCES t_blog
+);
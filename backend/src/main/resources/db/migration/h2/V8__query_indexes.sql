@@ -0,0 +1,18 @@
+-- The H2 twin of postgresql/V8__query_indexes.sql. H2 has no partial indexes, so the columns the
+-- Postgres predicates fix lead each index instead. H2 also indexes every foreign key on its own, which
+-- Postgres does not, so the explicit foreign key indexes below duplicate those here.
+
+CREATE INDEX IF NOT EXISTS idx_blog_live_updated ON t_blog (deleted, updated_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_blog_published_updated ON t_blog (deleted, published, updated_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_blog_recommend_updated ON t_blog (deleted, published, recommend, updated_at DESC);
+CREATE INDEX IF NOT EXISTS idx_blog_published_created ON t_blog (deleted, published, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_blog_updated_at ON t_blog (updated_at);
+
+CREATE INDEX IF NOT EXISTS idx_blog_tag_tag ON t_blog_tag (tag_id, blog_id);
+CREATE INDEX IF NOT EXISTS idx_blog_tag_blog ON t_blog_tag (blog_id);
+
+CREATE INDEX IF NOT EXISTS idx_comment_blog_created ON t_comment (blog_id, deleted, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_comment_parent ON t_comment (parent_comment_id);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_token_user ON t_refresh_token (user_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_token_expiry ON t_refresh_token (expiry_date);
@@ -0,0 +1,2 @@
+-- Embedded in access tokens; bumping it revokes every token issued before (TokenVersionService)
+ALTER TABLE t_user ADD COLUMN token_version integer NOT NULL DEFAULT 0;
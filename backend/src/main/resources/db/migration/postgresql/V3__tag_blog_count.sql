@@ -0,0 +1,8 @@
+-- Published, non-deleted posts per tag, maintained by BlogService from here on
+ALTER TABLE t_tag ADD COLUMN blog_count bigint NOT NULL DEFAULT 0;
+
+UPDATE t_tag SET blog_count = (
+    SELECT COUNT(*)
+    FROM t_blog_tag bt
+    JOIN t_blog b ON b.id = bt.blog_id
+    WHERE bt.tag_id = t_tag.id AND b.deleted = false AND b.published = true);
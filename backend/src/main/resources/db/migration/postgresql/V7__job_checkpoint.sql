@@ -0,0 +1,9 @@
+-- Progress of resumable admin jobs such as the bulk re-render
+CREATE TABLE t_job_checkpoint (
+    name             varchar(64)  NOT NULL,
+    last_id          bigint       NOT NULL,
+    renderer_version integer,
+    force            boolean      NOT NULL,
+    updated_at       timestamp(6) NOT NULL,
+    CONSTRAINT pk_job_checkpoint PRIMARY KEY (name)
+);
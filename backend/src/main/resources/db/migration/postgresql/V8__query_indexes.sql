@@ -0,0 +1,39 @@
+-- One index per hot query shape in the repositories. Partial indexes carry the soft-delete and publish
+-- predicates the queries filter on, so they stay as small as the rows those queries can return.
+-- views is deliberately left unindexed: view counts are flushed every few seconds, and an index on the
+-- column would turn each of those row updates into index writes. QueryPlanTest checks that the H2 twins
+-- of these are picked up.
+
+-- Listings, newest first: the public page and admin list (findByDeletedFalse, findAllAfter)
+CREATE INDEX IF NOT EXISTS idx_blog_live_updated ON t_blog (updated_at DESC, id DESC)
+    WHERE deleted = false;
+
+-- Published keyset pages (findPublishedAfter)
+CREATE INDEX IF NOT EXISTS idx_blog_published_updated ON t_blog (updated_at DESC, id DESC)
+    WHERE deleted = false AND published = true;
+
+-- findRecommendBlogs
+CREATE INDEX IF NOT EXISTS idx_blog_recommend_updated ON t_blog (updated_at DESC)
+    WHERE deleted = false AND published = true AND recommend = true;
+
+-- The archive stream (streamArchiveEntries)
+CREATE INDEX IF NOT EXISTS idx_blog_published_created ON t_blog (created_at DESC, id DESC)
+    WHERE deleted = false AND published = true;
+
+-- Incremental search index refresh (findIndexViewsUpdatedAfter) reads deleted rows too
+CREATE INDEX IF NOT EXISTS idx_blog_updated_at ON t_blog (updated_at);
+
+-- Tag pages walk tag -> blogs; tag lookups for a page of blogs walk blog -> tags
+CREATE INDEX IF NOT EXISTS idx_blog_tag_tag ON t_blog_tag (tag_id, blog_id);
+CREATE INDEX IF NOT EXISTS idx_blog_tag_blog ON t_blog_tag (blog_id);
+
+-- A post's comment tree (findViewsByBlogId, findByBlogIdAndDeletedFalseOrderByCreatedAtDesc)
+CREATE INDEX IF NOT EXISTS idx_comment_blog_created ON t_comment (blog_id, created_at DESC)
+    WHERE deleted = false;
+
+-- Replies of a comment, also what deleting a parent has to check
+CREATE INDEX IF NOT EXISTS idx_comment_parent ON t_comment (parent_comment_id);
+
+-- Logout everywhere (deleteByUserId) and the expiry sweep (deleteExpiredTokens)
+CREATE INDEX IF NOT EXISTS idx_refresh_token_user ON t_refresh_token (user_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_token_expiry ON t_refresh_token (expiry_date);
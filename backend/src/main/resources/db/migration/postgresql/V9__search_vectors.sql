@@ -0,0 +1,16 @@
+-- Full-text search vectors for PostgresBlogSearchEngine, generated and GIN-indexed: title and description
+-- on t_blog, weighted A and B, and the body on t_blog_content, weighted C, since a generated column cannot
+-- read another table. ${searchConfig} is blog.search.text-search-config at the time this runs. The engine
+-- queries with the current setting, so changing it takes a new migration that regenerates both columns.
+-- Postgres only; the other engines need no schema.
+
+ALTER TABLE t_blog ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('${searchConfig}'::regconfig, coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('${searchConfig}'::regconfig, coalesce(description, '')), 'B')) STORED;
+
+CREATE INDEX idx_blog_search_vector ON t_blog USING GIN (search_vector);
+
+ALTER TABLE t_blog_content ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('${searchConfig}'::regconfig, coalesce(content, '')), 'C')) STORED;
+
+CREATE INDEX idx_blog_content_search_vector ON t_blog_content USING GIN (search_vector);
@@ -0,0 +1,71 @@
+package com.yao.blog.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yao.blog.dto.response.BlogResponse;
+import com.yao.blog.dto.response.TagResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryRedisSerializerTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final JavaType type = objectMapper.getTypeFactory().constructType(BlogResponse.class);
+    private final BinaryRedisSerializer<BlogResponse> serializer = new BinaryRedisSerializer<>(objectMapper, type, 1024);
+
+    @Test
+    void roundTrip_smallValueIsStoredUncompressed() {
+        BlogResponse blog = blog("<p>short</p>");
+
+        byte[] bytes = serializer.serialize(blog);
+
+        assertEquals(BinaryRedisSerializer.MAGIC, bytes[0]);
+        assertEquals(BinaryRedisSerializer.FORMAT_VERSION, bytes[1]);
+        assertEquals(0, bytes[2] & BinaryRedisSerializer.FLAG_DEFLATED);
+        assertEquals(blog, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void roundTrip_largeValueIsDeflated() {
+        BlogResponse blog = blog("<p>lorem ipsum dolor sit amet</p>\n".repeat(200));
+
+        byte[] bytes = serializer.serialize(blog);
+
+        assertEquals(BinaryRedisSerializer.FLAG_DEFLATED, bytes[2] & BinaryRedisSerializer.FLAG_DEFLATED);
+        assertTrue(bytes.length < blog.getContent().length() / 4);
+        assertEquals(blog, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void deserialize_readsValuesWrittenAsJson() throws Exception {
+        BlogResponse blog = blog("<p>from an older node</p>");
+
+        assertEquals(blog, serializer.deserialize(objectMapper.writeValueAsBytes(blog)));
+    }
+
+    @Test
+    void deserialize_unknownFormatVersionIsAMiss() {
+        byte[] bytes = serializer.serialize(blog("<p>from a newer node</p>"));
+        bytes[1] = BinaryRedisSerializer.FORMAT_VERSION + 1;
+
+        assertNull(serializer.deserialize(bytes));
+    }
+
+    private static BlogResponse blog(String content) {
+        return BlogResponse.builder()
+                .id(1L)
+                .title("Caching")
+                .content(content)
+                .views(42)
+                .published(true)
+                .tags(List.of(new TagResponse(1L, "Java", 3)))
+                .createdAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5))
+                .updatedAt(LocalDateTime.of(2024, 2, 3, 4, 5, 6))
+                .build();
+    }
+}
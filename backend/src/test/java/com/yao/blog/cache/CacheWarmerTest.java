@@ -0,0 +1,74 @@
+package com.yao.blog.cache;
+
+import com.yao.blog.repository.BlogRepository;
+import com.yao.blog.service.ViewCountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "blog.warmup.enabled=true", "blog.warmup.requests=200", "blog.views.flush-interval=600000"})
+@ActiveProfiles("test")
+class CacheWarmerTest {
+
+    @TestConfiguration
+    static class ReadinessProbe {
+
+        final AtomicBoolean warmedBeforeReady = new AtomicBoolean();
+
+        @Bean
+        ApplicationListener<AvailabilityChangeEvent<ReadinessState>> readinessListener(MeterRegistry meterRegistry) {
+            return event -> {
+                if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+                    warmedBeforeReady.set(meterRegistry.find("blog.cache.warmup.duration").timer() != null);
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private ReadinessProbe readinessProbe;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private ViewCountService viewCountService;
+
+    @Test
+    void warmsCachesBeforeReportingReady() {
+        assertTrue(readinessProbe.warmedBeforeReady.get());
+
+        List<Long> hotIds = blogRepository.findMostViewedIds(PageRequest.of(0, 20));
+        assertFalse(hotIds.isEmpty());
+        for (Long id : hotIds) {
+            assertNotNull(cacheManager.getCache(CacheNames.BLOG_DETAIL).get(id), "blog " + id);
+            assertEquals(0, viewCountService.pending(id), "warm-up requests must not count as views");
+        }
+        assertNotNull(cacheManager.getCache(CacheNames.TAGS).get("all"));
+
+        assertEquals(200, meterRegistry.get("blog.cache.warmup.requests").gauge().value());
+        assertEquals(hotIds.size(), meterRegistry.get("blog.cache.warmup.entries")
+                .tag("cache", CacheNames.BLOG_DETAIL).gauge().value());
+    }
+}
@@ -0,0 +1,101 @@
+package com.yao.blog.cache;
+
+import com.yao.blog.exception.ResourceNotFoundException;
+import com.yao.blog.repository.BlogRepository;
+import com.yao.blog.service.BlogService;
+import com.yao.blog.service.CommentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "blog.cache.enabled=false")
+@ActiveProfiles("test")
+class ExistenceGuardTest {
+
+    @Autowired
+    private ExistenceGuard existenceGuard;
+
+    @Autowired
+    private BlogService blogService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void liveIdsAlwaysPass() {
+        for (Long id : blogRepository.findLiveIds()) {
+            assertTrue(existenceGuard.mightExist(ExistenceGuard.Kind.BLOG, id));
+        }
+    }
+
+    @Test
+    void unknownId_isRejectedWithoutAQuery() {
+        long id = 0;
+        while (existenceGuard.mightExist(ExistenceGuard.Kind.BLOG, id)) {
+            id--;
+        }
+        long unknownId = id;
+        statistics.clear();
+
+        assertNull(blogService.getBlogVersion(unknownId));
+        assertThrows(ResourceNotFoundException.class, () -> blogService.getBlogAndConvert(unknownId));
+        assertThrows(ResourceNotFoundException.class, () -> commentService.getCommentsByBlogId(unknownId));
+        assertThrows(ResourceNotFoundException.class, () -> commentService.scrollThreads(unknownId, null, 10));
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    // As on a node that missed the id's broadcast: ids newer than the last rebuild are looked up, not rejected
+    @Test
+    void idAboveTheLastRebuild_reachesTheDatabase() {
+        existenceGuard.rebuild();
+        long unseen = blogRepository.findLiveIds().stream().mapToLong(Long::longValue).max().orElse(0) + 3_000_000;
+        statistics.clear();
+
+        assertTrue(existenceGuard.mightExist(ExistenceGuard.Kind.BLOG, unseen));
+        assertNull(blogService.getBlogVersion(unseen));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void missThatPassedTheFilter_isNegativelyCachedUntilCreated() {
+        long id = 2_000_000;
+        existenceGuard.created(ExistenceGuard.Kind.BLOG, id);
+        statistics.clear();
+
+        assertNull(blogService.getBlogVersion(id));
+        assertNull(blogService.getBlogVersion(id));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertFalse(existenceGuard.mightExist(ExistenceGuard.Kind.BLOG, id));
+        assertTrue(meterRegistry.get("blog.guard.false-positive-rate").tag("entity", "blog").gauge().value() > 0);
+
+        existenceGuard.created(ExistenceGuard.Kind.BLOG, id);
+        assertTrue(existenceGuard.mightExist(ExistenceGuard.Kind.BLOG, id));
+    }
+}
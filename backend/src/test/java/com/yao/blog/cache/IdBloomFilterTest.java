@@ -0,0 +1,36 @@
+package com.yao.blog.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdBloomFilterTest {
+
+    @Test
+    void everyInsertedIdIsReported() {
+        IdBloomFilter filter = new IdBloomFilter(10_000, 0.01);
+        for (long id = 1; id <= 10_000; id++) {
+            filter.put(id);
+        }
+
+        for (long id = 1; id <= 10_000; id++) {
+            assertTrue(filter.mightContain(id), "id " + id);
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        IdBloomFilter filter = new IdBloomFilter(10_000, 0.01);
+        for (long id = 1; id <= 10_000; id++) {
+            filter.put(id);
+        }
+
+        int falsePositives = 0;
+        for (long id = 10_001; id <= 110_000; id++) {
+            if (filter.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+}
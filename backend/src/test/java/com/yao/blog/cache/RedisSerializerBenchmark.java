@@ -0,0 +1,151 @@
+package com.yao.blog.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yao.blog.dto.response.BlogResponse;
+import com.yao.blog.dto.response.BlogSummaryResponse;
+import com.yao.blog.dto.response.PageResponse;
+import com.yao.blog.dto.response.TagResponse;
+import com.yao.blog.dto.response.UserResponse;
+import com.yao.blog.enums.Role;
+import com.yao.blog.util.MarkdownUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Size and encode/decode time of cached values under each Redis codec. Run with {@code mvn test -Pbenchmark}.
+ */
+class RedisSerializerBenchmark {
+
+    private static final int WARMUP = 5_000;
+    private static final int ITERATIONS = 20_000;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void compareCodecs() {
+        BlogResponse blog = blog(1L, MarkdownUtils.markdownToHtml(markdown()));
+        List<BlogSummaryResponse> summaries = new ArrayList<>();
+        for (long id = 1; id <= 8; id++) {
+            summaries.add(summary(id));
+        }
+        PageResponse<BlogSummaryResponse> page = new PageResponse<>(summaries, 0, 8, 120, 15, true, false);
+
+        JavaType blogType = objectMapper.getTypeFactory().constructType(BlogResponse.class);
+        JavaType pageType = objectMapper.getTypeFactory().constructParametricType(PageResponse.class, BlogSummaryResponse.class);
+        // What GenericJackson2JsonRedisSerializer does by default: class names embedded in every object
+        ObjectMapper typedMapper = objectMapper.copy().activateDefaultTyping(
+                objectMapper.getPolymorphicTypeValidator(), ObjectMapper.DefaultTyping.EVERYTHING, JsonTypeInfo.As.PROPERTY);
+
+        System.out.printf("%nRedis cache value codecs, %d iterations%n", ITERATIONS);
+        Result genericBlog = run("generic json", "blog detail", new GenericJackson2JsonRedisSerializer(typedMapper), blog);
+        Result jsonBlog = run("typed json", "blog detail", new Jackson2JsonRedisSerializer<>(objectMapper, blogType), blog);
+        Result binaryBlog = run("binary", "blog detail", new BinaryRedisSerializer<>(objectMapper, blogType, 2048), blog);
+        run("generic json", "home page", new GenericJackson2JsonRedisSerializer(typedMapper), page);
+        run("typed json", "home page", new Jackson2JsonRedisSerializer<>(objectMapper, pageType), page);
+        Result binaryPage = run("binary", "home page", new BinaryRedisSerializer<>(objectMapper, pageType, 2048), page);
+        System.out.println();
+
+        assertTrue(binaryBlog.bytes() < jsonBlog.bytes());
+        assertTrue(jsonBlog.bytes() < genericBlog.bytes());
+        assertTrue(binaryPage.bytes() > 0);
+    }
+
+    private static <T> Result run(String codec, String value, RedisSerializer<T> serializer, T sample) {
+        byte[] bytes = serializer.serialize(sample);
+        assertEquals(sample, serializer.deserialize(bytes));
+        for (int i = 0; i < WARMUP; i++) {
+            serializer.deserialize(serializer.serialize(sample));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            bytes = serializer.serialize(sample);
+        }
+        double encode = (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            serializer.deserialize(bytes);
+        }
+        double decode = (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+        System.out.printf("  %-12s %-11s : %7d bytes, encode %7.1f us, decode %7.1f us%n",
+                codec, value, bytes.length, encode, decode);
+        return new Result(bytes.length, encode, decode);
+    }
+
+    // Seeded word salad: close enough to prose that compression ratios are realistic
+    private static String markdown() {
+        String[] words = ("cache latency request node redis eviction value key thread database query index render "
+                + "markdown post reader deploy replica memory network payload spring service controller token "
+                + "the a of to and in is that for on with as by it this be are from at or an").split(" ");
+        Random random = new Random(42);
+        StringBuilder markdown = new StringBuilder();
+        for (int section = 1; section <= 12; section++) {
+            markdown.append("## Section ").append(section).append("\n\n");
+            for (int sentence = 0; sentence < 12; sentence++) {
+                for (int word = 0; word < 8 + random.nextInt(10); word++) {
+                    markdown.append(words[random.nextInt(words.length)]).append(random.nextInt(9) == 0 ? ", " : " ");
+                }
+                markdown.append(random.nextInt(50)).append(". ");
+            }
+            markdown.append("\n\n")
+                    .append("```java\nCache cache = cacheManager.getCache(\"blog\");\ncache.evict(").append(section)
+                    .append("L);\n```\n\n")
+                    .append("| Level | Store | TTL |\n|---|---|---|\n| L1 | Caffeine | 60s |\n| L2 | Redis | 10m |\n\n");
+        }
+        return markdown.toString();
+    }
+
+    private static BlogResponse blog(Long id, String html) {
+        return BlogResponse.builder()
+                .id(id)
+                .title("Two-level caching for a Spring Boot blog")
+                .content(html)
+                .firstPicture("https://example.com/images/" + id + ".png")
+                .flag("original")
+                .description("How the blog keeps hot posts in memory and in Redis")
+                .views(1234)
+                .commentable(true)
+                .published(true)
+                .tags(tags())
+                .user(user())
+                .createdAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5))
+                .updatedAt(LocalDateTime.of(2024, 2, 3, 4, 5, 6))
+                .build();
+    }
+
+    private static BlogSummaryResponse summary(Long id) {
+        return BlogSummaryResponse.builder()
+                .id(id)
+                .title("Post number " + id)
+                .firstPicture("https://example.com/images/" + id + ".png")
+                .flag("original")
+                .description("A short description of post " + id + " shown on the home page")
+                .views(100 + id.intValue())
+                .tags(tags())
+                .user(user())
+                .createdAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5))
+                .updatedAt(LocalDateTime.of(2024, 2, 3, 4, 5, 6))
+                .build();
+    }
+
+    private static List<TagResponse> tags() {
+        return List.of(new TagResponse(1L, "Java", 12), new TagResponse(2L, "Spring Boot", 8), new TagResponse(5L, "Redis", 3));
+    }
+
+    private static UserResponse user() {
+        return new UserResponse(1L, "admin", "Admin", "admin@blog.com", "/images/admin-avatar.png", Role.ADMIN);
+    }
+
+    private record Result(int bytes, double encodeMicros, double decodeMicros) {}
+}
@@ -0,0 +1,147 @@
+package com.yao.blog.cache;
+
+import com.aayushatharva.brotli4j.decoder.Decoder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.yao.blog.repository.BlogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ResponseBytesCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private ResponseBytesCache responseBytesCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void negotiate_prefersBrotliAndHonoursExclusions() {
+        assertEquals("br", ResponseBytesCache.negotiate("gzip, deflate, br"));
+        assertEquals("gzip", ResponseBytesCache.negotiate("gzip, br;q=0"));
+        assertEquals("identity", ResponseBytesCache.negotiate("deflate"));
+        assertEquals("identity", ResponseBytesCache.negotiate(null));
+    }
+
+    @Test
+    void cachedBody_servesEveryEncodingOfTheSameJson() throws Exception {
+        Map<String, String> value = Map.of("text", "cached ".repeat(500));
+
+        MockHttpServletResponse plain = write("test:encodings", value, Map.of(), null);
+        MockHttpServletResponse gzip = write("test:encodings", value, Map.of(), "gzip");
+        MockHttpServletResponse brotli = write("test:encodings", value, Map.of(), "gzip, br");
+
+        assertNull(plain.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", gzip.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("br", brotli.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(gzip.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+
+        byte[] json = plain.getContentAsByteArray();
+        assertArrayEquals(json, gunzip(gzip.getContentAsByteArray()));
+        assertArrayEquals(json, Decoder.decompress(brotli.getContentAsByteArray()).getDecompressedData());
+        assertTrue(brotli.getContentAsByteArray().length < json.length);
+    }
+
+    // The gzip member is assembled around the spliced prefix from the cached deflated tail
+    @Test
+    void liveFields_areSplicedIntoTheCachedBody() throws Exception {
+        Map<String, String> value = Map.of("text", "spliced ".repeat(500));
+
+        MockHttpServletResponse plain = write("test:splice", value, Map.of("views", 7), null);
+        MockHttpServletResponse gzip = write("test:splice", value, Map.of("views", 8), "gzip, br");
+
+        assertNull(plain.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", gzip.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("{\"views\":7,\"text\":\"" + value.get("text") + "\"}", plain.getContentAsString());
+        assertEquals("{\"views\":8,\"text\":\"" + value.get("text") + "\"}",
+                new String(gunzip(gzip.getContentAsByteArray()), StandardCharsets.UTF_8));
+        assertTrue(gzip.getContentAsByteArray().length < plain.getContentAsByteArray().length);
+
+        assertEquals("{\"views\":9}", write("test:empty", Map.of(), Map.of("views", 9), "gzip").getContentAsString());
+    }
+
+    @Test
+    void blogDetail_carriesTheLiveViewCountInEveryEncoding() throws Exception {
+        String url = "/api/blogs/" + blogRepository.findAll().get(0).getId();
+
+        JsonNode plain = objectMapper.readTree(fetch(url, null).getContentAsByteArray());
+        MockHttpServletResponse gzip = fetch(url, "gzip, br");
+        JsonNode unzipped = objectMapper.readTree(gunzip(gzip.getContentAsByteArray()));
+
+        assertEquals("gzip", gzip.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(plain.get("views").asLong() + 1, unzipped.get("views").asLong());
+        ((ObjectNode) plain).remove("views");
+        ((ObjectNode) unzipped).remove("views");
+        assertEquals(plain, unzipped);
+    }
+
+    // One validator per coding: a cache keyed on the ETag alone must not hand a gzip body to an identity client
+    @Test
+    void etags_differPerContentCoding() throws Exception {
+        String url = "/api/blogs/" + blogRepository.findAll().get(0).getId();
+        fetch(url, null);
+        String plain = fetch(url, null).getHeader(HttpHeaders.ETAG);
+        String gzip = fetch(url, "gzip").getHeader(HttpHeaders.ETAG);
+        String tags = fetch("/api/tags", "gzip, br").getHeader(HttpHeaders.ETAG);
+
+        assertEquals(plain.substring(0, plain.length() - 1) + "-gz\"", gzip);
+        assertTrue(tags.endsWith("-br\""), tags);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, gzip)).andExpect(status().isOk());
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, gzip).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void missingBlog_isStillNotFound() throws Exception {
+        mockMvc.perform(get("/api/blogs/999999")).andExpect(status().isNotFound());
+    }
+
+    private MockHttpServletResponse write(String key, Object value, Map<String, ?> liveFields, String acceptEncoding)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        responseBytesCache.write(key, () -> value, liveFields, request, response);
+        return response;
+    }
+
+    private static byte[] gunzip(byte[] body) throws Exception {
+        return new GZIPInputStream(new ByteArrayInputStream(body)).readAllBytes();
+    }
+
+    private MockHttpServletResponse fetch(String url, String acceptEncoding) throws Exception {
+        var request = get(url);
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,194 @@
+package com.yao.blog.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheTest {
+
+    @Mock
+    private CacheInvalidationBus bus;
+
+    private ConcurrentMapCache remote;
+    private com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCache("blog");
+        local = Caffeine.newBuilder().maximumSize(100).build();
+        cache = new TwoLevelCache("blog", local, remote, bus, null, Runnable::run, 1.0);
+    }
+
+    @Test
+    void get_loadsOnceAndFillsBothLevels() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, () -> "v" + loads.incrementAndGet());
+        assertEquals("v1", cache.get(1L, () -> "v" + loads.incrementAndGet()));
+
+        assertEquals(1, loads.get());
+        assertEquals("v1", local.getIfPresent("1"));
+        assertEquals("v1", remote.get("1").get());
+    }
+
+    @Test
+    void lookup_fillsLocalFromRemote() {
+        remote.put("2", "shared");
+
+        assertEquals("shared", cache.get(2L).get());
+        assertEquals("shared", local.getIfPresent("2"));
+    }
+
+    @Test
+    void evict_clearsBothLevelsAndBroadcasts() {
+        cache.put(3L, "v");
+
+        cache.evict(3L);
+
+        assertNull(local.getIfPresent("3"));
+        assertNull(remote.get("3"));
+        verify(bus).publish("blog", "3");
+    }
+
+    @Test
+    void remoteInvalidation_dropsOnlyLocalCopy() {
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(List.of("blog"), 100, Duration.ofMinutes(1), 1.0, null, null, null);
+        manager.initializeCaches();
+        manager.getCache("blog").put(4L, "v");
+        CacheInvalidationBus realBus = new CacheInvalidationBus(null);
+
+        realBus.receive("other-node\nblog\n4".getBytes(StandardCharsets.UTF_8), manager);
+
+        assertNull(manager.getCache("blog").get(4L));
+    }
+
+    @Test
+    void concurrentMisses_shareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> cache.get(5L, () -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return "v";
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<Object> result : results) {
+                assertEquals("v", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void leaseHeldByAnotherNode_waitsForItsValue() throws Exception {
+        CacheLoadLease lease = mock(CacheLoadLease.class);
+        when(lease.tryAcquire("blog", "6")).thenReturn(null);
+        when(lease.isHeld("blog", "6")).thenReturn(true);
+        when(lease.getTtl()).thenReturn(Duration.ofSeconds(5));
+        cache = new TwoLevelCache("blog", local, remote, bus, lease, Runnable::run, 1.0);
+        Thread otherNode = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+            }
+            remote.put("6", "from other node");
+        });
+        otherNode.start();
+
+        assertEquals("from other node", cache.get(6L, () -> fail("should not load")));
+        otherNode.join();
+        assertEquals("from other node", local.getIfPresent("6"));
+    }
+
+    @Test
+    void leaseReleasedWithoutAValue_stopsWaitingAndLoads() {
+        CacheLoadLease lease = mock(CacheLoadLease.class);
+        when(lease.tryAcquire("blog", "8")).thenReturn(null, "token");
+        when(lease.isHeld("blog", "8")).thenReturn(true, false);
+        when(lease.getTtl()).thenReturn(Duration.ofSeconds(5));
+        cache = new TwoLevelCache("blog", local, remote, bus, lease, Runnable::run, 1.0);
+
+        long start = System.nanoTime();
+        assertEquals("loaded here", cache.get(8L, () -> "loaded here"));
+
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos());
+        verify(lease).release("blog", "8", "token");
+        assertEquals("loaded here", remote.get("8").get());
+    }
+
+    // With no L2 another node's value could never be read, so waiting on its lease only adds latency
+    @Test
+    void localOnlyCache_loadsWithoutTheLease() {
+        CacheLoadLease lease = mock(CacheLoadLease.class);
+        cache = new TwoLevelCache("bytes", local, null, bus, lease, Runnable::run, 1.0);
+
+        long start = System.nanoTime();
+        assertEquals("loaded here", cache.get(9L, () -> "loaded here"));
+
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos());
+        verifyNoInteractions(lease);
+        assertEquals("loaded here", local.getIfPresent("9"));
+    }
+
+    @Test
+    void evictDuringLoad_doesNotKeepStaleValue() {
+        String value = cache.get(7L, () -> {
+            cache.evict(7L);
+            return "stale";
+        });
+
+        assertEquals("stale", value);
+        assertNull(local.getIfPresent("7"));
+        assertNull(remote.get("7"));
+    }
+
+    @Test
+    void readNearExpiry_reloadsEarly() {
+        AtomicLong nanos = new AtomicLong();
+        local = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(60))
+                .ticker(nanos::get)
+                .build();
+        cache = new TwoLevelCache("blog", local, remote, bus, null, Runnable::run, 0.8);
+        cache.put(8L, "old");
+
+        nanos.set(Duration.ofSeconds(30).toNanos());
+        assertEquals("old", cache.get(8L, () -> "new"));
+        assertEquals("old", local.getIfPresent("8"));
+
+        nanos.set(Duration.ofSeconds(55).toNanos());
+        assertEquals("old", cache.get(8L, () -> "new"));
+        assertEquals("new", local.getIfPresent("8"));
+        assertEquals("new", remote.get("8").get());
+    }
+}
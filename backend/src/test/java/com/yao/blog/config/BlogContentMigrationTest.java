@@ -0,0 +1,53 @@
+package com.yao.blog.config;
+
+import com.yao.blog.entity.BlogContent;
+import com.yao.blog.repository.BlogContentRepository;
+import com.yao.blog.repository.BlogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "blog.cache.enabled=false")
+@ActiveProfiles("test")
+class BlogContentMigrationTest {
+
+    @Autowired
+    private BlogContentMigration migration;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private BlogContentRepository blogContentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void movesLegacyBodiesOffTheBlogTable() {
+        Long id = blogRepository.findLiveIds().get(0);
+        String markdown = blogContentRepository.findById(id).orElseThrow().getContent();
+        // A database from before the split: the body on t_blog, no content row
+        jdbcTemplate.update("DELETE FROM t_blog_content WHERE blog_id = ?", id);
+        jdbcTemplate.execute("ALTER TABLE t_blog ADD COLUMN content CHARACTER LARGE OBJECT");
+        jdbcTemplate.execute("ALTER TABLE t_blog ADD COLUMN content_html CHARACTER LARGE OBJECT");
+        jdbcTemplate.update("UPDATE t_blog SET content = ?, content_html = '<p>legacy</p>' WHERE id = ?", markdown, id);
+
+        migration.moveBodies(jdbcTemplate);
+
+        BlogContent content = blogContentRepository.findById(id).orElseThrow();
+        assertEquals(markdown, content.getContent());
+        assertEquals("<p>legacy</p>", content.getContentHtml());
+        assertNull(content.getRendererVersion());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.columns "
+                + "WHERE LOWER(table_name) = 't_blog' AND LOWER(column_name) LIKE 'content%'", Integer.class));
+
+        // Idempotent once the columns are gone
+        migration.moveBodies(jdbcTemplate);
+        assertEquals(markdown, blogContentRepository.findById(id).orElseThrow().getContent());
+    }
+}
@@ -0,0 +1,152 @@
+package com.yao.blog.config;
+
+import com.yao.blog.cache.CacheNames;
+import com.yao.blog.dto.request.TagRequest;
+import com.yao.blog.dto.response.TagResponse;
+import com.yao.blog.service.TagService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A second in-memory H2 database stands in for the replica. It has the same schema but its own rows, so
+ * where a query ran shows in what it returns. Its lag comes from a table the test controls. Caching is on
+ * (local only, as in every test) so cache loads can be checked.
+ */
+@SpringBootTest(properties = {
+        "blog.datasource.replicas.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "blog.datasource.replicas.lag-query=SELECT seconds FROM t_replica_lag",
+        "blog.datasource.replicas.health-check-interval=3600000"})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+    private static final String MARKER = "Only on the replica";
+    private static final JdbcTemplate REPLICA = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    // Before the context starts: its read-only startup work already goes to the replica
+    static {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration/h2")
+                .javaMigrations(new BlogContentMigration())
+                .load()
+                .migrate();
+        REPLICA.execute("CREATE TABLE t_replica_lag (seconds DOUBLE)");
+        REPLICA.update("INSERT INTO t_replica_lag VALUES (0)");
+        REPLICA.update("INSERT INTO t_tag (name, blog_count, created_at, updated_at, deleted) VALUES (?, 0, ?, ?, false)",
+                MARKER, LocalDateTime.now(), LocalDateTime.now());
+    }
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void readOnlyTransactions_goToTheReplica() {
+        double before = routed("replica-1", "read-only");
+
+        assertTrue(sawMarker(true));
+        assertFalse(sawMarker(false));
+        assertEquals(before + 1, routed("replica-1", "read-only"));
+        assertEquals(1.0, meterRegistry.get("blog.datasource.replica.healthy").gauge().value());
+    }
+
+    @Test
+    void laggingOrFailingReplica_fallsBackToThePrimary() {
+        REPLICA.update("UPDATE t_replica_lag SET seconds = 60");
+        routingDataSource.checkReplicas();
+        double fallbacks = routed(ReplicaRoutingDataSource.PRIMARY, "fallback");
+
+        assertFalse(sawMarker(true));
+        assertEquals(fallbacks + 1, routed(ReplicaRoutingDataSource.PRIMARY, "fallback"));
+        assertEquals(60.0, meterRegistry.get("blog.datasource.replica.lag").gauge().value());
+
+        REPLICA.update("UPDATE t_replica_lag SET seconds = 0");
+        routingDataSource.checkReplicas();
+        assertTrue(sawMarker(true));
+
+        REPLICA.execute("ALTER TABLE t_replica_lag RENAME TO t_replica_lag_gone");
+        try {
+            routingDataSource.checkReplicas();
+            assertFalse(sawMarker(true));
+            assertEquals(0.0, meterRegistry.get("blog.datasource.replica.healthy").gauge().value());
+        } finally {
+            REPLICA.execute("ALTER TABLE t_replica_lag_gone RENAME TO t_replica_lag");
+        }
+    }
+
+    // The replica never sees the write, like one still within max-lag: the reload after the eviction must
+    // not cache its rows
+    @Test
+    void cachedReadAfterAWrite_isLoadedFromThePrimary() {
+        assertTrue(names(tagService.listAllTags()).contains("Java"));
+        TagRequest request = new TagRequest();
+        request.setName("Written on the primary");
+        TagResponse created = tagService.createTag(request);
+        try {
+            double loads = routed(ReplicaRoutingDataSource.PRIMARY, "cache-load");
+
+            List<String> names = names(tagService.listAllTags());
+
+            assertTrue(names.contains(created.getName()));
+            assertFalse(names.contains(MARKER));
+            assertTrue(routed(ReplicaRoutingDataSource.PRIMARY, "cache-load") > loads);
+            assertTrue(sawMarker(true));
+        } finally {
+            jdbcTemplate.update("DELETE FROM t_tag WHERE id = ?", created.getId());
+            cacheManager.getCache(CacheNames.TAGS).clear();
+        }
+    }
+
+    @AfterEach
+    void restoreReplica() {
+        REPLICA.update("UPDATE t_replica_lag SET seconds = 0");
+        routingDataSource.checkReplicas();
+    }
+
+    private boolean sawMarker(boolean readOnly) {
+        transactionTemplate.setReadOnly(readOnly);
+        try {
+            return transactionTemplate.execute(status -> jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM t_tag WHERE name = ?", Integer.class, MARKER)) > 0;
+        } finally {
+            transactionTemplate.setReadOnly(false);
+        }
+    }
+
+    private static List<String> names(List<TagResponse> tags) {
+        return tags.stream().map(TagResponse::getName).toList();
+    }
+
+    private double routed(String target, String reason) {
+        return meterRegistry.get("blog.datasource.routed").tag("target", target).tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,86 @@
+package com.yao.blog.config;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Upgrades a database as the app left it before migrations: the V1 schema with rows but no Flyway history.
+ * It is migrated with the Flyway settings from application.yml and must end up with the same columns as a
+ * database migrated from empty.
+ */
+class SchemaMigrationTest {
+
+    private static final String LOCATION = "classpath:db/migration/h2";
+
+    @Test
+    void baselineDatabase_isUpgradedToTheCurrentSchema() {
+        DriverManagerDataSource legacy = dataSource("legacy");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/h2/V1__baseline.sql")).execute(legacy);
+        JdbcTemplate jdbc = new JdbcTemplate(legacy);
+        LocalDateTime now = LocalDateTime.now();
+        jdbc.update("INSERT INTO t_user (id, username, password, nickname, role, created_at, updated_at, deleted) "
+                + "VALUES (1, 'admin', 'x', 'Admin', 'ADMIN', ?, ?, false)", now, now);
+        jdbc.update("INSERT INTO t_tag (id, name, created_at, updated_at, deleted) VALUES (1, 'Java', ?, ?, false)", now, now);
+        insertBlog(jdbc, 1, "# Published", true);
+        insertBlog(jdbc, 2, "# Draft", false);
+        jdbc.update("INSERT INTO t_blog_tag (blog_id, tag_id) VALUES (1, 1), (2, 1)");
+
+        migrate(legacy);
+
+        assertEquals(0, jdbc.queryForObject("SELECT token_version FROM t_user WHERE id = 1", Integer.class));
+        assertEquals(1, jdbc.queryForObject("SELECT blog_count FROM t_tag WHERE id = 1", Long.class));
+        assertEquals(List.of("# Published", "# Draft"),
+                jdbc.queryForList("SELECT content FROM t_blog_content ORDER BY blog_id", String.class));
+        assertNull(jdbc.queryForObject("SELECT excerpt FROM t_blog WHERE id = 1", String.class));
+
+        DriverManagerDataSource fresh = dataSource("fresh");
+        migrate(fresh);
+        assertEquals(columns(fresh), columns(legacy));
+    }
+
+    private static void insertBlog(JdbcTemplate jdbc, long id, String content, boolean published) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbc.update("INSERT INTO t_blog (id, title, content, views, appreciation, share_statement, commentable, "
+                        + "published, recommend, user_id, created_at, updated_at, deleted) "
+                        + "VALUES (?, ?, ?, 0, false, false, true, ?, false, 1, ?, ?, false)",
+                id, content.substring(2), content, published, now, now);
+    }
+
+    // As the app runs it: the vendor's scripts, the Java migration bean and the baseline settings it is configured with
+    private static void migrate(DriverManagerDataSource dataSource) {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource("application.yml"));
+        Properties config = yaml.getObject();
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations(LOCATION)
+                .javaMigrations(new BlogContentMigration())
+                .baselineOnMigrate(Boolean.parseBoolean(config.getProperty("spring.flyway.baseline-on-migrate")))
+                .baselineVersion(config.getProperty("spring.flyway.baseline-version"))
+                .load()
+                .migrate();
+    }
+
+    private static List<Map<String, Object>> columns(DriverManagerDataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForList(
+                "SELECT table_name, column_name, data_type, is_nullable, column_default FROM information_schema.columns "
+                        + "WHERE table_schema = 'PUBLIC' AND table_name <> 'flyway_schema_history' "
+                        + "ORDER BY table_name, column_name");
+    }
+
+    private static DriverManagerDataSource dataSource(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
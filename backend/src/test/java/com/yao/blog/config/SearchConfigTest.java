@@ -0,0 +1,46 @@
+package com.yao.blog.config;
+
+import com.yao.blog.repository.BlogRepository;
+import com.yao.blog.search.BlogSearchEngine;
+import com.yao.blog.search.LikeBlogSearchEngine;
+import com.yao.blog.search.PostgresBlogSearchEngine;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// auto on PostgreSQL is covered by PostgresBlogSearchEngineTest
+class SearchConfigTest {
+
+    private final SearchConfig config = new SearchConfig();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    void auto_usesLikeOffPostgres() {
+        DataSource h2 = new DriverManagerDataSource("jdbc:h2:mem:search-config", "sa", "");
+
+        assertInstanceOf(LikeBlogSearchEngine.class, select("auto", h2));
+    }
+
+    // The schema is migration V9's: choosing the engine runs no statement
+    @Test
+    void postgres_touchesNoSchema() {
+        assertInstanceOf(PostgresBlogSearchEngine.class, select("postgres", mock(DataSource.class)));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void unknownEngine_failsStartup() {
+        assertThrows(IllegalStateException.class, () -> select("solr", mock(DataSource.class)));
+    }
+
+    private BlogSearchEngine select(String engine, DataSource dataSource) {
+        return config.blogSearchEngine(engine, "english", "", 0, false, dataSource, jdbcTemplate,
+                mock(StringRedisTemplate.class), mock(BlogRepository.class));
+    }
+}
@@ -0,0 +1,200 @@
+package com.yao.blog.controller;
+
+import com.yao.blog.dto.request.TagRequest;
+import com.yao.blog.dto.response.TagResponse;
+import com.yao.blog.entity.Blog;
+import com.yao.blog.repository.BlogRepository;
+import com.yao.blog.repository.projection.BlogTagView;
+import com.yao.blog.service.TagService;
+import com.yao.blog.service.ViewCountService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private ViewCountService viewCountService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void blogDetail_revalidatesWithoutLoadingTheBlog() throws Exception {
+        Blog blog = blogRepository.findAll().get(0);
+        String url = "/api/blogs/" + blog.getId();
+
+        // The first read may re-render a seeded post, which bumps its version
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        var first = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse();
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        String lastModified = mockMvc.perform(get(url + "/html")).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+        assertNotNull(etag);
+        // Weak: the flushed view count is validated, views still pending are not
+        assertTrue(etag.startsWith("W/"));
+        assertNull(first.getHeader(HttpHeaders.LAST_MODIFIED));
+        assertNotNull(lastModified);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get(url + "/html").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk());
+    }
+
+    // The detail embeds tag names; a rename must not be answered with 304
+    @Test
+    void blogEtag_changesWhenAnEmbeddedTagIsRenamed() throws Exception {
+        BlogTagView tag = blogRepository.findTagsByBlogIds(blogRepository.findLiveIds()).get(0);
+        String url = "/api/blogs/" + tag.getBlogId();
+        String etag = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        TagRequest rename = new TagRequest();
+        rename.setName(tag.getTagName() + " (renamed)");
+        tagService.updateTag(tag.getTagId(), rename);
+        try {
+            mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(containsString(rename.getName())));
+        } finally {
+            rename.setName(tag.getTagName());
+            tagService.updateTag(tag.getTagId(), rename);
+        }
+    }
+
+    // Only the post and the tags it embeds are validated; writes elsewhere keep its 304s
+    @Test
+    void blogEtag_survivesUnrelatedWrites() throws Exception {
+        Long blogId = blogRepository.findAll().get(0).getId();
+        Set<Long> embedded = blogRepository.findTagsByBlogIds(List.of(blogId)).stream()
+                .map(BlogTagView::getTagId).collect(Collectors.toSet());
+        TagResponse tag = tagService.listAllTags().stream()
+                .filter(t -> !embedded.contains(t.getId())).findFirst().orElseThrow();
+        String url = "/api/blogs/" + blogId;
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        String etag = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        TagRequest rename = new TagRequest();
+        rename.setName(tag.getName() + " (renamed)");
+        tagService.updateTag(tag.getId(), rename);
+        try {
+            mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+        } finally {
+            rename.setName(tag.getName());
+            tagService.updateTag(tag.getId(), rename);
+        }
+    }
+
+    @Test
+    void blogDetail_carriesTheLiveViewCount() throws Exception {
+        Blog blog = blogRepository.findAll().get(0);
+        String url = "/api/blogs/" + blog.getId();
+        long before = Long.parseLong(mockMvc.perform(get(url + "/views")).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        mockMvc.perform(get(url)).andExpect(status().isOk()).andExpect(jsonPath("$.views").value(before + 1));
+        var second = mockMvc.perform(get(url)).andExpect(status().isOk())
+                .andExpect(jsonPath("$.views").value(before + 2)).andReturn().getResponse();
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, second.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get(url + "/views"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(Long.toString(before + 3)));
+        mockMvc.perform(get("/api/blogs/" + Long.MAX_VALUE + "/views")).andExpect(status().isNotFound());
+    }
+
+    // A flush changes the validated count, so revalidating clients get the new total
+    @Test
+    void viewFlush_changesTheBlogEtag() throws Exception {
+        String url = "/api/blogs/" + blogRepository.findAll().get(0).getId();
+        String etag = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        viewCountService.flush();
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isOk());
+    }
+
+    @Test
+    void viewFlush_keepsTheCachedDetail() throws Exception {
+        String url = "/api/blogs/" + blogRepository.findAll().get(0).getId();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        viewCountService.flush();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    // List items carry view counts; a 304 must not keep serving the counts from before a flush
+    @Test
+    void listEtag_changesAfterAViewFlush() throws Exception {
+        String etag = mockMvc.perform(get("/api/blogs")).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/blogs/" + blogRepository.findAll().get(0).getId())).andExpect(status().isOk());
+        viewCountService.flush();
+
+        mockMvc.perform(get("/api/blogs").header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isOk());
+    }
+
+    @Test
+    void listEtag_changesAfterWrite() throws Exception {
+        String etag = mockMvc.perform(get("/api/tags")).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("W/"));
+
+        mockMvc.perform(get("/api/tags").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        TagRequest request = new TagRequest();
+        request.setName("Conditional GET");
+        tagService.createTag(request);
+
+        String next = mockMvc.perform(get("/api/tags").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, next);
+    }
+}
@@ -0,0 +1,89 @@
+package com.yao.blog.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yao.blog.repository.BlogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Caching is off so the pages reflect the timestamps rewritten below
+@SpringBootTest(properties = "blog.cache.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CursorPaginationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Not Base64, Base64 without a separator, and a separator with no timestamp before it
+    @Test
+    void malformedCursor_isABadRequest() throws Exception {
+        Long blogId = blogRepository.findLiveIds().get(0);
+        for (String cursor : List.of("not-a-cursor!", "bm90IGEgY3Vyc29y", "eHwx")) {
+            for (String url : List.of("/api/blogs/cursor", "/api/blogs/search/cursor?query=a",
+                    "/api/comments/blog/" + blogId + "/cursor")) {
+                mockMvc.perform(get(url).param("cursor", cursor))
+                        .andExpect(status().isBadRequest())
+                        .andExpect(jsonPath("$.status").value(400))
+                        .andExpect(jsonPath("$.message").value("Invalid cursor: " + cursor));
+            }
+        }
+    }
+
+    // Posts saved in the same instant are ordered by id, so no page repeats or skips one of them
+    @Test
+    void postsWithTheSameUpdatedAt_arePagedByIdWithoutGapsOrRepeats() throws Exception {
+        List<Map<String, Object>> original = jdbcTemplate.queryForList(
+                "SELECT id, updated_at FROM t_blog WHERE deleted = false AND published = true");
+        LocalDateTime instant = LocalDateTime.of(2024, 5, 1, 12, 0);
+        jdbcTemplate.update("UPDATE t_blog SET updated_at = ? WHERE deleted = false AND published = true", instant);
+        try {
+            List<Long> walked = new ArrayList<>();
+            String cursor = null;
+            do {
+                var request = get("/api/blogs/cursor").param("size", "2");
+                if (cursor != null) {
+                    request.param("cursor", cursor);
+                }
+                JsonNode page = objectMapper.readTree(mockMvc.perform(request).andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsByteArray());
+                page.get("content").forEach(blog -> walked.add(blog.get("id").asLong()));
+                cursor = page.get("hasNext").asBoolean() ? page.get("nextCursor").asText() : null;
+            } while (cursor != null);
+
+            List<Long> expected = original.stream().map(row -> ((Number) row.get("id")).longValue())
+                    .sorted(Comparator.reverseOrder()).toList();
+            assertTrue(expected.size() > 2);
+            assertEquals(expected, walked);
+        } finally {
+            original.forEach(row -> jdbcTemplate.update("UPDATE t_blog SET updated_at = ? WHERE id = ?",
+                    (Timestamp) row.get("updated_at"), row.get("id")));
+        }
+    }
+}
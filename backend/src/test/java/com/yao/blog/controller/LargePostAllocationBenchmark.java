@@ -0,0 +1,172 @@
+package com.yao.blog.controller;
+
+import com.yao.blog.cache.CacheNames;
+import com.yao.blog.cache.ExistenceGuard;
+import com.yao.blog.cache.ResponseBytesCache;
+import com.yao.blog.cache.SerializedResponse;
+import com.yao.blog.entity.Blog;
+import com.yao.blog.entity.BlogContent;
+import com.yao.blog.repository.BlogContentRepository;
+import com.yao.blog.repository.BlogRepository;
+import com.yao.blog.service.BlogContentStreamer;
+import com.yao.blog.util.MarkdownUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bytes allocated per detail request for a multi-megabyte post, buffered through the response caches
+ * versus streamed. Counts every thread in the JVM, client included. Run with {@code mvn test -Pbenchmark}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"logging.level.com.yao.blog=INFO", "logging.level.org.springframework=INFO",
+                "logging.level.org.hibernate=WARN", "spring.jpa.properties.hibernate.generate_statistics=false"})
+@ActiveProfiles("test")
+class LargePostAllocationBenchmark {
+
+    private static final int TARGET_SIZE = 4 * 1024 * 1024;
+    private static final int WARMUP = 3;
+    private static final int REQUESTS = 10;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private BlogContentRepository blogContentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ExistenceGuard existenceGuard;
+
+    @Autowired
+    private BlogContentStreamer blogContentStreamer;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void compareAllocationPerRequest() throws Exception {
+        String markdown = markdown();
+        MarkdownUtils.RenderedContent rendered = MarkdownUtils.render(markdown);
+        Blog blog = transactionTemplate.execute(status -> {
+            Blog saved = blogRepository.save(Blog.builder()
+                    .title("Large post")
+                    .description(rendered.excerpt())
+                    .published(true)
+                    .build());
+            blogContentRepository.save(BlogContent.builder()
+                    .blog(saved)
+                    .content(markdown)
+                    .contentHtml(rendered.html())
+                    .contentHash(MarkdownUtils.contentHash(markdown))
+                    .rendererVersion(MarkdownUtils.RENDERER_VERSION)
+                    .outline(rendered.outline())
+                    .images(rendered.images())
+                    .build());
+            return saved;
+        });
+        existenceGuard.created(ExistenceGuard.Kind.BLOG, blog.getId());
+        URI uri = URI.create("http://localhost:" + port + "/api/blogs/" + blog.getId());
+
+        ReflectionTestUtils.setField(blogContentStreamer, "streamingThreshold", DataSize.ofGigabytes(1));
+        double miss = run(uri, true);
+        double hit = run(uri, false);
+        SerializedResponse cached = (SerializedResponse) cacheManager.getCache(CacheNames.RESPONSE_BYTES)
+                .get(ResponseBytesCache.blogKey(blog.getId())).get();
+        long resident = cached.identity().length + cached.gzip().length
+                + (cached.brotli() != null ? cached.brotli().length : 0) + 2L * rendered.html().length();
+
+        ReflectionTestUtils.setField(blogContentStreamer, "streamingThreshold", DataSize.ofKilobytes(256));
+        double streamed = run(uri, false);
+
+        System.out.printf("%nDetail of a %.1f MB post (%.1f MB HTML), %d requests, Accept-Encoding: gzip, br%n",
+                markdown.length() / 1048576.0, rendered.html().length() / 1048576.0, REQUESTS);
+        System.out.printf("  buffered, cache miss : %7.1f MB allocated/request%n", miss);
+        System.out.printf("  buffered, cache hit  : %7.1f MB allocated/request, %.1f MB held in caches per post%n",
+                hit, resident / 1048576.0);
+        System.out.printf("  streamed             : %7.1f MB allocated/request, nothing cached%n%n", streamed);
+
+        assertTrue(streamed < miss);
+    }
+
+    private double run(URI uri, boolean clearCaches) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            request(uri, clearCaches);
+        }
+        long allocated = 0;
+        for (int i = 0; i < REQUESTS; i++) {
+            if (clearCaches) {
+                clearCaches();
+            }
+            long before = allocatedBytes();
+            request(uri, false);
+            allocated += allocatedBytes() - before;
+        }
+        return allocated / 1048576.0 / REQUESTS;
+    }
+
+    private void request(URI uri, boolean clearCaches) throws Exception {
+        if (clearCaches) {
+            clearCaches();
+        }
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri).header("Accept-Encoding", "gzip, br").build(),
+                HttpResponse.BodyHandlers.discarding());
+        assertEquals(200, response.statusCode());
+    }
+
+    private void clearCaches() {
+        cacheManager.getCache(CacheNames.BLOG_DETAIL).clear();
+        cacheManager.getCache(CacheNames.RESPONSE_BYTES).clear();
+    }
+
+    private long allocatedBytes() {
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(0, allocated);
+        }
+        return total;
+    }
+
+    private static String markdown() {
+        String[] words = ("cache latency request node redis eviction value key thread database query index render "
+                + "markdown post reader deploy replica memory network payload spring service controller token "
+                + "the a of to and in is that for on with as by it this be are from at or an").split(" ");
+        Random random = new Random(42);
+        StringBuilder markdown = new StringBuilder();
+        for (int section = 1; markdown.length() < TARGET_SIZE; section++) {
+            markdown.append("## Section ").append(section).append("\n\n");
+            for (int sentence = 0; sentence < 12; sentence++) {
+                for (int word = 0; word < 8 + random.nextInt(10); word++) {
+                    markdown.append(words[random.nextInt(words.length)]).append(' ');
+                }
+                markdown.append(random.nextInt(50)).append(". ");
+            }
+            markdown.append("\n\n```java\ncache.evict(").append(section).append("L);\n```\n\n");
+        }
+        return markdown.toString();
+    }
+}
@@ -0,0 +1,108 @@
+package com.yao.blog.controller;
+
+import com.sun.management.OperatingSystemMXBean;
+import com.yao.blog.cache.ResponseBytesCache;
+import com.yao.blog.repository.BlogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load test for the hot public endpoints over real HTTP, with and without the pre-serialized response cache.
+ * Reports process CPU time per request (client included, identical in both runs). Run with {@code mvn test -Pbenchmark}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"logging.level.com.yao.blog=INFO", "logging.level.org.springframework=INFO",
+                "logging.level.org.hibernate=WARN", "spring.jpa.properties.hibernate.generate_statistics=false"})
+@ActiveProfiles("test")
+class PublicEndpointsLoadBenchmark {
+
+    private static final int CLIENTS = 8;
+    private static final int WARMUP_REQUESTS = 10_000;
+    private static final int REQUESTS = 20_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ResponseBytesCache responseBytesCache;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void compareCpuPerRequest() throws Exception {
+        List<URI> targets = List.of(
+                URI.create("http://localhost:" + port + "/api/blogs/" + blogRepository.findAll().get(0).getId()),
+                URI.create("http://localhost:" + port + "/api/blogs/recommend"),
+                URI.create("http://localhost:" + port + "/api/tags"));
+
+        ReflectionTestUtils.setField(responseBytesCache, "enabled", false);
+        Result perRequest = run(targets);
+        ReflectionTestUtils.setField(responseBytesCache, "enabled", true);
+        Result cached = run(targets);
+
+        System.out.printf("%nPublic endpoints, %d requests from %d clients (Accept-Encoding: gzip, br)%n", REQUESTS, CLIENTS);
+        System.out.printf("  serialize per request : %7.1f us CPU/request, %8.0f requests/s%n", perRequest.cpuMicros(), perRequest.throughput());
+        System.out.printf("  cached bytes          : %7.1f us CPU/request, %8.0f requests/s%n", cached.cpuMicros(), cached.throughput());
+        System.out.printf("  CPU saved             : %7.1f %%%n%n", 100 * (1 - cached.cpuMicros() / perRequest.cpuMicros()));
+
+        assertTrue(cached.cpuMicros() < perRequest.cpuMicros());
+    }
+
+    private Result run(List<URI> targets) throws Exception {
+        drive(targets, WARMUP_REQUESTS);
+        OperatingSystemMXBean os = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long cpuStart = os.getProcessCpuTime();
+        long start = System.nanoTime();
+        drive(targets, REQUESTS);
+        long elapsed = System.nanoTime() - start;
+        long cpu = os.getProcessCpuTime() - cpuStart;
+        return new Result(cpu / 1_000.0 / REQUESTS, REQUESTS / (elapsed / 1e9));
+    }
+
+    private void drive(List<URI> targets, int requests) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < Math.min(CLIENTS, requests); c++) {
+                int offset = c;
+                futures.add(pool.submit(() -> {
+                    for (int i = offset; i < requests; i += CLIENTS) {
+                        HttpRequest request = HttpRequest.newBuilder(targets.get(i % targets.size()))
+                                .header("Accept-Encoding", "gzip, br")
+                                .build();
+                        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        assertEquals(200, response.statusCode(), () -> request.uri() + " " + new String(response.body()));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private record Result(double cpuMicros, double throughput) {}
+}
@@ -0,0 +1,280 @@
+package com.yao.blog.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link QueryPlanTest} against a real PostgreSQL migrated by the {@code db/migration/postgresql} scripts, so
+ * the plans are over the partial indexes of V8 themselves. The tables are filled to a few thousand rows and
+ * analyzed first: over the handful of seeded rows the planner rightly prefers to sort. Each statement the app
+ * sends is explained with the parameters it was bound to, with sequential scans disabled, so a plan that
+ * still scans a table, or reads through another index, shows the query does not use the one created for it.
+ * Skipped where Docker is unavailable.
+ */
+@SpringBootTest(properties = {"blog.cache.enabled=false", "spring.jpa.hibernate.ddl-auto=none"})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresQueryPlanTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", POSTGRES::getDriverClassName);
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    private static final String[] VOLUME = {
+            "INSERT INTO t_user (username, password, nickname, role, created_at, updated_at, deleted) "
+                    + "SELECT 'plan-' || n, 'x', 'Reader ' || n, 'READER', now(), now(), false FROM generate_series(1, 200) n",
+            "INSERT INTO t_tag (name, created_at, updated_at, deleted) "
+                    + "SELECT 'Plan tag ' || n, now(), now(), false FROM generate_series(0, 39) n",
+            // One post in ten a draft, one in twenty deleted, one in fifty recommended
+            "INSERT INTO t_blog (title, description, views, appreciation, share_statement, commentable, published, "
+                    + "recommend, created_at, updated_at, deleted) "
+                    + "SELECT 'Plan post ' || n, 'About ' || n, n % 1000, false, false, true, n % 10 <> 0, n % 50 = 0, "
+                    + "now() - n * interval '1 hour', now() - n * interval '1 minute', n % 20 = 0 "
+                    + "FROM generate_series(1, 20000) n",
+            "INSERT INTO t_blog_content (blog_id, content) SELECT id, 'Body of ' || title FROM t_blog "
+                    + "WHERE title LIKE 'Plan post %'",
+            "INSERT INTO t_blog_tag (blog_id, tag_id) SELECT b.id, t.id FROM t_blog b "
+                    + "JOIN t_tag t ON t.name IN ('Plan tag ' || b.id % 40, 'Plan tag ' || (b.id + 7) % 40) "
+                    + "WHERE b.title LIKE 'Plan post %'",
+            "INSERT INTO t_comment (nickname, content, admin_comment, blog_id, created_at, updated_at, deleted) "
+                    + "SELECT 'Reader', 'Comment', false, b.id, now() - n * interval '1 minute', now(), false "
+                    + "FROM t_blog b, generate_series(1, 3) n WHERE b.title LIKE 'Plan post %'",
+            "INSERT INTO t_refresh_token (token, expiry_date, user_id) "
+                    + "SELECT 'plan-' || u.id || '-' || n, now() + n * interval '1 hour', u.id "
+                    + "FROM t_user u, generate_series(1, 20) n WHERE u.username LIKE 'plan-%'",
+            "ANALYZE"
+    };
+    private static boolean filled;
+
+    // As the controllers page by default, and as the services limit keyset queries
+    private static final Pageable PAGE = PageRequest.of(0, 8, Sort.by(Sort.Direction.DESC, "updatedAt", "id"));
+    private static final Pageable LIMIT = PageRequest.of(0, 9);
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final Pattern ACCESS = Pattern.compile("(Seq Scan on \\w+|Index (?:Only )?Scan(?: Backward)? using \\w+"
+            + "|Bitmap Index Scan on \\w+)");
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Records each prepared statement the app executes with the setter calls that bound its parameters
+    @TestConfiguration
+    static class Recorder {
+
+        static final List<Executed> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        record Executed(String sql, List<Binding> bindings) {}
+
+        record Binding(Method setter, Object[] args) {}
+
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource, Recorder::record) : bean;
+                }
+            };
+        }
+
+        private static Object record(Object target, Method method, Object[] args) throws Throwable {
+            Object result = invoke(target, method, args);
+            if (result instanceof Connection connection && method.getName().equals("getConnection")) {
+                return proxy(Connection.class, connection, Recorder::record);
+            }
+            if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                List<Binding> bindings = new ArrayList<>();
+                return proxy(PreparedStatement.class, statement, (real, call, callArgs) -> {
+                    if (call.getName().startsWith("set") && callArgs != null && callArgs.length > 1
+                            && callArgs[0] instanceof Integer) {
+                        bindings.add(new Binding(call, callArgs));
+                    } else if (call.getName().startsWith("execute") && call.getParameterCount() == 0) {
+                        STATEMENTS.add(new Executed((String) args[0], List.copyOf(bindings)));
+                    }
+                    return invoke(real, call, callArgs);
+                });
+            }
+            return result;
+        }
+
+        private static <T> T proxy(Class<T> type, T target, Handler handler) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> handler.handle(target, method, args)));
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        interface Handler {
+            Object handle(Object target, Method method, Object[] args) throws Throwable;
+        }
+    }
+
+    private record Query(String name, String index, Runnable call) {}
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        if (!filled) {
+            jdbcTemplate.batchUpdate(VOLUME);
+            filled = true;
+        }
+        Recorder.STATEMENTS.clear();
+    }
+
+    @Test
+    void blogQueries_readThroughTheirPartialIndexes() {
+        assertPlans(List.of(
+                new Query("findByIdAndDeletedFalse", "pk_blog", () -> blogRepository.findByIdAndDeletedFalse(1L)),
+                new Query("findLiveIds", "idx_blog_live_updated", () -> blogRepository.findLiveIds()),
+                new Query("findByDeletedFalse", "idx_blog_live_updated", () -> blogRepository.findByDeletedFalse(PAGE)),
+                new Query("findAllAfter", "idx_blog_live_updated", () -> blogRepository.findAllAfter(NOW, 1L, LIMIT)),
+                new Query("findSearchViewsByQuery", "idx_blog_published_updated",
+                        () -> blogRepository.findSearchViewsByQuery("%a%", PAGE)),
+                new Query("findPublishedAfter", "idx_blog_published_updated",
+                        () -> blogRepository.findPublishedAfter(NOW, 1L, LIMIT)),
+                new Query("findByQueryAfter", "idx_blog_published_updated",
+                        () -> blogRepository.findByQueryAfter("%a%", NOW, 1L, LIMIT)),
+                new Query("findRecommendBlogs", "idx_blog_recommend_updated", () -> blogRepository.findRecommendBlogs(PAGE)),
+                new Query("streamArchiveEntries", "idx_blog_published_created", () -> {
+                    try (var entries = blogRepository.streamArchiveEntries()) {
+                        entries.findFirst();
+                    }
+                }),
+                new Query("findByTagId", "idx_blog_tag_tag", () -> blogRepository.findByTagId(1L, PAGE)),
+                new Query("findByTagIdAfter", "idx_blog_tag_tag", () -> blogRepository.findByTagIdAfter(1L, NOW, 1L, LIMIT)),
+                new Query("findTagsByBlogIds", "idx_blog_tag_blog", () -> blogRepository.findTagsByBlogIds(List.of(1L, 2L))),
+                new Query("findIndexViewsUpdatedAfter", "idx_blog_updated_at",
+                        () -> blogRepository.findIndexViewsUpdatedAfter(NOW)),
+                new Query("findIndexViewById", "pk_blog", () -> blogRepository.findIndexViewById(1L))));
+    }
+
+    // Written as an OR the cursor is only a filter, and each page reads the index from the newest post down to it
+    @Test
+    void keysetQueries_startTheIndexScanAtTheCursor() {
+        List<Runnable> calls = List.of(
+                () -> blogRepository.findAllAfter(NOW, 1L, LIMIT),
+                () -> blogRepository.findPublishedAfter(NOW, 1L, LIMIT),
+                () -> blogRepository.findByQueryAfter("%a%", NOW, 1L, LIMIT));
+        for (Runnable call : calls) {
+            Recorder.STATEMENTS.clear();
+            transactionTemplate.executeWithoutResult(status -> call.run());
+            String plan = explain(Recorder.STATEMENTS.get(0));
+            assertTrue(plan.contains("Index Cond: (ROW(updated_at, id) < ROW("), plan);
+        }
+    }
+
+    @Test
+    void commentAndTokenQueries_readThroughTheirIndexes() {
+        assertPlans(List.of(
+                new Query("findViewsByBlogId", "idx_comment_blog_created", () -> commentRepository.findViewsByBlogId(1L)),
+                new Query("deleteByUserId", "idx_refresh_token_user", () -> refreshTokenRepository.deleteByUserId(-1L)),
+                new Query("deleteExpiredTokens", "idx_refresh_token_expiry",
+                        () -> refreshTokenRepository.deleteExpiredTokens(NOW.minusYears(10)))));
+    }
+
+    private void assertPlans(List<Query> queries) {
+        List<Executable> checks = new ArrayList<>();
+        for (Query query : queries) {
+            Recorder.STATEMENTS.clear();
+            transactionTemplate.executeWithoutResult(status -> query.call().run());
+            assertFalse(Recorder.STATEMENTS.isEmpty(), query.name());
+            // The first statement is the query itself; a page's count query follows it
+            List<String> access = accessPaths(explain(Recorder.STATEMENTS.get(0)));
+            checks.add(() -> assertTrue(access.stream().anyMatch(path -> path.endsWith(" " + query.index()))
+                            && access.stream().noneMatch(path -> path.startsWith("Seq Scan")),
+                    query.name() + " should read through " + query.index() + " and scan nothing, but reads " + access));
+        }
+        assertAll(checks);
+    }
+
+    private static List<String> accessPaths(String plan) {
+        List<String> paths = new ArrayList<>();
+        Matcher matcher = ACCESS.matcher(plan);
+        while (matcher.find()) {
+            paths.add(matcher.group(1));
+        }
+        return paths;
+    }
+
+    private String explain(Recorder.Executed executed) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (Statement settings = connection.createStatement()) {
+                settings.execute("SET enable_seqscan = off");
+                try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + executed.sql())) {
+                    for (Recorder.Binding binding : executed.bindings()) {
+                        binding.setter().invoke(explain, binding.args());
+                    }
+                    StringBuilder lines = new StringBuilder();
+                    try (ResultSet plan = explain.executeQuery()) {
+                        while (plan.next()) {
+                            lines.append(plan.getString(1)).append('\n');
+                        }
+                    }
+                    return lines.toString();
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    settings.execute("RESET enable_seqscan");
+                }
+            }
+        });
+    }
+}
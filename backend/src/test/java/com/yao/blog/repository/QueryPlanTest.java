@@ -0,0 +1,166 @@
+package com.yao.blog.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs EXPLAIN on the SQL each repository query generates and checks that it reads through the index the
+ * migrations create for it and scans no table, so a changed query or a dropped index fails here rather
+ * than showing up as a slow page. The plans are H2's, over the H2 twins of the Postgres indexes; index
+ * names are matched by substring so H2's own foreign key indexes count for the explicit Postgres ones.
+ * H2 ignores the partial predicates and column orders those twins cannot express, so
+ * {@link PostgresQueryPlanTest} checks the real indexes.
+ */
+@SpringBootTest(properties = {"blog.cache.enabled=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.yao.blog.repository.QueryPlanTest$Recorder"})
+@ActiveProfiles("test")
+class QueryPlanTest {
+
+    // As the controllers page by default, and as the services limit keyset queries
+    private static final Pageable PAGE = PageRequest.of(0, 8, Sort.by(Sort.Direction.DESC, "updatedAt", "id"));
+    private static final Pageable LIMIT = PageRequest.of(0, 9);
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final String PRIMARY_KEY = "PRIMARY_KEY";
+    private static final String LIVE = "IDX_BLOG_LIVE_UPDATED";
+    // H2 does not weigh the order an index returns rows in, so to it the indexes over published posts are
+    // interchangeable; Postgres picks among them by the ORDER BY
+    private static final String PUBLISHED = "IDX_BLOG_PUBLISHED_";
+    // Nor does it weigh the twins' missing partial predicates, so for a keyset page any index that starts at the
+    // cursor does; PostgresQueryPlanTest pins the real one
+    private static final String BY_UPDATED = "_UPDATED";
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public static class Recorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    private record Query(String name, String index, Runnable call) {}
+
+    @BeforeEach
+    void setUp() {
+        Recorder.STATEMENTS.clear();
+    }
+
+    @Test
+    void blogQueries_readThroughTheirIndexes() {
+        assertPlans(List.of(
+                new Query("findByIdAndDeletedFalse", PRIMARY_KEY, () -> blogRepository.findByIdAndDeletedFalse(1L)),
+                new Query("findLiveIds", LIVE, () -> blogRepository.findLiveIds()),
+                new Query("findVersionById", PRIMARY_KEY, () -> blogRepository.findVersionById(1L)),
+                new Query("findByDeletedFalse", LIVE, () -> blogRepository.findByDeletedFalse(PAGE)),
+                new Query("findSearchViewsByQuery", PUBLISHED, () -> blogRepository.findSearchViewsByQuery("%a%", PAGE)),
+                new Query("findByIdIn", PRIMARY_KEY, () -> blogRepository.findByIdIn(List.of(1L, 2L))),
+                new Query("findMostViewedIds", PUBLISHED, () -> blogRepository.findMostViewedIds(PAGE)),
+                new Query("findRecommendBlogs", "IDX_BLOG_RECOMMEND_UPDATED", () -> blogRepository.findRecommendBlogs(PAGE)),
+                new Query("findByTagId", "IDX_BLOG_TAG_TAG", () -> blogRepository.findByTagId(1L, PAGE)),
+                new Query("findAllAfter", LIVE, () -> blogRepository.findAllAfter(NOW, 1L, LIMIT)),
+                new Query("findPublishedAfter", BY_UPDATED, () -> blogRepository.findPublishedAfter(NOW, 1L, LIMIT)),
+                new Query("findByTagIdAfter", "IDX_BLOG_TAG_TAG", () -> blogRepository.findByTagIdAfter(1L, NOW, 1L, LIMIT)),
+                new Query("findByQueryAfter", BY_UPDATED, () -> blogRepository.findByQueryAfter("%a%", NOW, 1L, LIMIT)),
+                new Query("streamArchiveEntries", PUBLISHED, () -> {
+                    try (var entries = blogRepository.streamArchiveEntries()) {
+                        entries.findFirst();
+                    }
+                }),
+                new Query("findArchiveEntry", PRIMARY_KEY, () -> blogRepository.findArchiveEntry(1L)),
+                new Query("findTagsByBlogIds", "BLOG_TAG_BLOG", () -> blogRepository.findTagsByBlogIds(List.of(1L, 2L))),
+                new Query("findIndexViewsAfterId", PUBLISHED, () -> blogRepository.findIndexViewsAfterId(0L, PAGE)),
+                new Query("findIndexViewsUpdatedAfter", "IDX_BLOG_UPDATED_AT",
+                        () -> blogRepository.findIndexViewsUpdatedAfter(NOW)),
+                new Query("findIndexViewById", PRIMARY_KEY, () -> blogRepository.findIndexViewById(1L)),
+                new Query("countByDeletedFalse", LIVE, () -> blogRepository.countByDeletedFalse()),
+                new Query("findRenderSourcesAfterId", LIVE, () -> blogRepository.findRenderSourcesAfterId(0L, 1, false, PAGE)),
+                new Query("countRenderTargetsAfterId", LIVE, () -> blogRepository.countRenderTargetsAfterId(0L, 1, false))));
+    }
+
+    @Test
+    void commentAndTokenQueries_readThroughTheirIndexes() {
+        assertPlans(List.of(
+                new Query("findViewsByBlogId", "COMMENT_BLOG", () -> commentRepository.findViewsByBlogId(1L)),
+                new Query("findLiveBlogId", PRIMARY_KEY, () -> commentRepository.findLiveBlogId(1L)),
+                new Query("deleteByUserId", "REFRESH_TOKEN_USER", () -> refreshTokenRepository.deleteByUserId(-1L)),
+                new Query("deleteExpiredTokens", "IDX_REFRESH_TOKEN_EXPIRY",
+                        () -> refreshTokenRepository.deleteExpiredTokens(NOW.minusYears(10)))));
+    }
+
+    private void assertPlans(List<Query> queries) {
+        List<Executable> checks = new ArrayList<>();
+        for (Query query : queries) {
+            Recorder.STATEMENTS.clear();
+            transactionTemplate.executeWithoutResult(status -> query.call().run());
+            assertFalse(Recorder.STATEMENTS.isEmpty(), query.name());
+            // The first statement is the query itself; a page's count query follows it
+            List<String> access = accessPaths(explain(Recorder.STATEMENTS.get(0)));
+            checks.add(() -> assertTrue(access.stream().anyMatch(path -> path.contains(query.index()))
+                            && access.stream().noneMatch(path -> path.endsWith("TABLESCAN")),
+                    query.name() + " should read through " + query.index() + " and scan nothing, but reads " + access));
+        }
+        assertAll(checks);
+    }
+
+    // The index (or table scan) H2 chose for each table, from the comments it puts in the plan
+    private static List<String> accessPaths(String plan) {
+        return plan.lines()
+                .map(String::trim)
+                .filter(line -> line.startsWith("/* PUBLIC."))
+                .map(line -> line.substring("/* PUBLIC.".length()).split("[: ]")[0].toUpperCase(Locale.ROOT))
+                .toList();
+    }
+
+    // Plans with every parameter null: H2 picks indexes from the shape of the query, not the values
+    private String explain(String sql) {
+        return jdbcTemplate.execute((java.sql.Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setObject(i, null);
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    plan.next();
+                    return plan.getString(1);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,135 @@
+package com.yao.blog.search;
+
+import com.yao.blog.event.BlogChangedEvent;
+import com.yao.blog.repository.BlogRepository;
+import com.yao.blog.repository.projection.BlogIndexView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class InvertedIndexSearchEngineTest {
+
+    private final BlogRepository blogRepository = mock(BlogRepository.class);
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final InvertedIndexSearchEngine engine = new InvertedIndexSearchEngine(blogRepository, redisTemplate, null, 1);
+    private final InvertedIndexSearchEngine replica = new InvertedIndexSearchEngine(blogRepository, null, null, 1);
+
+    @Test
+    void changes_areAppliedWithoutRebuilding() {
+        engine.onBlogChanged(event(1L, BlogChangedEvent.Type.CREATED, true, "Gardening in spring"));
+        assertEquals(List.of(1L), hits(engine, "gardening"));
+
+        engine.onBlogChanged(event(1L, BlogChangedEvent.Type.UPDATED, true, "Beekeeping in spring"));
+        assertEquals(List.of(), hits(engine, "gardening"));
+        assertEquals(List.of(1L), hits(engine, "beekeeping"));
+
+        engine.onBlogChanged(event(1L, BlogChangedEvent.Type.UPDATED, false, "Beekeeping in spring"));
+        assertEquals(List.of(), hits(engine, "beekeeping"));
+
+        engine.onBlogChanged(event(1L, BlogChangedEvent.Type.UPDATED, true, "Beekeeping in spring"));
+        engine.onBlogChanged(event(1L, BlogChangedEvent.Type.DELETED, true, "Beekeeping in spring"));
+        assertEquals(List.of(), hits(engine, "beekeeping"));
+        verifyNoInteractions(blogRepository);
+    }
+
+    // The rebuild reads rows committed before the change; the journal puts the change back on top
+    @Test
+    void changesDuringARebuild_areReplayedOntoTheNewIndex() {
+        when(blogRepository.findIndexViewsAfterId(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            engine.onBlogChanged(event(1L, BlogChangedEvent.Type.UPDATED, true, "Sourdough starter"));
+            engine.onBlogChanged(event(2L, BlogChangedEvent.Type.DELETED, true, "Rye bread"));
+            engine.onBlogChanged(event(3L, BlogChangedEvent.Type.CREATED, true, "Focaccia"));
+            return List.of(row(1L, "Baguette", true), row(2L, "Rye bread", true));
+        });
+
+        engine.rebuild();
+
+        assertEquals(List.of(1L), hits(engine, "sourdough"));
+        assertEquals(List.of(), hits(engine, "baguette"));
+        assertEquals(List.of(), hits(engine, "rye"));
+        assertEquals(List.of(3L), hits(engine, "focaccia"));
+    }
+
+    @Test
+    void changes_reachOtherReplicasAsIds() {
+        when(blogRepository.findIndexViewById(7L)).thenReturn(Optional.of(row(7L, "Kayaking the fjords", true)));
+
+        engine.onBlogChanged(event(7L, BlogChangedEvent.Type.CREATED, true, "Kayaking the fjords"));
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(InvertedIndexSearchEngine.CHANNEL), message.capture());
+        byte[] body = message.getValue().getBytes(StandardCharsets.UTF_8);
+
+        replica.receive(body);
+        assertEquals(List.of(7L), hits(replica, "kayaking"));
+
+        when(blogRepository.findIndexViewById(7L)).thenReturn(Optional.of(row(7L, "Kayaking the fjords", false)));
+        replica.receive(body);
+        assertEquals(List.of(), hits(replica, "kayaking"));
+
+        // A node's own messages come back to it and are skipped
+        engine.receive(body);
+        verify(blogRepository, times(2)).findIndexViewById(anyLong());
+    }
+
+    @AfterEach
+    void close() {
+        engine.close();
+        replica.close();
+    }
+
+    private static List<Long> hits(InvertedIndexSearchEngine engine, String query) {
+        return engine.search(query, PageRequest.of(0, 10)).getContent().stream().map(SearchHit::blogId).toList();
+    }
+
+    private static BlogChangedEvent event(Long id, BlogChangedEvent.Type type, boolean published, String title) {
+        return new BlogChangedEvent(id, type, published, title, null, title, LocalDateTime.now());
+    }
+
+    private static BlogIndexView row(Long id, String title, boolean published) {
+        return new BlogIndexView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getTitle() {
+                return title;
+            }
+
+            @Override
+            public String getDescription() {
+                return null;
+            }
+
+            @Override
+            public String getContent() {
+                return title;
+            }
+
+            @Override
+            public boolean isPublished() {
+                return published;
+            }
+
+            @Override
+            public boolean isDeleted() {
+                return false;
+            }
+        };
+    }
+}
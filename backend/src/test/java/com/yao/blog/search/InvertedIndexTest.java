@@ -0,0 +1,71 @@
+package com.yao.blog.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    @Test
+    void search_ranksTitleMatchesAboveContentMatches() {
+        index.put(InvertedIndex.analyze(1L, "Cooking pasta", null, "A note that mentions docker once."));
+        index.put(InvertedIndex.analyze(2L, "Docker Compose tips", "Local development with Docker", "Compose files."));
+        index.put(InvertedIndex.analyze(3L, "Unrelated", null, "Nothing to see here."));
+
+        Page<SearchHit> hits = index.search("Docker", PageRequest.of(0, 10));
+
+        assertEquals(2, hits.getTotalElements());
+        assertEquals(2L, hits.getContent().get(0).blogId());
+        assertEquals(1L, hits.getContent().get(1).blogId());
+        assertTrue(hits.getContent().get(0).highlight().contains("<mark>Docker</mark>"));
+    }
+
+    @Test
+    void put_replacesPreviousVersionAndRemoveDropsDocument() {
+        index.put(InvertedIndex.analyze(1L, "Spring Boot", null, "beans"));
+        index.put(InvertedIndex.analyze(1L, "Kubernetes", null, "pods"));
+
+        assertEquals(0, index.search("spring", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(1, index.search("pods", PageRequest.of(0, 10)).getTotalElements());
+
+        index.remove(1L);
+
+        assertEquals(0, index.documentCount());
+        assertEquals(0, index.termCount());
+    }
+
+    @Test
+    void search_pagesThroughRankedHits() {
+        for (long id = 1; id <= 5; id++) {
+            index.put(InvertedIndex.analyze(id, "Java post " + id, null, "java"));
+        }
+
+        Page<SearchHit> second = index.search("java", PageRequest.of(1, 2));
+
+        assertEquals(5, second.getTotalElements());
+        assertEquals(2, second.getContent().size());
+    }
+
+    @Test
+    void snapshot_roundTripsDocuments() throws Exception {
+        index.put(InvertedIndex.analyze(1L, "Next.js App Router", "Server components", "streaming and layouts"));
+        index.put(InvertedIndex.analyze(2L, "PostgreSQL indexes", null, "GIN and btree"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+        InvertedIndex restored = InvertedIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(index.documentCount(), restored.documentCount());
+        assertEquals(index.termCount(), restored.termCount());
+        assertEquals(2L, restored.search("gin", PageRequest.of(0, 10)).getContent().get(0).blogId());
+    }
+}
@@ -0,0 +1,169 @@
+package com.yao.blog.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The engine against a real PostgreSQL migrated like production, V9's search columns included. Skipped
+ * where Docker is unavailable.
+ */
+@SpringBootTest(properties = {"blog.cache.enabled=false", "blog.search.engine=auto",
+        "spring.jpa.hibernate.ddl-auto=none"})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresBlogSearchEngineTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", POSTGRES::getDriverClassName);
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Autowired
+    private BlogSearchEngine engine;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @Test
+    void auto_selectsThePostgresEngine() {
+        assertInstanceOf(PostgresBlogSearchEngine.class, engine);
+    }
+
+    @Test
+    void search_ranksTitleMatchesFirstAndHighlightsTheBody() {
+        long inTitle = insert("Quokka field notes", null, "Observations from the island.", true, false);
+        long inBody = insert("Island travel", null, "We saw a quokka near the <b>ferry</b>.", true, false);
+
+        Page<SearchHit> hits = engine.search("quokka", PageRequest.of(0, 10));
+
+        assertEquals(List.of(inTitle, inBody), ids(hits));
+        assertEquals(2, hits.getTotalElements());
+        assertTrue(hits.getContent().get(0).score() > hits.getContent().get(1).score());
+        String highlight = hits.getContent().get(1).highlight();
+        assertTrue(highlight.contains("<mark>quokka</mark>"), highlight);
+        assertFalse(highlight.contains("<b>"), highlight);
+    }
+
+    @Test
+    void search_skipsDeletedAndUnpublishedPosts() {
+        long live = insert("Wombat burrows", null, "Digging.", true, false);
+        insert("Wombat draft", null, "Not yet.", false, false);
+        insert("Wombat removed", "Wombat", "Gone.", true, true);
+
+        Page<SearchHit> hits = engine.search("wombat", PageRequest.of(0, 10));
+
+        assertEquals(List.of(live), ids(hits));
+        assertEquals(1, hits.getTotalElements());
+    }
+
+    // websearch_to_tsquery: quoted phrases, -exclusions and stemming, none of which the LIKE engine does
+    @Test
+    void search_understandsWebSearchSyntax() {
+        long calm = insert("Calm day", null, "The ferry crossing was smooth.", true, false);
+        insert("Rough day", null, "The ferry crossing hit a storm.", true, false);
+        insert("Other day", null, "A crossing, then a ferry.", true, false);
+
+        assertEquals(List.of(calm), ids(engine.search("\"ferry crossings\" -storm", PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void pagePastTheLastHit_isEmptyButKeepsTheTotal() {
+        insert("Platypus", null, "Eggs.", true, false);
+
+        Page<SearchHit> hits = engine.search("platypus", PageRequest.of(3, 10));
+
+        assertTrue(hits.getContent().isEmpty());
+        assertEquals(1, hits.getTotalElements());
+    }
+
+    // Sequential scans are off, so only a query that cannot use the V9 GIN indexes plans without them
+    @Test
+    void search_matchesThroughBothGinIndexes() {
+        insert("Echidna spines", null, "Quills.", true, false);
+
+        String count = explain(PostgresBlogSearchEngine.COUNT_SQL, "english", "echidna", "english", "echidna");
+        String page = explain(PostgresBlogSearchEngine.PAGE_SQL, "english", "", "english", "echidna", "english", "echidna",
+                "english", "echidna", 10, 0);
+
+        for (String plan : List.of(count, page)) {
+            assertTrue(plan.contains("Bitmap Index Scan on idx_blog_search_vector"), plan);
+            assertTrue(plan.contains("Bitmap Index Scan on idx_blog_content_search_vector"), plan);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        created.forEach(id -> {
+            jdbcTemplate.update("DELETE FROM t_blog_content WHERE blog_id = ?", id);
+            jdbcTemplate.update("DELETE FROM t_blog WHERE id = ?", id);
+        });
+        created.clear();
+    }
+
+    private long insert(String title, String description, String content, boolean published, boolean deleted) {
+        LocalDateTime now = LocalDateTime.now();
+        Long id = jdbcTemplate.queryForObject("INSERT INTO t_blog (title, description, views, appreciation, "
+                        + "share_statement, commentable, published, recommend, created_at, updated_at, deleted) "
+                        + "VALUES (?, ?, 0, false, false, true, ?, false, ?, ?, ?) RETURNING id",
+                Long.class, title, description, published, now, now, deleted);
+        jdbcTemplate.update("INSERT INTO t_blog_content (blog_id, content) VALUES (?, ?)", id, content);
+        created.add(id);
+        return id;
+    }
+
+    private String explain(String sql, Object... args) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (Statement settings = connection.createStatement()) {
+                settings.execute("SET enable_seqscan = off");
+                try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                    for (int i = 0; i < args.length; i++) {
+                        explain.setObject(i + 1, args[i]);
+                    }
+                    StringBuilder lines = new StringBuilder();
+                    try (ResultSet plan = explain.executeQuery()) {
+                        while (plan.next()) {
+                            lines.append(plan.getString(1)).append('\n');
+                        }
+                    }
+                    return lines.toString();
+                } finally {
+                    settings.execute("RESET enable_seqscan");
+                }
+            }
+        });
+    }
+
+    private static List<Long> ids(Page<SearchHit> hits) {
+        return hits.getContent().stream().map(SearchHit::blogId).toList();
+    }
+}
@@ -0,0 +1,98 @@
+package com.yao.blog.security;
+
+import com.yao.blog.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the legacy per-request user lookup with the stateless token path through the real filter.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class JwtAuthenticationBenchmark {
+
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 20_000;
+
+    @Autowired
+    private JwtAuthenticationFilter filter;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void compareLegacyAndStatelessPaths() throws Exception {
+        com.yao.blog.entity.User admin = userRepository.findByUsernameAndDeletedFalse("admin").orElseThrow();
+        // A plain UserDetails gets no embedded claims, which is what tokens issued before this change look like
+        String legacyToken = jwtService.generateToken(User.withUsername("admin").password("x").roles("ADMIN").build());
+        String statelessToken = jwtService.generateToken(new CustomUserDetails(admin));
+
+        Result legacy = run(legacyToken);
+        Result stateless = run(statelessToken);
+
+        System.out.printf("%nJWT authentication, %d requests%n", ITERATIONS);
+        System.out.printf("  legacy    : %8.1f us/request, %.2f statements/request%n", legacy.micros(), legacy.statements());
+        System.out.printf("  stateless : %8.1f us/request, %.2f statements/request%n", stateless.micros(), stateless.statements());
+        System.out.printf("  speed-up  : %8.1fx%n%n", legacy.micros() / stateless.micros());
+
+        assertEquals(1.0, legacy.statements(), 0.01);
+        assertEquals(0.0, stateless.statements(), 0.01);
+    }
+
+    private Result run(String token) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            authenticate(token);
+        }
+        statistics.clear();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            authenticate(token);
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Result(elapsed / 1_000.0 / ITERATIONS, (double) statistics.getPrepareStatementCount() / ITERATIONS);
+    }
+
+    private void authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/admin/blogs");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private record Result(double micros, double statements) {}
+}
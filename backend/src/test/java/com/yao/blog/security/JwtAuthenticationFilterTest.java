@@ -0,0 +1,72 @@
+package com.yao.blog.security;
+
+import com.yao.blog.entity.User;
+import com.yao.blog.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class JwtAuthenticationFilterTest {
+
+    @Autowired
+    private JwtAuthenticationFilter filter;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void statelessToken_buildsPrincipalFromClaims() throws Exception {
+        User admin = userRepository.findByUsernameAndDeletedFalse("admin").orElseThrow();
+        String token = jwtService.generateToken(new CustomUserDetails(admin));
+
+        Authentication authentication = authenticate(token);
+
+        assertNotNull(authentication);
+        CustomUserDetails principal = (CustomUserDetails) authentication.getPrincipal();
+        assertEquals(admin.getId(), principal.getId());
+        assertTrue(authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")));
+    }
+
+    @Test
+    void revokedToken_isRejectedImmediately() throws Exception {
+        User admin = userRepository.findByUsernameAndDeletedFalse("admin").orElseThrow();
+        String token = jwtService.generateToken(new CustomUserDetails(admin));
+        assertNotNull(authenticate(token));
+
+        tokenVersionService.revoke(admin.getId());
+
+        assertNull(authenticate(token));
+        User reloaded = userRepository.findByUsernameAndDeletedFalse("admin").orElseThrow();
+        assertNotNull(authenticate(jwtService.generateToken(new CustomUserDetails(reloaded))));
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/admin/blogs");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,127 @@
+package com.yao.blog.service;
+
+import com.yao.blog.dto.response.ArchiveMonthResponse;
+import com.yao.blog.dto.response.ArchiveResponse;
+import com.yao.blog.entity.Blog;
+import com.yao.blog.entity.BlogContent;
+import com.yao.blog.event.BlogChangedEvent;
+import com.yao.blog.repository.BlogContentRepository;
+import com.yao.blog.repository.BlogRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "blog.cache.enabled=false")
+@ActiveProfiles("test")
+class ArchiveIndexTest {
+
+    @Autowired
+    private ArchiveIndex archiveIndex;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private BlogContentRepository blogContentRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @Test
+    void groupsPostsByYearAndMonth_inOneQuery() {
+        Blog march = publish("Spring of 2009");
+        Blog november = publish("Autumn of 2009");
+        jdbcTemplate.update("UPDATE t_blog SET created_at = ? WHERE id = ?", LocalDateTime.of(2009, 3, 14, 9, 0), march.getId());
+        jdbcTemplate.update("UPDATE t_blog SET created_at = ? WHERE id = ?", LocalDateTime.of(2009, 11, 2, 9, 0), november.getId());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        archiveIndex.rebuild();
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        List<ArchiveResponse> index = archiveIndex.index();
+        assertEquals(index.stream().map(ArchiveResponse::getYear).sorted((a, b) -> b - a).toList(),
+                index.stream().map(ArchiveResponse::getYear).toList());
+        ArchiveResponse indexed = index.stream().filter(year -> year.getYear() == 2009).findFirst().orElseThrow();
+        assertEquals(2, indexed.getCount());
+        assertTrue(indexed.getMonths().stream().allMatch(month -> month.getBlogs() == null));
+
+        ArchiveResponse year = archiveIndex.year(2009);
+        assertEquals(List.of(11, 3), year.getMonths().stream().map(ArchiveMonthResponse::getMonth).toList());
+        assertEquals(november.getId(), year.getMonths().get(0).getBlogs().get(0).getId());
+        assertEquals("Spring of 2009", year.getMonths().get(1).getBlogs().get(0).getTitle());
+        assertNull(archiveIndex.year(1999));
+    }
+
+    @Test
+    void followsPublishesAndDeletesWithoutRebuilding() {
+        archiveIndex.rebuild();
+        int thisYear = LocalDate.now().getYear();
+        int before = archiveIndex.year(thisYear).getCount();
+
+        Blog blog = publish("Fresh post");
+        ArchiveResponse year = archiveIndex.year(thisYear);
+        assertEquals(before + 1, year.getCount());
+        assertEquals(blog.getId(), year.getMonths().get(0).getBlogs().get(0).getId());
+        assertEquals(before + 1, archiveIndex.index().get(0).getCount());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Blog managed = blogRepository.findById(blog.getId()).orElseThrow();
+            managed.setDeleted(true);
+            eventPublisher.publishEvent(BlogChangedEvent.of(managed, null, BlogChangedEvent.Type.DELETED));
+        });
+        assertEquals(before, archiveIndex.year(thisYear).getCount());
+        assertTrue(archiveIndex.year(thisYear).getMonths().stream()
+                .flatMap(month -> month.getBlogs().stream())
+                .noneMatch(entry -> entry.getId().equals(blog.getId())));
+    }
+
+    // Other tests in this context expect every listed post to have an author and tags
+    @AfterEach
+    void removePosts() {
+        created.forEach(id -> {
+            jdbcTemplate.update("DELETE FROM t_blog_content WHERE blog_id = ?", id);
+            jdbcTemplate.update("DELETE FROM t_blog WHERE id = ?", id);
+        });
+        created.clear();
+        archiveIndex.rebuild();
+    }
+
+    // What BlogService.createBlog does, minus the security context it needs
+    private Blog publish(String title) {
+        Blog saved = transactionTemplate.execute(status -> {
+            Blog blog = blogRepository.save(Blog.builder().title(title).published(true).build());
+            blogContentRepository.save(BlogContent.builder().blog(blog).content(title).build());
+            eventPublisher.publishEvent(BlogChangedEvent.of(blog, title, BlogChangedEvent.Type.CREATED));
+            return blog;
+        });
+        created.add(saved.getId());
+        return saved;
+    }
+}
@@ -0,0 +1,52 @@
+package com.yao.blog.service;
+
+import com.yao.blog.entity.RefreshToken;
+import com.yao.blog.entity.User;
+import com.yao.blog.repository.RefreshTokenRepository;
+import com.yao.blog.security.TokenVersionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @InjectMocks
+    private AuthService authService;
+
+    // Signing out on one device leaves the user's other sessions and their access tokens alone
+    @Test
+    void logout_endsOnlyThatSession() {
+        User user = new User();
+        user.setId(1L);
+        RefreshToken token = RefreshToken.builder().token("laptop").user(user).build();
+        when(refreshTokenRepository.findByToken("laptop")).thenReturn(Optional.of(token));
+
+        authService.logout("laptop");
+
+        verify(refreshTokenRepository).delete(token);
+        verify(refreshTokenRepository, never()).deleteByUserId(anyLong());
+        verifyNoInteractions(tokenVersionService);
+    }
+
+    @Test
+    void logoutEverywhere_revokesEverySession() {
+        authService.logoutEverywhere(1L);
+
+        verify(refreshTokenRepository).deleteByUserId(1L);
+        verify(tokenVersionService).revoke(1L);
+    }
+}
@@ -0,0 +1,177 @@
+package com.yao.blog.service;
+
+import com.yao.blog.entity.Blog;
+import com.yao.blog.repository.BlogContentRepository;
+import com.yao.blog.repository.BlogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Listing queries over 10k posts, one page and all of them at once, as they run now and with every body loaded alongside, which is
+ * what the single-table mapping did. Reports time, bytes allocated and heap held by the persistence context.
+ * Uses a file-backed H2 database with a small page cache and no result reuse: otherwise H2 hands out the
+ * strings it already holds and bodies cost nothing to read. Run with {@code mvn test -Pbenchmark}.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:file:./target/listing-benchmark/db;CACHE_SIZE=1024;OPTIMIZE_REUSE_RESULTS=FALSE;QUERY_CACHE_SIZE=0",
+        "blog.cache.enabled=false", "logging.level.com.yao.blog=INFO",
+        "logging.level.org.springframework=INFO", "logging.level.org.hibernate=WARN",
+        "spring.jpa.properties.hibernate.generate_statistics=false"})
+@ActiveProfiles("test")
+class BlogListingBenchmark {
+
+    private static final int POSTS = 10_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int PAGES = 200;
+    private static final int WARMUP = 2;
+    private static final int ARCHIVE_RUNS = 5;
+    private static final String TITLE_PREFIX = "Benchmark post ";
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private BlogContentRepository blogContentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void compareListingsWithAndWithoutBodies() {
+        seed();
+        Result page;
+        Result pageWithBodies;
+        Result all;
+        Result allWithBodies;
+        try {
+            transactionTemplate.setReadOnly(true);
+            page = pages(false);
+            pageWithBodies = pages(true);
+            all = all(false);
+            allWithBodies = all(true);
+        } finally {
+            transactionTemplate.setReadOnly(false);
+            cleanUp();
+        }
+
+        System.out.printf("%n%d posts (~%d KB Markdown + HTML each), read-only transactions%n", POSTS, body(0).length() * 2 / 1024);
+        System.out.printf("  list page (%d)          : %7.2f ms, %7.2f MB allocated%n", PAGE_SIZE, page.millis(), page.allocatedMb());
+        System.out.printf("  list page + bodies      : %7.2f ms, %7.2f MB allocated%n", pageWithBodies.millis(), pageWithBodies.allocatedMb());
+        System.out.printf("  all posts               : %7.2f ms, %7.2f MB allocated, %6.1f MB held%n",
+                all.millis(), all.allocatedMb(), all.retainedMb());
+        System.out.printf("  all posts + bodies      : %7.2f ms, %7.2f MB allocated, %6.1f MB held%n%n",
+                allWithBodies.millis(), allWithBodies.allocatedMb(), allWithBodies.retainedMb());
+
+        assertTrue(page.allocatedMb() < pageWithBodies.allocatedMb());
+        assertTrue(all.retainedMb() < allWithBodies.retainedMb());
+    }
+
+    private Result pages(boolean withBodies) {
+        for (int i = 0; i < WARMUP; i++) {
+            runPages(withBodies);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        runPages(withBodies);
+        return new Result((System.nanoTime() - start) / 1e6 / PAGES,
+                (threads.getCurrentThreadAllocatedBytes() - allocated) / 1048576.0 / PAGES, 0);
+    }
+
+    private void runPages(boolean withBodies) {
+        for (int p = 0; p < PAGES; p++) {
+            PageRequest request = PageRequest.of(p, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "updatedAt"));
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Blog> blogs = blogRepository.findByDeletedFalse(request).getContent();
+                if (withBodies) {
+                    blogContentRepository.findAllById(blogs.stream().map(Blog::getId).toList());
+                }
+            });
+        }
+    }
+
+    private Result all(boolean withBodies) {
+        for (int i = 0; i < WARMUP; i++) {
+            runAll(withBodies, false);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ARCHIVE_RUNS; i++) {
+            runAll(withBodies, false);
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / ARCHIVE_RUNS;
+        double allocatedMb = (threads.getCurrentThreadAllocatedBytes() - allocated) / 1048576.0 / ARCHIVE_RUNS;
+        return new Result(millis, allocatedMb, runAll(withBodies, true));
+    }
+
+    // With measure set, returns the heap still reachable while the persistence context holds the result
+    private double runAll(boolean withBodies, boolean measure) {
+        long before = measure ? usedHeapAfterGc() : 0;
+        return transactionTemplate.execute(status -> {
+            List<Blog> blogs = blogRepository.findByDeletedFalse(PageRequest.of(0, POSTS * 2)).getContent();
+            assertTrue(blogs.size() >= POSTS);
+            if (withBodies) {
+                blogContentRepository.findAll();
+            }
+            return measure ? (usedHeapAfterGc() - before) / 1048576.0 : 0.0;
+        });
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Plain JDBC: going through JPA would take longer than the measurements
+    private void seed() {
+        Timestamp base = Timestamp.valueOf(LocalDateTime.now().minusDays(POSTS));
+        List<Object[]> blogs = new ArrayList<>();
+        for (int i = 0; i < POSTS; i++) {
+            Timestamp at = new Timestamp(base.getTime() + i * 86_400_000L);
+            blogs.add(new Object[]{TITLE_PREFIX + i, "Description of post " + i, "Excerpt of post " + i, 800, 4, at, at});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO t_blog (title, description, excerpt, word_count, reading_minutes, "
+                + "created_at, updated_at, deleted, views, appreciation, share_statement, commentable, published, "
+                + "recommend, version) VALUES (?, ?, ?, ?, ?, ?, ?, false, 0, false, false, true, true, false, 0)", blogs);
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM t_blog WHERE title LIKE ? ORDER BY id",
+                Long.class, TITLE_PREFIX + "%");
+        List<Object[]> contents = IntStream.range(0, ids.size())
+                .mapToObj(i -> new Object[]{ids.get(i), body(i), "<p>" + body(i) + "</p>"})
+                .toList();
+        jdbcTemplate.batchUpdate("INSERT INTO t_blog_content (blog_id, content, content_html) VALUES (?, ?, ?)", contents);
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("DELETE FROM t_blog_content WHERE blog_id IN (SELECT id FROM t_blog WHERE title LIKE ?)",
+                TITLE_PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM t_blog WHERE title LIKE ?", TITLE_PREFIX + "%");
+    }
+
+    private static String body(int i) {
+        return ("Paragraph " + i + " of a post long enough to look like a real article. ").repeat(60);
+    }
+
+    private record Result(double millis, double allocatedMb, double retainedMb) {}
+}
@@ -0,0 +1,195 @@
+package com.yao.blog.service;
+
+import com.yao.blog.dto.request.BlogRequest;
+import com.yao.blog.dto.response.ArchiveResponse;
+import com.yao.blog.dto.response.BlogResponse;
+import com.yao.blog.dto.response.BlogSummaryResponse;
+import com.yao.blog.dto.response.CursorPageResponse;
+import com.yao.blog.dto.response.PageResponse;
+import com.yao.blog.entity.Tag;
+import com.yao.blog.entity.User;
+import com.yao.blog.repository.TagRepository;
+import com.yao.blog.repository.UserRepository;
+import com.yao.blog.security.CustomUserDetails;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the list endpoints against N+1 regressions: the number of JDBC statements per call
+ * must not depend on how many posts or tags are on the page.
+ */
+// Caching is off so every call really reaches the database
+@SpringBootTest(properties = "blog.cache.enabled=false")
+@ActiveProfiles("test")
+class BlogServiceQueryCountTest {
+
+    private static final Pageable PAGE = PageRequest.of(0, 8, Sort.by(Sort.Direction.DESC, "updatedAt"));
+
+    @Autowired
+    private BlogService blogService;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    void listPublishedBlogs_usesFixedStatementCount() {
+        PageResponse<BlogSummaryResponse> page = blogService.listPublishedBlogs(PAGE);
+
+        assertFalse(page.getContent().isEmpty());
+        assertTrue(page.getContent().stream().allMatch(b -> b.getUser() != null && !b.getTags().isEmpty()));
+        // page + count + tags
+        assertStatements(3);
+    }
+
+    @Test
+    void listBlogsByTag_usesFixedStatementCount() {
+        Tag java = tagRepository.findByNameAndDeletedFalse("Java").orElseThrow();
+        statistics.clear();
+
+        PageResponse<BlogSummaryResponse> page = blogService.listBlogsByTag(java.getId(), PAGE);
+        assertFalse(page.getContent().isEmpty());
+        assertStatements(3);
+        assertEquals(page.getTotalElements(), java.getBlogCount());
+    }
+
+    @Test
+    void searchBlogs_usesFixedStatementCount() {
+        Page<BlogSummaryResponse> page = blogService.searchBlogs("Spring", PAGE);
+
+        assertFalse(page.isEmpty());
+        assertTrue(page.getContent().stream().anyMatch(b -> b.getHighlight() != null && b.getHighlight().contains("<mark>")));
+        // hit page + count + blogs + tags
+        assertStatements(4);
+    }
+
+    @Test
+    void listRecommendBlogs_usesFixedStatementCount() {
+        assertFalse(blogService.listRecommendBlogs(8).isEmpty());
+        assertStatements(2);
+    }
+
+    @Test
+    void archive_isServedFromTheSnapshotWithoutQueries() {
+        blogService.getArchiveIndex();
+        statistics.clear();
+
+        List<ArchiveResponse> archives = blogService.getArchiveIndex();
+        assertFalse(archives.isEmpty());
+        assertFalse(blogService.getArchiveYear(archives.get(0).getYear()).getMonths().isEmpty());
+        assertStatements(0);
+    }
+
+    @Test
+    void scrollPublishedBlogs_walksEveryPageWithoutCountQuery() {
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            CursorPageResponse<BlogSummaryResponse> page = blogService.scrollPublishedBlogs(cursor, 2);
+            // rows + tags, never a count(*)
+            assertStatements(2);
+            page.getContent().forEach(b -> assertTrue(seen.add(b.getId()), "duplicate row " + b.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertTrue(pages > 1);
+        assertEquals(blogService.searchBlogs("", PAGE).getTotalElements(), seen.size());
+    }
+
+    // Counts move through bulk updates; the write responses must still embed the new ones
+    @Test
+    void tagCounts_followCreateUpdatePublishAndDelete() {
+        Tag java = tagRepository.findByNameAndDeletedFalse("Java").orElseThrow();
+        Tag docker = tagRepository.findByNameAndDeletedFalse("Docker").orElseThrow();
+        long javaBefore = storedCount(java);
+        long dockerBefore = storedCount(docker);
+        User admin = userRepository.findByUsernameAndDeletedFalse("admin").orElseThrow();
+        CustomUserDetails principal = new CustomUserDetails(admin);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        BlogRequest request = new BlogRequest();
+        request.setTitle("Counted");
+        request.setContent("Body");
+        request.setPublished(true);
+        request.setTagIds(List.of(java.getId()));
+
+        BlogResponse created = blogService.createBlog(request);
+        assertCounts(created, Map.of(java, javaBefore + 1));
+
+        request.setTagIds(List.of(java.getId(), docker.getId()));
+        assertCounts(blogService.updateBlog(created.getId(), request), Map.of(java, javaBefore + 1, docker, dockerBefore + 1));
+
+        request.setPublished(false);
+        assertCounts(blogService.updateBlog(created.getId(), request), Map.of(java, javaBefore, docker, dockerBefore));
+
+        request.setPublished(true);
+        assertCounts(blogService.updateBlog(created.getId(), request), Map.of(java, javaBefore + 1, docker, dockerBefore + 1));
+
+        blogService.deleteBlog(created.getId());
+        assertEquals(javaBefore, storedCount(java));
+        assertEquals(dockerBefore, storedCount(docker));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private void assertCounts(BlogResponse response, Map<Tag, Long> expected) {
+        expected.forEach((tag, count) -> {
+            assertEquals(count.longValue(), storedCount(tag), tag.getName());
+            assertEquals(count.longValue(), response.getTags().stream().filter(t -> t.getId().equals(tag.getId()))
+                    .findFirst().orElseThrow().getBlogCount(), tag.getName());
+        });
+    }
+
+    private long storedCount(Tag tag) {
+        return jdbcTemplate.queryForObject("SELECT blog_count FROM t_tag WHERE id = ?", Long.class, tag.getId());
+    }
+
+    private void assertStatements(long max) {
+        long executed = statistics.getPrepareStatementCount();
+        assertTrue(executed <= max, "expected at most " + max + " statements but was " + executed);
+    }
+}
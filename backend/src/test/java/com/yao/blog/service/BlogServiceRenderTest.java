@@ -0,0 +1,88 @@
+package com.yao.blog.service;
+
+import com.yao.blog.dto.request.BlogRequest;
+import com.yao.blog.dto.response.BlogResponse;
+import com.yao.blog.entity.User;
+import com.yao.blog.repository.BlogRepository;
+import com.yao.blog.repository.UserRepository;
+import com.yao.blog.security.CustomUserDetails;
+import com.yao.blog.util.MarkdownUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Caching is off so every read reaches the stored row
+@SpringBootTest(properties = "blog.cache.enabled=false")
+@ActiveProfiles("test")
+class BlogServiceRenderTest {
+
+    @Autowired
+    private BlogService blogService;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void createAndUpdate_storeTheRenderedHtml() {
+        User admin = userRepository.findByUsernameAndDeletedFalse("admin").orElseThrow();
+        CustomUserDetails principal = new CustomUserDetails(admin);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        BlogRequest request = new BlogRequest();
+        request.setTitle("Rendered");
+        request.setContent("# Setup\n\nInstall the **toolchain** first.");
+        request.setPublished(true);
+
+        BlogResponse created = blogService.createBlog(request);
+        assertStoredRender(created.getId(), request.getContent());
+
+        request.setContent("# Setup\n\nThen run `make`.");
+        blogService.updateBlog(created.getId(), request);
+        assertStoredRender(created.getId(), request.getContent());
+
+        blogService.deleteBlog(created.getId());
+    }
+
+    // A renderer upgrade leaves rows behind; the first read renders them again and saves the result
+    @Test
+    void staleRendererVersion_isRerenderedOnRead() {
+        Long id = blogRepository.findLiveIds().get(0);
+        jdbcTemplate.update("UPDATE t_blog_content SET renderer_version = ?, content_html = 'stale' WHERE blog_id = ?",
+                MarkdownUtils.RENDERER_VERSION - 1, id);
+
+        BlogResponse response = blogService.getBlogAndConvert(id);
+
+        String markdown = jdbcTemplate.queryForObject("SELECT content FROM t_blog_content WHERE blog_id = ?",
+                String.class, id);
+        assertEquals(MarkdownUtils.render(markdown).html(), response.getContent());
+        assertStoredRender(id, markdown);
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private void assertStoredRender(Long id, String markdown) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT content_html, content_hash, renderer_version FROM t_blog_content WHERE blog_id = ?", id);
+        assertEquals(MarkdownUtils.render(markdown).html(), row.get("content_html"));
+        assertEquals(MarkdownUtils.contentHash(markdown), row.get("content_hash"));
+        assertEquals(MarkdownUtils.RENDERER_VERSION, ((Number) row.get("renderer_version")).intValue());
+    }
+}
@@ -0,0 +1,125 @@
+package com.yao.blog.service;
+
+import com.yao.blog.cache.ExistenceGuard;
+import com.yao.blog.dto.response.CommentResponse;
+import com.yao.blog.dto.response.CursorPageResponse;
+import com.yao.blog.entity.Blog;
+import com.yao.blog.entity.Comment;
+import com.yao.blog.repository.BlogRepository;
+import com.yao.blog.repository.CommentRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comment trees must load in one statement regardless of how many threads or how deep they go.
+ */
+@SpringBootTest(properties = "blog.cache.enabled=false")
+@ActiveProfiles("test")
+@Transactional
+class CommentServiceQueryCountTest {
+
+    private static final int THREADS = 5;
+    private static final int CHAIN_DEPTH = 6;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ExistenceGuard existenceGuard;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Blog blog;
+    private List<Comment> chain;
+
+    @BeforeEach
+    void setUp() {
+        blog = blogRepository.findAll().get(0);
+        for (int i = 0; i < THREADS; i++) {
+            chain = new ArrayList<>();
+            Comment parent = null;
+            for (int depth = 0; depth < CHAIN_DEPTH; depth++) {
+                parent = commentRepository.save(Comment.builder()
+                        .nickname("reader" + i)
+                        .content("thread " + i + " depth " + depth)
+                        .blog(blog)
+                        .parentComment(parent)
+                        .build());
+                chain.add(parent);
+                existenceGuard.created(ExistenceGuard.Kind.COMMENT, parent.getId());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    void getCommentsByBlogId_loadsWholeTreeInOneStatement() {
+        List<CommentResponse> threads = commentService.getCommentsByBlogId(blog.getId());
+
+        assertEquals(THREADS, threads.size());
+        assertEquals(CHAIN_DEPTH, depth(threads.get(0)));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void scrollThreads_pagesTopLevelAndCollapsesDeepReplies() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            statistics.clear();
+            CursorPageResponse<CommentResponse> page = commentService.scrollThreads(blog.getId(), cursor, 2);
+            assertEquals(1, statistics.getPrepareStatementCount());
+            page.getContent().forEach(thread -> seen.add(thread.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(THREADS, seen.size());
+        assertEquals(THREADS, seen.stream().distinct().count());
+
+        CommentResponse newest = commentService.scrollThreads(blog.getId(), null, 1).getContent().get(0);
+        assertEquals(chain.get(0).getId(), newest.getId());
+        CommentResponse collapsed = deepest(newest);
+        assertTrue(collapsed.isHasMoreReplies());
+        assertEquals(1, collapsed.getReplyCount());
+        assertTrue(collapsed.getReplies().isEmpty());
+
+        // The comment's blog, then its tree: with caching on, the tree comes from the COMMENTS entry instead
+        statistics.clear();
+        CursorPageResponse<CommentResponse> more = commentService.scrollReplies(collapsed.getId(), null, 10);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1, more.getContent().size());
+        assertEquals(CHAIN_DEPTH - depth(newest), depth(more.getContent().get(0)));
+    }
+
+    private static int depth(CommentResponse comment) {
+        return 1 + comment.getReplies().stream().mapToInt(CommentServiceQueryCountTest::depth).max().orElse(0);
+    }
+
+    private static CommentResponse deepest(CommentResponse comment) {
+        return comment.getReplies().isEmpty() ? comment : deepest(comment.getReplies().get(0));
+    }
+}
@@ -0,0 +1,87 @@
+package com.yao.blog.service;
+
+import com.yao.blog.util.MarkdownUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Save-path render cost of a 200 KB post when one paragraph changes per save: full re-render versus
+ * re-rendering only changed blocks. Run with {@code mvn test -Pbenchmark}.
+ */
+class ContentRenderBenchmark {
+
+    private static final int TARGET_SIZE = 200 * 1024;
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 200;
+
+    @Test
+    void compareFullAndIncrementalRender() {
+        String post = markdown();
+        ContentRenderer renderer = new ContentRenderer();
+        ReflectionTestUtils.setField(renderer, "maximumWeight", DataSize.ofMegabytes(32));
+        renderer.init();
+        renderer.render(post);
+
+        for (int i = 0; i < WARMUP; i++) {
+            MarkdownUtils.render(edit(post, i));
+            renderer.render(edit(post, i));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            MarkdownUtils.render(edit(post, WARMUP + i));
+        }
+        double full = (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            renderer.render(edit(post, WARMUP + ITERATIONS + i));
+        }
+        double incremental = (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+
+        System.out.printf("%nRender on save, %d KB post, %d blocks, one paragraph edited per save%n",
+                post.length() / 1024, MarkdownUtils.splitBlocks(post).size());
+        System.out.printf("  full render        : %8.1f us%n", full);
+        System.out.printf("  changed blocks only: %8.1f us%n%n", incremental);
+
+        String edited = edit(post, 1);
+        assertEquals(MarkdownUtils.render(edited), renderer.render(edited));
+        assertTrue(incremental < full);
+    }
+
+    // The author touches one sentence near the middle of the post
+    private static String edit(String post, int revision) {
+        int middle = post.indexOf("\n\n", post.length() / 2) + 2;
+        return post.substring(0, middle) + "Revision " + revision + " of this paragraph. " + post.substring(middle);
+    }
+
+    private static String markdown() {
+        String[] words = ("cache latency request node redis eviction value key thread database query index render "
+                + "markdown post reader deploy replica memory network payload spring service controller token "
+                + "the a of to and in is that for on with as by it this be are from at or an").split(" ");
+        Random random = new Random(42);
+        StringBuilder markdown = new StringBuilder();
+        for (int section = 1; markdown.length() < TARGET_SIZE; section++) {
+            markdown.append("## Section ").append(section % 20).append("\n\n");
+            for (int paragraph = 0; paragraph < 3; paragraph++) {
+                for (int sentence = 0; sentence < 4; sentence++) {
+                    for (int word = 0; word < 8 + random.nextInt(10); word++) {
+                        String next = words[random.nextInt(words.length)];
+                        markdown.append(random.nextInt(15) == 0 ? "**" + next + "**" : next).append(' ');
+                    }
+                    markdown.append("`").append(random.nextInt(50)).append("`. ");
+                }
+                markdown.append("\n\n");
+            }
+            markdown.append("- item one\n- item two with [a link](https://example.com/").append(section).append(")\n\n")
+                    .append("```java\ncache.evict(").append(section).append("L);\n```\n\n")
+                    .append("| Level | Store |\n|---|---|\n| L1 | Caffeine |\n\n");
+        }
+        return markdown.toString();
+    }
+}
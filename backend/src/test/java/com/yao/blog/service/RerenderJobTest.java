@@ -0,0 +1,107 @@
+package com.yao.blog.service;
+
+import com.yao.blog.dto.response.RerenderJobResponse;
+import com.yao.blog.entity.Blog;
+import com.yao.blog.entity.BlogContent;
+import com.yao.blog.entity.JobCheckpoint;
+import com.yao.blog.repository.BlogContentRepository;
+import com.yao.blog.repository.BlogRepository;
+import com.yao.blog.repository.JobCheckpointRepository;
+import com.yao.blog.util.MarkdownUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"blog.cache.enabled=false", "blog.render.rerender.chunk-size=2"})
+@ActiveProfiles("test")
+class RerenderJobTest {
+
+    @Autowired
+    private RerenderJob rerenderJob;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private BlogContentRepository blogContentRepository;
+
+    @Autowired
+    private JobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void markAllStale() {
+        checkpointRepository.deleteAll();
+        jdbcTemplate.update("UPDATE t_blog_content SET renderer_version = 1, content_html = 'stale', outline = NULL, images = NULL");
+    }
+
+    @Test
+    void rerendersStalePostsWithoutTouchingUpdatedAt() throws InterruptedException {
+        List<Blog> before = blogRepository.findAll();
+        assertTrue(before.size() > 2);
+
+        RerenderJobResponse result = runToEnd(false);
+
+        assertEquals("COMPLETED", result.getState());
+        assertEquals(blogRepository.countByDeletedFalse(), result.getUpdated());
+        for (Blog blog : blogRepository.findAll()) {
+            if (blog.isDeleted()) {
+                continue;
+            }
+            BlogContent content = blogContentRepository.findById(blog.getId()).orElseThrow();
+            MarkdownUtils.RenderedContent expected = MarkdownUtils.render(content.getContent());
+            assertEquals(MarkdownUtils.RENDERER_VERSION, content.getRendererVersion());
+            assertEquals(expected.html(), content.getContentHtml());
+            assertEquals(expected.outline(), content.getOutline());
+            assertEquals(expected.images(), content.getImages());
+            assertEquals(expected.wordCount(), blog.getWordCount());
+            LocalDateTime updatedAt = before.stream().filter(b -> b.getId().equals(blog.getId())).findFirst()
+                    .orElseThrow().getUpdatedAt();
+            assertEquals(updatedAt, blog.getUpdatedAt());
+        }
+        assertTrue(checkpointRepository.findById(RerenderJob.NAME).isEmpty());
+
+        assertEquals(0, runToEnd(false).getTotal());
+    }
+
+    @Test
+    void resumesAfterTheCheckpoint() throws InterruptedException {
+        List<Long> ids = blogRepository.findLiveIds().stream().sorted().toList();
+        Long checkpointId = ids.get(1);
+        checkpointRepository.save(JobCheckpoint.builder()
+                .name(RerenderJob.NAME)
+                .lastId(checkpointId)
+                .rendererVersion(MarkdownUtils.RENDERER_VERSION)
+                .force(true)
+                .updatedAt(LocalDateTime.now())
+                .build());
+
+        RerenderJobResponse result = runToEnd(true);
+
+        assertEquals(ids.size() - 2, result.getProcessed());
+        assertEquals("stale", blogContentRepository.findById(ids.get(0)).orElseThrow().getContentHtml());
+        assertNotEquals("stale", blogContentRepository.findById(ids.get(2)).orElseThrow().getContentHtml());
+    }
+
+    private RerenderJobResponse runToEnd(boolean force) throws InterruptedException {
+        assertNotNull(rerenderJob.start(force));
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        RerenderJobResponse status = rerenderJob.status();
+        while ("RUNNING".equals(status.getState()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = rerenderJob.status();
+        }
+        assertEquals("COMPLETED", status.getState(), status.getError());
+        return status;
+    }
+}
@@ -0,0 +1,137 @@
+package com.yao.blog.service;
+
+import com.yao.blog.dto.request.BlogRequest;
+import com.yao.blog.entity.Tag;
+import com.yao.blog.entity.User;
+import com.yao.blog.repository.TagRepository;
+import com.yao.blog.repository.UserRepository;
+import com.yao.blog.security.CustomUserDetails;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "blog.cache.enabled=false")
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private BlogService blogService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private final List<Long> created = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void usersAndTags_areReadFromTheSecondLevelCache() {
+        User admin = userRepository.findByUsernameAndDeletedFalse("admin").orElseThrow();
+        userRepository.findById(admin.getId());
+        tagRepository.findByNameAndDeletedFalse("Java");
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertEquals("admin", userRepository.findById(admin.getId()).orElseThrow().getUsername());
+            assertTrue(userRepository.findByUsernameAndDeletedFalse("admin").isPresent());
+            assertTrue(tagRepository.findByNameAndDeletedFalse("Java").isPresent());
+        });
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getQueryCacheHitCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    // The query cache is per node; the tag list fills the shared tags cache, so it must not come from there
+    @Test
+    void tagList_isAlwaysReadFromTheDatabase() {
+        tagRepository.findByDeletedFalse();
+        statistics.clear();
+
+        assertFalse(tagRepository.findByDeletedFalse().isEmpty());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void writingTags_invalidatesCachedQueries() {
+        Tag java = tagRepository.findByNameAndDeletedFalse("Java").orElseThrow();
+        transactionTemplate.executeWithoutResult(status -> tagRepository.adjustBlogCount(Set.of(java.getId()), 0));
+        statistics.clear();
+
+        tagRepository.findByNameAndDeletedFalse("Java");
+        assertEquals(1, statistics.getQueryCacheMissCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void createBlog_resolvesAllTagsInOneQuery() {
+        List<Long> tagIds = tagRepository.findByDeletedFalse().stream().map(Tag::getId).toList();
+        User admin = userRepository.findByUsernameAndDeletedFalse("admin").orElseThrow();
+        CustomUserDetails principal = new CustomUserDetails(admin);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        long oneTag = queriesToCreate(tagIds.subList(0, 1));
+        long allTags = queriesToCreate(tagIds);
+
+        assertTrue(tagIds.size() > 3);
+        assertEquals(oneTag, allTags);
+    }
+
+    // Queries rather than statements: each tag still costs a t_blog_tag insert. Drafts, so tag counts, the
+    // archive and the listings other tests check are left alone
+    private long queriesToCreate(List<Long> tagIds) {
+        BlogRequest request = new BlogRequest();
+        request.setTitle("Tagged " + tagIds.size());
+        request.setContent("Body");
+        request.setTagIds(tagIds);
+        statistics.clear();
+        created.add(blogService.createBlog(request).getId());
+        return statistics.getQueryExecutionCount();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        created.forEach(id -> {
+            jdbcTemplate.update("DELETE FROM t_blog_tag WHERE blog_id = ?", id);
+            jdbcTemplate.update("DELETE FROM t_blog_content WHERE blog_id = ?", id);
+            jdbcTemplate.update("DELETE FROM t_blog WHERE id = ?", id);
+        });
+        created.clear();
+    }
+}
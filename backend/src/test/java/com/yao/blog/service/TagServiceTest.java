@@ -1,5 +1,7 @@
 package com.yao.blog.service;
 
+import com.yao.blog.cache.CacheInvalidator;
+import com.yao.blog.cache.ExistenceGuard;
 import com.yao.blog.dto.request.TagRequest;
 import com.yao.blog.dto.response.TagResponse;
 import com.yao.blog.entity.Tag;
@@ -25,6 +27,12 @@ class TagServiceTest {
     @Mock
     private TagRepository tagRepository;
 
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Mock
+    private ExistenceGuard existenceGuard;
+
     @InjectMocks
     private TagService tagService;
 
@@ -60,6 +68,7 @@ class TagServiceTest {
     @Test
     void getTag_notFound_throwsException() {
         when(tagRepository.findByIdAndDeletedFalse(999L)).thenReturn(Optional.empty());
+        when(existenceGuard.missing(ExistenceGuard.Kind.TAG, 999L)).thenReturn(new ResourceNotFoundException("Tag", 999L));
 
         assertThrows(ResourceNotFoundException.class, () -> tagService.getTag(999L));
     }
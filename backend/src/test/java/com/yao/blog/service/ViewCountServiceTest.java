@@ -0,0 +1,186 @@
+package com.yao.blog.service;
+
+import com.yao.blog.cache.ChangeSequence;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ViewCountServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ChangeSequence changeSequence;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashes;
+
+    @Mock
+    private Cursor<String> claims;
+
+    @InjectMocks
+    private ViewCountService viewCountService;
+
+    @Test
+    void increment_isVisibleAsPendingUntilFlushed() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+
+        viewCountService.increment(1L);
+        viewCountService.increment(1L);
+        assertEquals(2, viewCountService.pending(1L));
+
+        viewCountService.flush();
+
+        assertEquals(0, viewCountService.pending(1L));
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+        verify(changeSequence).advance();
+    }
+
+    @Test
+    void views_addPendingToTheStoredCountAndFollowFlushesWithoutRereading() {
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<ResultSetExtractor<Long>>any(), eq(1L))).thenReturn(10L);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+
+        viewCountService.increment(1L);
+        assertEquals(11L, viewCountService.views(1L));
+        viewCountService.increment(1L);
+        viewCountService.flush();
+
+        assertEquals(12L, viewCountService.views(1L));
+        verify(jdbcTemplate, times(1)).query(anyString(), ArgumentMatchers.<ResultSetExtractor<Long>>any(), eq(1L));
+    }
+
+    @Test
+    void views_ofMissingBlog_isNull() {
+        assertNull(viewCountService.views(99L));
+    }
+
+    @Test
+    void flush_failure_keepsDeltasForRetry() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("db down"));
+
+        viewCountService.increment(7L);
+        viewCountService.flush();
+
+        assertEquals(1, viewCountService.pending(7L));
+        verify(changeSequence, never()).advance();
+    }
+
+    @Test
+    void failedRedisDrain_returnsTheClaimToTheBuffer() {
+        ReflectionTestUtils.setField(viewCountService, "redisBuffer", true);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashes);
+        when(redisTemplate.renameIfAbsent(eq(ViewCountService.REDIS_PENDING_KEY), anyString())).thenReturn(true);
+        when(hashes.entries(anyString())).thenThrow(new RedisConnectionFailureException("connection reset"));
+
+        viewCountService.flush();
+
+        ArgumentCaptor<String> claim = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).renameIfAbsent(eq(ViewCountService.REDIS_PENDING_KEY), claim.capture());
+        verify(redisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(),
+                eq(List.of(claim.getValue(), ViewCountService.REDIS_PENDING_KEY)));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    // Claims still being drained by a live node are recent and left alone
+    @Test
+    void startup_returnsOnlyOrphanedClaims() {
+        ReflectionTestUtils.setField(viewCountService, "redisBuffer", true);
+        String orphaned = ViewCountService.CLAIM_PREFIX + (System.currentTimeMillis() - 600_000) + ":a";
+        String live = ViewCountService.CLAIM_PREFIX + System.currentTimeMillis() + ":b";
+        when(claims.hasNext()).thenReturn(true, true, false);
+        when(claims.next()).thenReturn(orphaned, live);
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(claims);
+
+        viewCountService.recoverOrphanedClaims();
+
+        verify(redisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(),
+                eq(List.of(orphaned, ViewCountService.REDIS_PENDING_KEY)));
+        verify(redisTemplate, never()).execute(ArgumentMatchers.<RedisScript<Long>>any(),
+                eq(List.of(live, ViewCountService.REDIS_PENDING_KEY)));
+    }
+
+    @Test
+    void concurrentIncrements_areNotLostAcrossFlushes() throws Exception {
+        ConcurrentHashMap<Long, AtomicLong> persisted = new ConcurrentHashMap<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> batch = invocation.getArgument(1);
+            for (Object[] row : batch) {
+                persisted.computeIfAbsent((Long) row[1], k -> new AtomicLong()).addAndGet((Long) row[0]);
+            }
+            return new int[batch.size()];
+        });
+
+        int threads = 16;
+        int incrementsPerThread = 20_000;
+        int blogs = 10;
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < incrementsPerThread; i++) {
+                    viewCountService.increment((long) (i % blogs));
+                }
+                done.countDown();
+                return null;
+            });
+        }
+        pool.submit(() -> {
+            start.await();
+            while (running.get()) {
+                viewCountService.flush();
+            }
+            return null;
+        });
+
+        start.countDown();
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        running.set(false);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        viewCountService.flush();
+
+        long total = persisted.values().stream().mapToLong(AtomicLong::get).sum();
+        assertEquals((long) threads * incrementsPerThread, total);
+        for (long id = 0; id < blogs; id++) {
+            assertEquals((long) threads * incrementsPerThread / blogs, persisted.get(id).get());
+        }
+    }
+}
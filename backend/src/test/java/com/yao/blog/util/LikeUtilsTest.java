@@ -0,0 +1,16 @@
+package com.yao.blog.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LikeUtilsTest {
+
+    @Test
+    void contains_escapesWildcardsAndTheEscapeCharacter() {
+        assertEquals("%spring%", LikeUtils.contains("spring"));
+        assertEquals("%100!%%", LikeUtils.contains("100%"));
+        assertEquals("%snake!_case%", LikeUtils.contains("snake_case"));
+        assertEquals("%wow!!%", LikeUtils.contains("wow!"));
+    }
+}
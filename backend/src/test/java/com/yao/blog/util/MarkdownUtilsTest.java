@@ -0,0 +1,141 @@
+package com.yao.blog.util;
+
+import com.yao.blog.entity.ContentHeading;
+import org.commonmark.Extension;
+import org.commonmark.ext.gfm.tables.TablesExtension;
+import org.commonmark.ext.heading.anchor.HeadingAnchorExtension;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarkdownUtilsTest {
+
+    private static final String POST = """
+            # Getting started
+
+            Spring **Boot** makes it `easy` to [build](https://spring.io) services.
+
+            ![diagram](/img/diagram.png)
+
+            ## Getting started
+
+            ```java
+            class Ignored {}
+            ```
+
+            ## 部署
+            这是中文内容
+            """;
+
+    @Test
+    void outlineAnchorsMatchRenderedIds() {
+        MarkdownUtils.RenderedContent rendered = MarkdownUtils.render(POST);
+
+        List<ContentHeading> outline = rendered.outline();
+        assertEquals(3, outline.size());
+        assertEquals(new ContentHeading(1, "Getting started", "getting-started"), outline.get(0));
+        assertEquals(new ContentHeading(2, "Getting started", "getting-started-1"), outline.get(1));
+        for (ContentHeading heading : outline) {
+            assertTrue(rendered.html().contains("id=\"" + heading.getAnchor() + "\""), heading.getAnchor());
+        }
+    }
+
+    @Test
+    void excerptIsPlainTextWithoutHeadingsOrCode() {
+        MarkdownUtils.RenderedContent rendered = MarkdownUtils.render(POST);
+
+        assertEquals("Spring Boot makes it easy to build services. 这是中文内容", rendered.excerpt());
+        assertEquals(List.of("/img/diagram.png"), rendered.images());
+    }
+
+    @Test
+    void countsWordsAndCjkCharacters() {
+        MarkdownUtils.RenderedContent rendered = MarkdownUtils.render(POST);
+
+        // 4 heading words + 2 heading characters, 8 prose words + 6 characters; the code block is not counted
+        assertEquals(20, rendered.wordCount());
+        assertEquals(1, rendered.readingMinutes());
+        assertEquals(0, MarkdownUtils.render("").wordCount());
+    }
+
+    @Test
+    void longExcerptIsCutOnAWordBoundary() {
+        String excerpt = MarkdownUtils.excerpt("word ".repeat(50));
+
+        assertTrue(excerpt.endsWith("word..."), excerpt);
+        assertTrue(excerpt.length() <= MarkdownUtils.EXCERPT_LENGTH + 3);
+    }
+
+    @Test
+    void blockByBlockRenderingMatchesWholeDocument() {
+        String markdown = POST + """
+
+                1. first
+
+                2. second
+                   continued
+
+                > quote
+
+                ```
+                fenced
+
+                # not a heading
+                ```
+
+                <!-- comment
+
+                still a comment -->
+
+                | a | b |
+                |---|---|
+                | 1 | 2 |
+
+                ## Getting started
+                """;
+
+        assertTrue(MarkdownUtils.splitBlocks(markdown).size() > 5);
+        assertEquals(wholeDocumentHtml(markdown), MarkdownUtils.markdownToHtml(markdown));
+    }
+
+    @Test
+    void splitKeepsFencesListsAndReferencesTogether() {
+        assertEquals(List.of("```\na\n\nb\n```\n\n", "text\n"), MarkdownUtils.splitBlocks("```\na\n\nb\n```\n\ntext\n"));
+        assertEquals(1, MarkdownUtils.splitBlocks("- a\n\n- b\n\n  more\n").size());
+        assertEquals(1, MarkdownUtils.splitBlocks("see [x]\n\n[x]: https://example.com\n").size());
+    }
+
+    @Test
+    void editRerendersOnlyTheChangedBlock() {
+        String before = "# A\n\nfirst paragraph\n\n# A\n\nsecond paragraph\n";
+        String after = before.replace("second", "edited");
+        Map<String, MarkdownUtils.Fragment> cache = new HashMap<>();
+        List<String> rendered = new ArrayList<>();
+        Function<String, MarkdownUtils.Fragment> fragments = block -> cache.computeIfAbsent(block, b -> {
+            rendered.add(b);
+            return MarkdownUtils.renderFragment(b);
+        });
+
+        MarkdownUtils.render(before, fragments);
+        rendered.clear();
+        MarkdownUtils.RenderedContent result = MarkdownUtils.render(after, fragments);
+
+        assertEquals(List.of("edited paragraph\n"), rendered);
+        assertEquals(wholeDocumentHtml(after), result.html());
+        assertEquals("a-1", result.outline().get(1).getAnchor());
+    }
+
+    private static String wholeDocumentHtml(String markdown) {
+        List<Extension> extensions = List.of(TablesExtension.create(), HeadingAnchorExtension.create());
+        return HtmlRenderer.builder().extensions(extensions).build()
+                .render(Parser.builder().extensions(extensions).build().parse(markdown));
+    }
+}
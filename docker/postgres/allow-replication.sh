@@ -0,0 +1,3 @@
+#!/bin/sh
+# Runs once, when the primary's data directory is first initialised: lets the replica stream from it
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
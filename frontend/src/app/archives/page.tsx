@@ -5,50 +5,77 @@ export const dynamic = 'force-dynamic';
 
 const API_BASE = process.env.API_URL || process.env.NEXT_PUBLIC_API_URL || 'http://localhost:8080';
 
+const MONTHS = ['January', 'February', 'March', 'April', 'May', 'June', 'July', 'August', 'September',
+  'October', 'November', 'December'];
+
 async function getArchives(): Promise<ArchiveResponse[]> {
   const res = await fetch(`${API_BASE}/api/blogs/archive`, { next: { revalidate: 60 } });
   if (!res.ok) return [];
   return res.json();
 }
 
-async function getBlogCount(): Promise<number> {
-  const res = await fetch(`${API_BASE}/api/blogs/count`, { next: { revalidate: 60 } });
-  if (!res.ok) return 0;
+async function getArchiveYear(year: number): Promise<ArchiveResponse | null> {
+  const res = await fetch(`${API_BASE}/api/blogs/archive/${year}`, { next: { revalidate: 60 } });
+  if (!res.ok) return null;
   return res.json();
 }
 
-export default async function ArchivesPage() {
-  const [archives, count] = await Promise.all([getArchives(), getBlogCount()]);
+// One year of posts per page; the index only carries counts
+export default async function ArchivesPage({ searchParams }: { searchParams: Promise<{ year?: string }> }) {
+  const { year } = await searchParams;
+  const archives = await getArchives();
+  const selected = year ? Number(year) : archives[0]?.year;
+  const archive = selected ? await getArchiveYear(selected) : null;
+  const count = archives.reduce((total, a) => total + a.count, 0);
 
   return (
     <div className="max-w-4xl mx-auto px-4 py-8">
       <h1 className="text-3xl font-bold text-fg mb-2">Archives</h1>
       <p className="text-overlay-1 mb-8">Total {count} posts</p>
 
-      <div className="space-y-8">
-        {archives.map((archive) => (
-          <div key={archive.year}>
-            <h2 className="text-2xl font-bold text-mauve mb-4 border-b border-surface-1 pb-2">
-              {archive.year}
-            </h2>
-            <ul className="space-y-3">
-              {archive.blogs.map((blog) => (
-                <li key={blog.id} className="flex items-center gap-4">
-                  <span className="text-sm text-overlay-1 w-24 shrink-0">
-                    {new Date(blog.createdAt).toLocaleDateString()}
-                  </span>
-                  <Link
-                    href={`/blog/${blog.id}`}
-                    className="text-subtext-1 hover:text-mauve transition"
-                  >
-                    {blog.title}
-                  </Link>
-                </li>
-              ))}
-            </ul>
-          </div>
+      <div className="flex flex-wrap gap-2 mb-8">
+        {archives.map((a) => (
+          <Link
+            key={a.year}
+            href={`/archives?year=${a.year}`}
+            className={`px-3 py-1 rounded-full text-sm transition ${
+              a.year === selected
+                ? 'bg-mauve text-base font-semibold'
+                : 'bg-surface-0 text-lavender hover:bg-surface-1 hover:text-mauve'
+            }`}
+          >
+            {a.year} ({a.count})
+          </Link>
         ))}
       </div>
+
+      {archive && (
+        <div className="space-y-8">
+          <h2 className="text-2xl font-bold text-mauve border-b border-surface-1 pb-2">{archive.year}</h2>
+          {archive.months.map((month) => (
+            <div key={month.month}>
+              <h3 className="text-lg font-semibold text-subtext-0 mb-3">
+                {MONTHS[month.month - 1]} ({month.count})
+              </h3>
+              <ul className="space-y-3">
+                {month.blogs?.map((blog) => (
+                  <li key={blog.id} className="flex items-center gap-4">
+                    <span className="text-sm text-overlay-1 w-24 shrink-0">
+                      {new Date(blog.createdAt).toLocaleDateString()}
+                    </span>
+                    <Link
+                      href={`/blog/${blog.id}`}
+                      className="text-subtext-1 hover:text-mauve transition"
+                    >
+                      {blog.title}
+                    </Link>
+                  </li>
+                ))}
+              </ul>
+            </div>
+          ))}
+        </div>
+      )}
     </div>
   );
 }
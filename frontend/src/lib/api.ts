@@ -97,6 +97,10 @@ class ApiClient {
     return this.request('/api/blogs/archive');
   }
 
+  async getArchiveYear(year: number): Promise<ArchiveResponse> {
+    return this.request(`/api/blogs/archive/${year}`);
+  }
+
   async getBlogCount(): Promise<number> {
     return this.request('/api/blogs/count');
   }
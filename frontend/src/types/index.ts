@@ -53,9 +53,22 @@ export interface CommentResponse {
   replies: CommentResponse[];
 }
 
+export interface ArchiveEntryResponse {
+  id: number;
+  title: string;
+  createdAt: string;
+}
+
+export interface ArchiveMonthResponse {
+  month: number;
+  count: number;
+  blogs?: ArchiveEntryResponse[];
+}
+
 export interface ArchiveResponse {
   year: number;
-  blogs: BlogSummaryResponse[];
+  count: number;
+  months: ArchiveMonthResponse[];
 }
 
 export interface Page<T> {